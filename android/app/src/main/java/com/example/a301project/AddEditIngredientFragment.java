@@ -67,9 +67,11 @@ public class AddEditIngredientFragment extends DialogFragment {
     /**
      * Method that responds when the fragment has been interacted with
      * OnConfirmPressed either creates a new Ingredient or updates an existing one based on boolean createNewIngredient
+     * OnDeleteConfirmed is called after an existing Ingredient was deleted
      */
     public interface OnFragmentInteractionListener {
         void onConfirmPressed(Ingredient currentIngredient, boolean createNewIngredient);
+        void onDeleteConfirmed(Ingredient currentIngredient);
     }
 
     /**
@@ -192,6 +194,7 @@ public class AddEditIngredientFragment extends DialogFragment {
                             public void onClick(DialogInterface dialog, int id) {
                                 IngredientController controller = new IngredientController();
                                 controller.removeIngredient(currentIngredient);
+                                listener.onDeleteConfirmed(currentIngredient);
 
                                 Fragment frag = getParentFragmentManager().findFragmentByTag("EDIT");
                                 getParentFragmentManager().beginTransaction().remove(frag).commit();
@@ -557,6 +560,7 @@ public class AddEditIngredientFragment extends DialogFragment {
                     if (result != null && result.containsKey("IngredientUnits")) {
                         unitOptions.addAll(unitOptions.size()-1, ((ArrayList<CharSequence>) result.get("IngredientUnits")));
                     }
+                    QuantityConverter.registerUnits(unitOptions);
                     unitAdapter.notifyDataSetChanged();
 
                     // set the spinners at the correct value for the current ingredient
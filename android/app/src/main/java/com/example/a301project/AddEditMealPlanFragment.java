@@ -54,13 +54,11 @@ public class AddEditMealPlanFragment extends DialogFragment {
     private ArrayList<Ingredient> ingredientsDataList;
     private ArrayList<Recipe> recipesDataList;
     private IngredientController ingredientController = new IngredientController();
-    private ArrayList<String> ingredientAutoCompleteList = new ArrayList<>();
     private ArrayList<Ingredient> ingredientFetchList = new ArrayList<>();
     private ArrayAdapter<Ingredient> ingredientFetchAdapter;
-    private ArrayAdapter<String> ingredientAutoCompleteAdapter;
+    private SuggestionAdapter ingredientAutoCompleteAdapter;
     private RecipeController recipeController = new RecipeController();
-    private ArrayList<String> recipeAutoCompleteList = new ArrayList<>();
-    private ArrayAdapter<String> recipeAutoCompleteAdapter;
+    private SuggestionAdapter recipeAutoCompleteAdapter;
     private AddEditMealPlanFragment.OnFragmentInteractionListener listener;
 
     /**
@@ -76,19 +74,18 @@ public class AddEditMealPlanFragment extends DialogFragment {
     }
 
     /**
-     * Method to clear ingredient,
-     * Resets the internal meal plan list the new one.
+     * Keeps the ingredients in storage, which can be added to the meal plan, and adds their names
+     * to the names suggested by the autocomplete
      *
-     * @param r {@link ArrayList} list of ingredients to set the data list to
+     * @param r {@link ArrayList} list of the ingredients in storage
      */
     private void setIngredientDataList(ArrayList<Ingredient> r) {
-        ingredientAutoCompleteList.clear();
+        setIngredientFetchList(r);
+        TrigramIndex ingredientNames = TrigramIndex.ingredientNames();
         for (Ingredient i : r) {
-            if (ingredientsDataList.stream().noneMatch(i1 -> i.getName().equals(i1.getName()))) {
-                ingredientAutoCompleteList.add(i.getName());
-            }
+            ingredientNames.add(i.getName());
         }
-        ingredientAutoCompleteAdapter.notifyDataSetChanged();
+        ingredientNames.setLoaded(true);
     }
 
     private void setIngredientFetchList(ArrayList<Ingredient> r) {
@@ -100,19 +97,16 @@ public class AddEditMealPlanFragment extends DialogFragment {
 
 
     /**
-     * Method to clear recipe,
-     * Resets the internal meal plan list the new one.
+     * Adds the recipe titles to the titles suggested by the autocomplete
      *
-     * @param r {@link ArrayList} list of recipes to set the data list to
+     * @param r {@link ArrayList} list of the recipes
      */
     private void setRecipeDataList(ArrayList<Recipe> r) {
-        recipeAutoCompleteList.clear();
+        TrigramIndex recipeTitles = TrigramIndex.recipeTitles();
         for (Recipe i : r) {
-            if (recipesDataList.stream().noneMatch(i1 -> i.getTitle().equals(i1.getTitle()))) {
-                recipeAutoCompleteList.add(i.getTitle());
-            }
+            recipeTitles.add(i.getTitle());
         }
-        recipeAutoCompleteAdapter.notifyDataSetChanged();
+        recipeTitles.setLoaded(true);
     }
 
     /**
@@ -225,8 +219,7 @@ public class AddEditMealPlanFragment extends DialogFragment {
 
         // Load autocomplete ingredients
         ingredientController.getIngredients(res -> setIngredientDataList(res));
-        ingredientAutoCompleteAdapter = new ArrayAdapter<>(getContext(),
-                android.R.layout.simple_dropdown_item_1line, ingredientAutoCompleteList);
+        ingredientAutoCompleteAdapter = new SuggestionAdapter(getContext(), TrigramIndex.ingredientNames());
         ingredientAutoText.setAdapter(ingredientAutoCompleteAdapter);
 
         // Set a HARDCODED delay to make sure the keyboard is up first and the dropdown
@@ -259,13 +252,14 @@ public class AddEditMealPlanFragment extends DialogFragment {
         // Load ingredients to auto complete once selected
         ingredientsDataList = new ArrayList<>();
         ingredientsDataList.addAll(currentMealPlan.getIngredients());
+        for (Ingredient i : ingredientsDataList) {
+            ingredientAutoCompleteAdapter.exclude(i.getName());
+        }
         ingredientArrayAdapter = new RecipeIngredientListAdapter(getContext(), ingredientsDataList);
         ingredientList.setAdapter(ingredientArrayAdapter);
 
         addIngredientButton.setOnClickListener(view_ -> {
             String ingredientName = ingredientAutoText.getText().toString();
-            // get all ingredients in Firebase storage and set them to fetch list
-            ingredientController.getIngredients(res -> setIngredientFetchList(res));
             if (!ingredientName.isEmpty()) {
                 // for each ingredient in the fetch list, compare names and add to dataList
                 for (Ingredient i: ingredientFetchList) {
@@ -282,21 +276,15 @@ public class AddEditMealPlanFragment extends DialogFragment {
                         InputMethodManager.HIDE_NOT_ALWAYS);
 
                 // Remove from autocomplete for future
-                if (ingredientAutoCompleteList.contains(ingredientName)) {
-                    ingredientAutoCompleteList.remove(ingredientName);
-
-                    // Idk why but we have to create a new one for this to work
-                    ingredientAutoCompleteAdapter = new ArrayAdapter<>(getContext(),
-                            android.R.layout.simple_dropdown_item_1line, ingredientAutoCompleteList);
-                    ingredientAutoText.setAdapter(ingredientAutoCompleteAdapter);
-                }
+                ingredientAutoCompleteAdapter.exclude(ingredientName);
             }
         });
 
-        // Load autocomplete recipes
-        recipeController.getRecipes(res -> setRecipeDataList(res));
-        recipeAutoCompleteAdapter = new ArrayAdapter<>(getContext(),
-                android.R.layout.simple_dropdown_item_1line, recipeAutoCompleteList);
+        // Load autocomplete recipes, unless their titles have already been read
+        if (!TrigramIndex.recipeTitles().isLoaded()) {
+            recipeController.getRecipes(res -> setRecipeDataList(res));
+        }
+        recipeAutoCompleteAdapter = new SuggestionAdapter(getContext(), TrigramIndex.recipeTitles());
         recipeAutoText.setAdapter(recipeAutoCompleteAdapter);
 
         // Set a HARDCODED delay to make sure the keyboard is up first and the dropdown
@@ -328,6 +316,9 @@ public class AddEditMealPlanFragment extends DialogFragment {
         // Load recipes
         recipesDataList = new ArrayList<>();
         recipesDataList.addAll(currentMealPlan.getRecipes());
+        for (Recipe r : recipesDataList) {
+            recipeAutoCompleteAdapter.exclude(r.getTitle());
+        }
         recipeArrayAdapter = new MealPlanRecipeListAdapter(getContext(), recipesDataList);
         recipeList.setAdapter(recipeArrayAdapter);
 
@@ -344,14 +335,7 @@ public class AddEditMealPlanFragment extends DialogFragment {
                         InputMethodManager.HIDE_NOT_ALWAYS);
 
                 // Remove from autocomplete for future
-                if (recipeAutoCompleteList.contains(recipeName)) {
-                    recipeAutoCompleteList.remove(recipeName);
-
-                    // Idk why but we have to create a new one for this to work
-                    recipeAutoCompleteAdapter = new ArrayAdapter<>(getContext(),
-                            android.R.layout.simple_dropdown_item_1line, recipeAutoCompleteList);
-                    recipeAutoText.setAdapter(recipeAutoCompleteAdapter);
-                }
+                recipeAutoCompleteAdapter.exclude(recipeName);
             }
         });
 
@@ -8,7 +8,6 @@ import android.content.DialogInterface;
 import android.content.Intent;
 import android.content.res.Resources;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.net.Uri;
 import android.os.Bundle;
 import android.provider.MediaStore;
@@ -46,12 +45,7 @@ import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.storage.FirebaseStorage;
 import com.google.firebase.storage.StorageReference;
-import com.google.firebase.storage.UploadTask;
-import com.squareup.picasso.Picasso;
 
-import java.io.ByteArrayOutputStream;
-import java.io.FileNotFoundException;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -78,12 +72,14 @@ public class AddEditRecipeFragment extends DialogFragment {
     private Button cameraButton;
     private final FirebaseStorage storage = FirebaseStorage.getInstance();
     private String photoUrl;
+    private String photoThumbnailUrl;
+    private String photoDetailUrl;
+    private final RecipePhotoPipeline photoPipeline = new RecipePhotoPipeline(false);
     private ArrayAdapter<Ingredient> ingredientArrayAdapter;
     private ArrayList<Ingredient> ingredientsDataList;
     private AutoCompleteTextView ingredientAutoText;
     private final IngredientController ingredientController = new IngredientController();
-    private final ArrayList<String> ingredientAutoCompleteList = new ArrayList<>();
-    private ArrayAdapter<String> ingredientAutoCompleteAdapter;
+    private SuggestionAdapter ingredientAutoCompleteAdapter;
     private ArrayList<CharSequence> categoryOptions;
     private AddEditRecipeController addEditRecipeController;
     private Resources res;
@@ -99,26 +95,24 @@ public class AddEditRecipeFragment extends DialogFragment {
     }
 
     /**
-     * Method to clear ingredient,
-     * Resets the internal recipe list the new one.
-     * @param r {@link ArrayList} list of recipes to set the data list to
+     * Adds the names of the ingredients in storage to the names suggested by the autocomplete
+     * @param r {@link ArrayList} list of the ingredients in storage
      */
     private void setIngredientDataList(ArrayList<Ingredient> r) {
-        ingredientAutoCompleteList.clear();
+        TrigramIndex ingredientNames = TrigramIndex.ingredientNames();
         for (Ingredient i : r) {
-            if (ingredientsDataList.stream().noneMatch(i1 -> i.getName().equals(i1.getName()))) {
-                ingredientAutoCompleteList.add(i.getName());
-            }
+            ingredientNames.add(i.getName());
         }
-        ingredientAutoCompleteAdapter.notifyDataSetChanged();
+        ingredientNames.setLoaded(true);
     }
 
     /**
-     * Saves the bitmap to firebase storage with the name of the recipe
-     * @param bitmap {@link Bitmap} the bitmap to save
+     * Saves the versions of a photo to firebase storage with the name of the recipe, once they
+     * have been made on a background thread
+     * @param photos {@link Task} that completes with the versions of the photo
      * Shows toast based on result
      */
-    private void saveBitmapToFirebase(Bitmap bitmap) {
+    private void savePhotoToFirebase(Task<RecipePhotoPipeline.Photos> photos) {
         uploadButton.setEnabled(false);
         cameraButton.setEnabled(false);
         StorageReference storageRef = storage.getReference();
@@ -126,31 +120,30 @@ public class AddEditRecipeFragment extends DialogFragment {
         assert user.getEmail() != null;
         StorageReference imagesRef = storageRef.child("mealImages").child(user.getEmail()).child(title.getText().toString());
 
-        ByteArrayOutputStream stream = new ByteArrayOutputStream();
-        bitmap.compress(Bitmap.CompressFormat.JPEG, 100, stream);
-        byte[] bytes = stream.toByteArray();
-
-        UploadTask uploadTask = imagesRef.putBytes(bytes);
-        uploadTask.addOnFailureListener(new OnFailureListener() {
+        photos.onSuccessTask(result -> {
+            // the detail photo is shown while every version is uploaded
+            image.setImageBitmap(result.getPreview());
+            image.setClipToOutline(true);
+            return photoPipeline.upload(imagesRef, result);
+        }).addOnFailureListener(new OnFailureListener() {
             @Override
             public void onFailure(@NonNull Exception exception) {
                 Toast.makeText(getContext(), "An error occurred!", Toast.LENGTH_LONG).show();
                 uploadButton.setEnabled(true);
                 cameraButton.setEnabled(true);
             }
-        }).addOnSuccessListener(new OnSuccessListener<UploadTask.TaskSnapshot>() {
+        }).addOnSuccessListener(new OnSuccessListener<RecipePhotoPipeline.Urls>() {
             @Override
-            public void onSuccess(UploadTask.TaskSnapshot taskSnapshot) {
+            public void onSuccess(RecipePhotoPipeline.Urls urls) {
                 Toast.makeText(getContext(), "Image uploaded!", Toast.LENGTH_LONG).show();
-                image.setImageBitmap(bitmap);
-                image.setClipToOutline(true);
-
-                Task<Uri> downloadUri = taskSnapshot.getStorage().getDownloadUrl().addOnSuccessListener(new OnSuccessListener<Uri>() {
-                    @Override
-                    public void onSuccess(Uri uri) {
-                        photoUrl = uri.toString();
-                    }
-                });
+                // a photo uploaded with the same recipe name replaces the one at the old URLs
+                RecipeImageCache imageCache = RecipeImageCache.getInstance(getContext());
+                imageCache.invalidate(urls.getPhoto());
+                imageCache.invalidate(urls.getThumbnail());
+                imageCache.invalidate(urls.getDetail());
+                photoUrl = urls.getPhoto();
+                photoThumbnailUrl = urls.getThumbnail();
+                photoDetailUrl = urls.getDetail();
                 uploadButton.setEnabled(true);
                 cameraButton.setEnabled(true);
             }
@@ -284,18 +277,11 @@ public class AddEditRecipeFragment extends DialogFragment {
                         Intent data = result.getData();
                         if (data != null) {
                             Uri uri = data.getData();
-                            try {
-                                // Get the images as a bitmap from the result
-                                InputStream in = getActivity().getContentResolver().openInputStream(uri);
-                                final Bitmap bitmap = BitmapFactory.decodeStream(in);
-
-                                // Save the image to firebase
-                                title = view.findViewById(R.id.edit_title);
-                                if (!title.getText().toString().isEmpty()) {
-                                    saveBitmapToFirebase(bitmap);
-                                }
-                            } catch (FileNotFoundException e) {
-                                Toast.makeText(getContext(), "An error occurred!", Toast.LENGTH_LONG).show();
+
+                            // Decode the image in the background, and save it to firebase
+                            title = view.findViewById(R.id.edit_title);
+                            if (!title.getText().toString().isEmpty()) {
+                                savePhotoToFirebase(photoPipeline.process(getActivity().getContentResolver(), uri));
                             }
                         }
                     }
@@ -312,7 +298,7 @@ public class AddEditRecipeFragment extends DialogFragment {
                         Intent data = result.getData();
                         if (data != null) {
                             final Bitmap bitmap = (Bitmap) data.getExtras().get("data");
-                            saveBitmapToFirebase(bitmap);
+                            savePhotoToFirebase(photoPipeline.process(bitmap));
                         }
                         } catch(Exception e){
                         Toast.makeText(getContext(), "An error occurred!", Toast.LENGTH_LONG).show();
@@ -453,15 +439,19 @@ public class AddEditRecipeFragment extends DialogFragment {
         }
         // If we have a photo already, load it in
         if (currentRecipe.getPhoto() != null && !currentRecipe.getPhoto().isEmpty()) {
-            Picasso.get().load(currentRecipe.getPhoto()).into(image);
+            String detail = currentRecipe.getPhotoDetail();
+            RecipeImageCache.getInstance(getContext()).loadPhoto(detail != null ? detail : currentRecipe.getPhoto(), image);
             image.setClipToOutline(true);
             photoUrl = currentRecipe.getPhoto();
+            photoThumbnailUrl = currentRecipe.getPhotoThumbnail();
+            photoDetailUrl = detail;
         }
 
-        // Load autocomplete ingredients
-        ingredientController.getIngredients(res -> setIngredientDataList(res));
-        ingredientAutoCompleteAdapter = new ArrayAdapter<>(getContext(),
-                android.R.layout.simple_dropdown_item_1line, ingredientAutoCompleteList);
+        // Load autocomplete ingredients, unless their names have already been read
+        if (!TrigramIndex.ingredientNames().isLoaded()) {
+            ingredientController.getIngredients(res -> setIngredientDataList(res));
+        }
+        ingredientAutoCompleteAdapter = new SuggestionAdapter(getContext(), TrigramIndex.ingredientNames());
         ingredientAutoText.setAdapter(ingredientAutoCompleteAdapter);
 
         // Set a HARDCODED delay to make sure the keyboard is up first and the dropdown
@@ -494,6 +484,9 @@ public class AddEditRecipeFragment extends DialogFragment {
         // Load ingredients
         ingredientsDataList = new ArrayList<>();
         ingredientsDataList.addAll(currentRecipe.getIngredients());
+        for (Ingredient i : ingredientsDataList) {
+            ingredientAutoCompleteAdapter.exclude(i.getName());
+        }
         ingredientArrayAdapter = new RecipeIngredientListAdapter(getContext(), ingredientsDataList);
         ingredientListView.setAdapter(ingredientArrayAdapter);
 
@@ -510,14 +503,7 @@ public class AddEditRecipeFragment extends DialogFragment {
                         InputMethodManager.HIDE_NOT_ALWAYS);
 
                 // Remove from autocomplete for future
-                if (ingredientAutoCompleteList.contains(ingredientName)) {
-                    ingredientAutoCompleteList.remove(ingredientName);
-
-                    // Idk why but we have to create a new one for this to work
-                    ingredientAutoCompleteAdapter = new ArrayAdapter<>(getContext(),
-                            android.R.layout.simple_dropdown_item_1line, ingredientAutoCompleteList);
-                    ingredientAutoText.setAdapter(ingredientAutoCompleteAdapter);
-                }
+                ingredientAutoCompleteAdapter.exclude(ingredientName);
             }
         });
 
@@ -605,6 +591,8 @@ public class AddEditRecipeFragment extends DialogFragment {
 
                         if (photoUrl != null && !photoUrl.isEmpty()) {
                             currentRecipe.setPhoto(photoUrl);
+                            currentRecipe.setPhotoThumbnail(photoThumbnailUrl);
+                            currentRecipe.setPhotoDetail(photoDetailUrl);
                         }
                         currentRecipe.setIngredients(ingredientsDataList);
 
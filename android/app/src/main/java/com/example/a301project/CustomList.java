@@ -1,70 +1,71 @@
 package com.example.a301project;
 
-import android.content.Context;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
-import androidx.annotation.Nullable;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
- * This class creates a custom array list for ingredient objects
- * contains a constructor and a method that returns a view of the custom list
+ * This class creates a custom list for ingredient objects
+ * contains a holder that finds the views of a row once, and binds an ingredient to them
  */
-public class CustomList extends ArrayAdapter<Ingredient> {
-    // custom array list containing Ingredient
-    private final ArrayList<Ingredient> ingredients;
-    private final Context context;
+public class CustomList extends DiffingListAdapter<Ingredient, CustomList.IngredientHolder> {
 
     /**
-     * Makes a Custom list from an array list of ingredients
-     * @param context {@link Context} context to the array list
-     * @param ingredients {@link ArrayList<Ingredient>} array list containing ingredients
+     * Holds the text views of an ingredient row
      */
-    public CustomList(Context context, ArrayList<Ingredient> ingredients) {
-        // constructor
-        super(context,0,ingredients);
-        this.ingredients = ingredients;
-        this.context = context;
+    static class IngredientHolder extends DiffingListAdapter.Holder<Ingredient> {
+        private final TextView ingredientName;
+        private final TextView locationName;
+        private final TextView bbdName;
+        private final TextView amountName;
+        private final TextView unitName;
+        private final TextView categoryName;
+
+        IngredientHolder(@NonNull View view) {
+            super(view);
+            // list view to display attributes of each ingredient object
+            // by setting the view text boxes to their ID
+            ingredientName = view.findViewById(R.id.i_nameText);
+            locationName = view.findViewById(R.id.i_locationText);
+            bbdName = view.findViewById(R.id.i_bbdText);
+            amountName = view.findViewById(R.id.i_amountText);
+            unitName = view.findViewById(R.id.i_unitText);
+            categoryName = view.findViewById(R.id.i_categoryText);
+        }
+
+        @Override
+        public void bind(Ingredient ingredient) {
+            // set the texts of ingredients
+            ingredientName.setText(ingredient.getName());
+            locationName.setText(ingredient.getLocation());
+            bbdName.setText("Expires: " + ingredient.getbbd());
+            amountName.setText(ingredient.getAmount().toString());
+            unitName.setText(ingredient.getUnit());
+            categoryName.setText(ingredient.getCategory());
+        }
     }
 
-    /**
-     * Method for creating a view that will appear in the ingredient adapter
-     * @param position {@link Integer} the position of the current view
-     * @param convertView {@link View} the reused view to be retrieved
-     * @param parent {@link ViewGroup} the collection of views that contains current view
-     * @return a view
-     */
     @NonNull
     @Override
-    public View getView(int position, @Nullable View convertView, @NonNull ViewGroup
-            parent) {
-        View view = convertView;
-        if(view == null){
-            view = LayoutInflater.from(context).inflate(R.layout.ingredient_content, parent,false);
-        }
-        // list view to display attributes of each ingredient object
-        // by setting the view text boxes to their ID
-        Ingredient ingredient = ingredients.get(position);
-        TextView ingredientName = view.findViewById(R.id.i_nameText);
-        TextView locationName = view.findViewById(R.id.i_locationText);
-        TextView bbdName = view.findViewById(R.id.i_bbdText);
-        TextView amountName = view.findViewById(R.id.i_amountText);
-        TextView unitName = view.findViewById(R.id.i_unitText);
-        TextView categoryName = view.findViewById(R.id.i_categoryText);
+    public IngredientHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.ingredient_content, parent, false);
+        return new IngredientHolder(view);
+    }
+
+    @Override
+    protected String idOf(Ingredient ingredient) {
+        return ingredient.getId();
+    }
 
-        // set the texts of ingredients
-        ingredientName.setText(ingredient.getName());
-        locationName.setText(ingredient.getLocation());
-        bbdName.setText("Expires: " + ingredient.getbbd());
-        amountName.setText(ingredient.getAmount().toString());
-        unitName.setText(ingredient.getUnit());
-        categoryName.setText(ingredient.getCategory());
-        return view;
+    @Override
+    protected List<Object> contentsOf(Ingredient ingredient) {
+        return Arrays.asList(ingredient.getName(), ingredient.getLocation(), ingredient.getbbd(),
+                ingredient.getAmount(), ingredient.getUnit(), ingredient.getCategory());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,210 @@
+package com.example.a301project;
+
+import android.graphics.Rect;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.google.android.gms.tasks.Tasks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This class is the base of the adapters of the list screens. The list is given to the adapter
+ * with {@link #submit(List)} after every change. The rows are made and the rows that changed are
+ * worked out on background threads, so only they are bound again and animated, and the main thread
+ * only copies the list.
+ *
+ * The screens change their items in place, so the adapter keeps a copy of what each row showed
+ * when it was submitted, from {@link #contentsOf(Object)}, and compares those copies instead of
+ * the items. Each row has a stable ID made from the ID of its Firebase document.
+ * @param <T> the type of item shown in each row
+ * @param <VH> the type of {@link Holder} of each row
+ */
+public abstract class DiffingListAdapter<T, VH extends DiffingListAdapter.Holder<T>> extends RecyclerView.Adapter<VH> {
+
+    /**
+     * Handler for when a row is clicked
+     * @param <T> the type of item shown in the row
+     */
+    public interface itemClickHandler<T> {
+        void f(T item, int position);
+    }
+
+    /**
+     * Holds the views of a row, which are found once when the row is made
+     * @param <T> the type of item shown in the row
+     */
+    public abstract static class Holder<T> extends RecyclerView.ViewHolder {
+        /**
+         * Creates the holder of a row
+         * @param itemView {@link View} the row
+         */
+        public Holder(@NonNull View itemView) {
+            super(itemView);
+        }
+
+        /**
+         * Shows an item in the row
+         * @param item the item to show
+         */
+        public abstract void bind(T item);
+    }
+
+    /**
+     * An item with the ID and contents it had when it was submitted
+     * @param <T> the type of the item
+     */
+    private static class Row<T> {
+        final T item;
+        final String id;
+        final List<Object> contents;
+
+        Row(T item, String id, List<Object> contents) {
+            this.item = item;
+            this.id = id;
+            this.contents = contents;
+        }
+    }
+
+    private final DiffUtil.ItemCallback<Row<T>> rowCallback = new DiffUtil.ItemCallback<Row<T>>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Row<T> oldRow, @NonNull Row<T> newRow) {
+            return oldRow.id.equals(newRow.id);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Row<T> oldRow, @NonNull Row<T> newRow) {
+            return oldRow.contents.equals(newRow.contents);
+        }
+    };
+    private static final ExecutorService BACKGROUND = Executors.newSingleThreadExecutor();
+    private final AsyncListDiffer<Row<T>> differ = new AsyncListDiffer<>(this, rowCallback);
+    private itemClickHandler<T> clickHandler;
+    private int submitGeneration;
+
+    /**
+     * Creates an adapter with stable IDs
+     */
+    protected DiffingListAdapter() {
+        setHasStableIds(true);
+    }
+
+    /**
+     * Gets the ID of the Firebase document of an item
+     * @param item the item
+     * @return The ID of the document, or null if the item has not been stored yet
+     */
+    protected abstract String idOf(T item);
+
+    /**
+     * Gets everything a row shows of an item, to find the rows that changed
+     * @param item the item
+     * @return {@link List} of the values shown in the row
+     */
+    protected abstract List<Object> contentsOf(T item);
+
+    /**
+     * Shows a list. The rows are updated once the changes have been worked out, and a list
+     * submitted before then is dropped.
+     * @param items {@link List} of the items to show, in order, which can be changed afterwards
+     */
+    public void submit(List<T> items) {
+        // the list is copied here, since the screen changes it, and the rows are made from the copy
+        ArrayList<T> copy = new ArrayList<>(items);
+        int generation = ++submitGeneration;
+        Tasks.call(BACKGROUND, () -> rowsOf(copy)).addOnSuccessListener(rows -> {
+            if (generation == submitGeneration) {
+                differ.submitList(rows);
+            }
+        });
+    }
+
+    /**
+     * Makes the rows of a list. An item the screen changes while its row is made is submitted
+     * again afterwards, so the row it gets here is replaced.
+     * @param items {@link List} of the items to show, in order
+     * @return {@link ArrayList} of the rows
+     */
+    private ArrayList<Row<T>> rowsOf(List<T> items) {
+        ArrayList<Row<T>> rows = new ArrayList<>(items.size());
+        for (T item : items) {
+            String id = idOf(item);
+            if (id == null) {
+                // an item that has not been stored yet is only ever the same as itself
+                id = "@" + System.identityHashCode(item);
+            }
+            rows.add(new Row<>(item, id, contentsOf(item)));
+        }
+        return rows;
+    }
+
+    /**
+     * Gets the item shown in a row
+     * @param position {@link int} the position of the row
+     * @return The item of the row
+     */
+    public T getItem(int position) {
+        return differ.getCurrentList().get(position).item;
+    }
+
+    /**
+     * Sets what happens when a row is clicked
+     * @param clickHandler {@link itemClickHandler} called with the item of the row and its position
+     */
+    public void setOnItemClickListener(itemClickHandler<T> clickHandler) {
+        this.clickHandler = clickHandler;
+    }
+
+    /**
+     * Shows this adapter in a list, with space between its rows
+     * @param list {@link RecyclerView} the list, which has its layout manager set in its layout
+     */
+    public void attachTo(RecyclerView list) {
+        int spacing = list.getResources().getDimensionPixelSize(R.dimen.list_row_spacing);
+        list.addItemDecoration(new RecyclerView.ItemDecoration() {
+            @Override
+            public void getItemOffsets(@NonNull Rect outRect, @NonNull View view,
+                                       @NonNull RecyclerView parent, @NonNull RecyclerView.State state) {
+                if (parent.getChildAdapterPosition(view) > 0) {
+                    outRect.top = spacing;
+                }
+            }
+        });
+        list.setAdapter(this);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull VH holder, int position) {
+        holder.bind(getItem(position));
+        holder.itemView.setOnClickListener(v -> {
+            int clicked = holder.getBindingAdapterPosition();
+            if (clickHandler != null && clicked != RecyclerView.NO_POSITION) {
+                clickHandler.f(getItem(clicked), clicked);
+            }
+        });
+    }
+
+    @Override
+    public int getItemCount() {
+        return differ.getCurrentList().size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        // a 64 bit FNV-1a hash, so different documents don't share an ID in practice
+        String id = differ.getCurrentList().get(position).id;
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            hash ^= id.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.a301project;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.EventListener;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.QuerySnapshot;
+
+/**
+ * This class listens to a Firebase collection and applies only the documents that were added,
+ * changed or removed to a {@link DocumentCollection}, instead of reading the whole collection again
+ * on every change. It is used by the list screens to keep their lists up to date.
+ * @param <T> the type of item made from each document
+ */
+public class DocumentChangeListener<T> implements EventListener<QuerySnapshot> {
+    private final DocumentCollection<T> model;
+    private final documentParser<T> parser;
+    private final changeHandler handler;
+
+    /**
+     * Creates a listener for a list screen
+     * @param model {@link DocumentCollection} the model of the list to keep up to date
+     * @param parser {@link documentParser} makes the item of a document
+     * @param handler {@link changeHandler} called after the changes of an event were applied
+     */
+    public DocumentChangeListener(DocumentCollection<T> model, documentParser<T> parser, changeHandler handler) {
+        this.model = model;
+        this.parser = parser;
+        this.handler = handler;
+    }
+
+    /**
+     * Method for when documents in the collection change
+     * @param value {@link QuerySnapshot} the collection, with the documents that changed
+     * @param error {@link FirebaseFirestoreException} the error, if the collection could not be read
+     */
+    @Override
+    public void onEvent(@Nullable QuerySnapshot value, @Nullable FirebaseFirestoreException error) {
+        if (error != null || value == null) {
+            Log.w("DocumentChangeListener", "Could not listen to the collection", error);
+            return;
+        }
+        for (DocumentChange change : value.getDocumentChanges()) {
+            DocumentSnapshot doc = change.getDocument();
+            if (change.getType() == DocumentChange.Type.REMOVED) {
+                model.remove(doc.getId());
+            } else {
+                model.put(doc.getId(), parser.f(doc));
+            }
+        }
+        handler.f();
+    }
+
+    public interface documentParser<T> {
+        T f(DocumentSnapshot doc);
+    }
+
+    public interface changeHandler {
+        void f();
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.a301project;
+
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.AggregateSource;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * This class runs once a day in the background and sends one notification listing the
+ * {@link Ingredient} objects in storage that expire in the next few days. Firebase filters and
+ * orders the ingredients, so only the first ones to expire are read, and counts the rest without
+ * reading them. The notification always matches what is in storage when it is sent.
+ */
+public class ExpiryAlertWorker extends Worker {
+    private static final String WORK_NAME = "ExpiryAlerts";
+    private static final String CHANNEL_ID = "expiry_alerts";
+    private static final int NOTIFICATION_ID = 1;
+    private static final int ALERT_DAYS = 3;
+    private static final int MAX_LINES = 5;
+
+    public ExpiryAlertWorker(@NonNull Context context, @NonNull WorkerParameters workerParams) {
+        super(context, workerParams);
+    }
+
+    /**
+     * Starts checking for expiring ingredients once a day, unless it has already been started
+     * @param context {@link Context} the context of the app
+     */
+    public static void schedule(Context context) {
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(ExpiryAlertWorker.class, 1, TimeUnit.DAYS).build();
+        WorkManager.getInstance(context).enqueueUniquePeriodicWork(WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    /**
+     * Reads the ingredients of the signed in user and sends the notification if any expire soon
+     * @return {@link Result} success, or retry if the ingredients could not be read
+     */
+    @NonNull
+    @Override
+    public Result doWork() {
+        if (FirebaseAuth.getInstance().getCurrentUser() == null) {
+            return Result.success();
+        }
+        IngredientController controller = new IngredientController();
+        // the ingredients that have expired are included, as they are still in storage
+        long day = DateUtils.today() + ALERT_DAYS + 1;
+        ArrayList<Ingredient> expiring = new ArrayList<>();
+        long count;
+        try {
+            QuerySnapshot snapshot = Tasks.await(controller.expiringBeforeQuery(day, MAX_LINES).get(), 1, TimeUnit.MINUTES);
+            for (QueryDocumentSnapshot doc : snapshot) {
+                expiring.add(IngredientController.fromDocument(doc));
+            }
+            count = expiring.size() < MAX_LINES ? expiring.size()
+                    : Tasks.await(controller.expiringBeforeCountQuery(day).get(AggregateSource.SERVER), 1, TimeUnit.MINUTES).getCount();
+        } catch (ExecutionException | TimeoutException e) {
+            Log.w("ExpiryAlertWorker", "Could not read the ingredients", e);
+            return Result.retry();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.retry();
+        }
+
+        if (!expiring.isEmpty()) {
+            notifyExpiring(expiring, count);
+        }
+        return Result.success();
+    }
+
+    /**
+     * Sends one notification for every expiring ingredient
+     * @param expiring {@link ArrayList} of the first {@link Ingredient} to expire, the first to expire first
+     * @param count {@link long} the number of ingredients that expire
+     */
+    private void notifyExpiring(ArrayList<Ingredient> expiring, long count) {
+        Context context = getApplicationContext();
+        NotificationManager manager = context.getSystemService(NotificationManager.class);
+        manager.createNotificationChannel(new NotificationChannel(
+                CHANNEL_ID, "Expiring ingredients", NotificationManager.IMPORTANCE_DEFAULT));
+
+        String title = count == 1
+                ? "1 ingredient expires soon"
+                : count + " ingredients expire soon";
+        NotificationCompat.InboxStyle style = new NotificationCompat.InboxStyle();
+        for (Ingredient ingredient : expiring) {
+            style.addLine(ingredient.getName() + " - " + ingredient.getbbd());
+        }
+        // only the first ingredients to expire are read
+        if (count > expiring.size()) {
+            style.setSummaryText("+" + (count - expiring.size()) + " more");
+        }
+
+        Intent intent = new Intent(context, NavActivity.class);
+        PendingIntent pendingIntent = PendingIntent.getActivity(context, 0, intent, PendingIntent.FLAG_IMMUTABLE);
+        NotificationCompat.Builder builder = new NotificationCompat.Builder(context, CHANNEL_ID)
+                .setSmallIcon(R.drawable.fridge)
+                .setContentTitle(title)
+                .setContentText(expiring.get(0).getName() + " expires on " + expiring.get(0).getbbd())
+                .setStyle(style)
+                .setContentIntent(pendingIntent)
+                .setAutoCancel(true);
+        NotificationManagerCompat.from(context).notify(NOTIFICATION_ID, builder.build());
+    }
+}
@@ -2,7 +2,6 @@ package com.example.a301project;
 
 import static android.content.ContentValues.TAG;
 
-import android.annotation.SuppressLint;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
@@ -10,21 +9,25 @@ import androidx.annotation.Nullable;
 
 import com.google.android.gms.tasks.OnFailureListener;
 import com.google.android.gms.tasks.OnSuccessListener;
+import com.google.android.gms.tasks.Task;
 import com.google.firebase.Timestamp;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.AggregateQuery;
 import com.google.firebase.firestore.CollectionReference;
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.WriteBatch;
 
-import java.text.DateFormat;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 
 /**
  * This {@link IngredientController} class allows the {@link IngredientFragment} to communicate with
@@ -38,6 +41,7 @@ public class IngredientController {
     private final String collectionName = "Ingredient";
     private final FirebaseFirestore db;
     private final CollectionReference collectionReference;
+    private final DocumentReference summaryReference;
 
     /**
      * The constructor for the {@link IngredientController}. Sets up the {@link #db} and {@link #collectionReference}
@@ -48,15 +52,28 @@ public class IngredientController {
         FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
         assert user.getEmail() != null;
         collectionReference = db.collection("User").document(user.getEmail()).collection(collectionName);
+        summaryReference = summaryReferenceOf(db, user.getEmail());
     }
 
     /**
      * Constructor for injecting a db for testing purposes
      * @param db the database
+     * @param email {@link String} the email of the user the summary belongs to
      */
-    public IngredientController(FirebaseFirestore db) {
+    public IngredientController(FirebaseFirestore db, String email) {
         this.db = db;
         collectionReference = db.collection(collectionName);
+        summaryReference = summaryReferenceOf(db, email);
+    }
+
+    /**
+     * Gets the document that holds the {@link PantrySummary} of a user
+     * @param db {@link FirebaseFirestore} the database
+     * @param email {@link String} the email of the user
+     * @return The {@link DocumentReference} of the summary
+     */
+    public static DocumentReference summaryReferenceOf(FirebaseFirestore db, String email) {
+        return db.collection("User").document(email).collection("Summary").document("Pantry");
     }
 
     /**
@@ -65,14 +82,7 @@ public class IngredientController {
      * @return A {@link Timestamp} object
      */
     public static Timestamp convertStringToTimestamp(String bestBefore) {
-        @SuppressLint("SimpleDateFormat") SimpleDateFormat sdf     = new SimpleDateFormat("yyyy-MM-dd");
-        Date date = null;
-        try {
-            date = sdf.parse(bestBefore);
-        } catch (ParseException e) {
-            e.printStackTrace();
-        }
-        return new Timestamp(date);
+        return new Timestamp(DateUtils.parseDate(bestBefore));
     }
 
     /**
@@ -82,10 +92,11 @@ public class IngredientController {
     public CollectionReference getCollectionReference() {return this.collectionReference;}
 
     /**
-     * Method to add an {@link Ingredient} to the Firebase database
-     * @param ingredient This is the {@link Ingredient} to be added to Firebase
+     * Makes the fields of the Firebase document of an {@link Ingredient}
+     * @param ingredient {@link Ingredient} the ingredient
+     * @return {@link HashMap} of the fields of the document
      */
-    public void addIngredient(Ingredient ingredient) {
+    public static HashMap<String, Object> toData(Ingredient ingredient) {
         // get all required values
         double amount = ingredient.getAmount();
         String bestBefore = ingredient.getbbd();
@@ -105,19 +116,46 @@ public class IngredientController {
         data.put("Location", location);
         data.put("Name", name);
         data.put("Unit", unit);
+        return data;
+    }
+
+    /**
+     * Method to add an {@link Ingredient} to the Firebase database
+     * @param ingredient This is the {@link Ingredient} to be added to Firebase
+     */
+    public void addIngredient(Ingredient ingredient) {
+        addIngredient(ingredient, null);
+    }
+
+    /**
+     * Method to add an {@link Ingredient} to the Firebase database
+     * @param ingredient This is the {@link Ingredient} to be added to Firebase
+     * @param s {@link addSuccessHandler} called once the ingredient was added and has its ID, may be null
+     */
+    public void addIngredient(Ingredient ingredient, @Nullable addSuccessHandler s) {
+        HashMap<String, Object> data = toData(ingredient);
+        DocumentReference documentReference = collectionReference.document();
+        String id = documentReference.getId();
+        PantrySummary change = PantrySummary.changeOf(null, ingredient);
 
-        collectionReference
-                .add(data)
-                .addOnSuccessListener(new OnSuccessListener<DocumentReference>() {
+        // the ingredient and what it adds to the summary are written together
+        WriteBatch batch = db.batch();
+        batch.set(documentReference, data);
+        addToSummary(batch, change);
+        commitWithSummary(batch, change)
+                .addOnSuccessListener(new OnSuccessListener<PantrySummary>() {
                     /**
                      * Method invoked when successfully added to database
-                     * @param documentReference {@link DocumentReference} reference to document
+                     * @param unused {@link PantrySummary} what the ingredient added to the summary
                      */
                     @Override
-                    public void onSuccess(DocumentReference documentReference) {
-                        String id = documentReference.getId();
+                    public void onSuccess(PantrySummary unused) {
                         Log.d(TAG, "Added document with ID: " + id);
                         ingredient.setId(id);
+                        TrigramIndex.ingredientNames().add(ingredient.getName());
+                        if (s != null) {
+                            s.f(ingredient);
+                        }
                     }
                 })
                 .addOnFailureListener(new OnFailureListener() {
@@ -157,20 +195,11 @@ public class IngredientController {
      */
     public void removeIngredient(Ingredient ingredient) {
         String id = ingredient.getId();
-        collectionReference.document(id)
-                .delete()
-                .addOnSuccessListener(new OnSuccessListener<Void>() {
-                    @Override
-                    public void onSuccess(Void unused) {
-                        Log.d(TAG, "Successfully deleted document with ID: " + id);
-                    }
+        writeWithSummary(id, null)
+                .addOnSuccessListener(change -> {
+                    Log.d(TAG, "Successfully deleted document with ID: " + id);
                 })
-                .addOnFailureListener(new OnFailureListener() {
-                    @Override
-                    public void onFailure(@NonNull Exception e) {
-                        Log.w(TAG, "Could not delete document with ID: " + id,e);
-                    }
-                });
+                .addOnFailureListener(e -> Log.w(TAG, "Could not delete document with ID: " + id, e));
     }
 
     /**
@@ -179,16 +208,136 @@ public class IngredientController {
      * @param ingredient The {@link Ingredient} object to update in the database
      */
     public void notifyUpdate(Ingredient ingredient) {
-        Map<String,Object> userMap = new HashMap<>();
-        userMap.put("Name",ingredient.getName());
-        userMap.put("Amount",ingredient.getAmount());
-        userMap.put("BestBeforeDate",convertStringToTimestamp(ingredient.getbbd()));
-        userMap.put("Category",ingredient.getCategory());
-        userMap.put("Unit",ingredient.getUnit());
-        userMap.put("Location",ingredient.getLocation());
-        collectionReference
-                .document(ingredient.getId())
-                .update(userMap);
+        writeWithSummary(ingredient.getId(), ingredient)
+                .addOnSuccessListener(change -> TrigramIndex.ingredientNames().add(ingredient.getName()))
+                .addOnFailureListener(e -> Log.w(TAG, "Could not update document with ID: " + ingredient.getId(), e));
+    }
+
+    /**
+     * Updates or removes an ingredient in one transaction with the change it makes to the user's
+     * {@link PantrySummary}, so the summary only changes if the ingredient does. The ingredient
+     * given has already been edited, so what it was before is read in the transaction, and if
+     * another device changes it before the write, the transaction is run again with what that
+     * device wrote.
+     * @param id {@link String} the ID of the ingredient
+     * @param ingredient {@link Ingredient} the ingredient as it is now, or null to remove it
+     * @return {@link Task} that completes with the change made to the summary once the transaction was written
+     */
+    private Task<PantrySummary> writeWithSummary(String id, @Nullable Ingredient ingredient) {
+        DocumentReference documentReference = collectionReference.document(id);
+        return db.runTransaction(transaction -> {
+            DocumentSnapshot before = transaction.get(documentReference);
+            PantrySummary change = PantrySummary.changeOf(before.exists() ? fromDocument(before) : null, ingredient);
+            if (ingredient == null) {
+                transaction.delete(documentReference);
+            } else {
+                transaction.update(documentReference, toData(ingredient));
+            }
+            addToSummary(transaction, change);
+            return change;
+        });
+    }
+
+    /**
+     * Writes a batch that changes the ingredient storage. The shopping list sees the change of the
+     * summary as soon as it is written locally, through its listener on the summary.
+     * @param batch {@link WriteBatch} the batch, with the change of the summary added by {@link #addToSummary}
+     * @param change {@link PantrySummary} the change of the storage
+     * @return {@link Task} that completes with the change once the batch was written
+     */
+    Task<PantrySummary> commitWithSummary(WriteBatch batch, PantrySummary change) {
+        return batch.commit().continueWith(done -> {
+            if (!done.isSuccessful()) {
+                throw done.getException();
+            }
+            return change;
+        });
+    }
+
+    /**
+     * Adds a change of the ingredient storage to the user's {@link PantrySummary} in a batch. The
+     * totals are changed with increments instead of rewriting the summary, so changes made at the
+     * same time on other devices add up, and a summary that does not exist yet is started.
+     * @param batch {@link WriteBatch} the batch that also writes the ingredients that changed
+     * @param change {@link PantrySummary} the change of the storage
+     */
+    void addToSummary(WriteBatch batch, PantrySummary change) {
+        if (!change.isEmpty()) {
+            batch.set(summaryReference, summaryIncrementsOf(change), SetOptions.merge());
+        }
+    }
+
+    /**
+     * Adds a change of the ingredient storage to the user's {@link PantrySummary} in a transaction,
+     * with the same increments as {@link #addToSummary(WriteBatch, PantrySummary)}, so the summary
+     * itself is not read by the transaction
+     * @param transaction {@link Transaction} the transaction that also writes the ingredient that changed
+     * @param change {@link PantrySummary} the change of the storage
+     */
+    void addToSummary(Transaction transaction, PantrySummary change) {
+        if (!change.isEmpty()) {
+            transaction.set(summaryReference, summaryIncrementsOf(change), SetOptions.merge());
+        }
+    }
+
+    /**
+     * Makes the fields that add a change of the ingredient storage to the summary
+     * @param change {@link PantrySummary} the change of the storage
+     * @return {@link HashMap} of the fields, to be merged into the summary
+     */
+    private static HashMap<String, Object> summaryIncrementsOf(PantrySummary change) {
+        HashMap<String, Object> totals = new HashMap<>();
+        change.forEachTotal((key, item, lots, days) -> {
+            HashMap<Long, Object> dayIncrements = new HashMap<>();
+            days.forEach((day, amount) -> dayIncrements.put(day, FieldValue.increment(amount)));
+            HashMap<String, Object> fields = new HashMap<>();
+            fields.put(PantrySummary.NAME, item.getName());
+            fields.put(PantrySummary.UNIT, item.getUnit());
+            fields.put(PantrySummary.CATEGORY, item.getCategory());
+            fields.put(PantrySummary.AMOUNT, FieldValue.increment(item.getAmount()));
+            fields.put(PantrySummary.LOTS, FieldValue.increment(lots));
+            fields.put(PantrySummary.DAYS, PantrySummary.daysToMap(dayIncrements));
+            totals.put(key, fields);
+        });
+        HashMap<String, Object> data = new HashMap<>();
+        data.put(PantrySummary.TOTALS, totals);
+        data.put(PantrySummary.INGREDIENTS, FieldValue.increment(change.getIngredientCount()));
+        return data;
+    }
+
+    /**
+     * Makes an {@link Ingredient} from its Firebase document
+     * @param doc {@link DocumentSnapshot} the document of the ingredient
+     * @return The {@link Ingredient}, with its ID set
+     */
+    public static Ingredient fromDocument(DocumentSnapshot doc) {
+        // the date is kept as an epoch day, and only formatted if the ingredient is shown
+        long bestBeforeDay = DateUtils.toEpochDay(doc.getDate("BestBeforeDate"), Ingredient.NO_BEST_BEFORE);
+        Ingredient ingredient = new Ingredient(
+                doc.getString("Name"),
+                doc.getDouble("Amount"),
+                bestBeforeDay,
+                doc.getString("Location"),
+                doc.getString("Unit"),
+                doc.getString("Category")
+        );
+        ingredient.setId(doc.getId());
+        return ingredient;
+    }
+
+    /**
+     * Keeps a list of ingredients up to date with Firebase. Only the ingredients that were added,
+     * changed or removed are applied to the list.
+     * @param model {@link DocumentCollection} the model of the list
+     * @param handler {@link DocumentChangeListener.changeHandler} called after each change
+     * @return {@link ListenerRegistration} to stop listening with
+     */
+    public ListenerRegistration listenForIngredients(DocumentCollection<Ingredient> model, DocumentChangeListener.changeHandler handler) {
+        return collectionReference.addSnapshotListener(new DocumentChangeListener<>(model, IngredientController::fromDocument, handler));
+    }
+
+    public interface addSuccessHandler {
+        void f(Ingredient ingredient);
     }
 
     public interface getAllSuccessHandler {
@@ -205,24 +354,166 @@ public class IngredientController {
         collectionReference.get().addOnSuccessListener(queryDocumentSnapshots -> {
             ArrayList<Ingredient> res = new ArrayList<>();
 
-            queryDocumentSnapshots.forEach(doc -> {
-                Date date = doc.getDate("BestBeforeDate");
-                String pattern = "yyyy-MM-dd";
-                @SuppressLint("SimpleDateFormat") DateFormat df = new SimpleDateFormat(pattern);
-                String bbd = df.format(date);
-
-                Ingredient i = new Ingredient(
-                        doc.getString("Name"),
-                        doc.getDouble("Amount"),
-                        bbd,
-                        doc.getString("Location"),
-                        doc.getString("Unit"),
-                        doc.getString("Category")
-                );
-                i.setId(doc.getId());
-                res.add(i);
-            });
+            queryDocumentSnapshots.forEach(doc -> res.add(fromDocument(doc)));
             s.f(res);
         });
     }
+
+    /**
+     * Gets the Firebase field that the ingredients are ordered by for a sort option
+     * @param sortBy {@link String} one of the {@link ListSorting} options
+     * @return The name of the field
+     */
+    static String orderFieldOf(String sortBy) {
+        switch (sortBy) {
+            case ListSorting.LOCATION:
+                return "Location";
+            case ListSorting.EXPIRY:
+                return "BestBeforeDate";
+            case ListSorting.CATEGORY:
+                return "Category";
+            default:
+                return "Name";
+        }
+    }
+
+    /**
+     * Makes the query for one page of ingredients. The ingredients are ordered by Firebase, so a
+     * page only reads as many documents as it holds. Firebase compares the text fields case by
+     * case, unlike the sort orders of the app, so the pages must be shown in the order they come in.
+     * @param sortBy {@link String} one of the {@link ListSorting} options
+     * @param ascending {@link boolean} whether the order is ascending
+     * @param pageSize {@link int} the most ingredients in the page
+     * @param after {@link DocumentSnapshot} the last document of the previous page, or null for the first page
+     * @return The {@link Query} of the page
+     */
+    public Query pageQuery(String sortBy, boolean ascending, int pageSize, @Nullable DocumentSnapshot after) {
+        Query.Direction direction = ascending ? Query.Direction.ASCENDING : Query.Direction.DESCENDING;
+        Query query = collectionReference.orderBy(orderFieldOf(sortBy), direction);
+        if (after != null) {
+            query = query.startAfter(after);
+        }
+        return query.limit(pageSize);
+    }
+
+    public interface pageSuccessHandler {
+        void f(ArrayList<Ingredient> r, DocumentSnapshot last);
+    }
+
+    /**
+     * Gets one page of ingredients from Firebase
+     * @param sortBy {@link String} one of the {@link ListSorting} options
+     * @param ascending {@link boolean} whether the order is ascending
+     * @param pageSize {@link int} the most ingredients in the page
+     * @param after {@link DocumentSnapshot} the last document of the previous page, or null for the first page
+     * @param s {@link pageSuccessHandler} called with the ingredients of the page and its last
+     *          document, which is null if there are no more pages
+     */
+    public void getIngredientPage(String sortBy, boolean ascending, int pageSize, @Nullable DocumentSnapshot after, pageSuccessHandler s) {
+        pageQuery(sortBy, ascending, pageSize, after).get().addOnSuccessListener(queryDocumentSnapshots -> {
+            ArrayList<Ingredient> res = new ArrayList<>();
+            List<DocumentSnapshot> docs = queryDocumentSnapshots.getDocuments();
+
+            docs.forEach(doc -> res.add(fromDocument(doc)));
+            // a page that is not full is the last one
+            s.f(res, docs.size() < pageSize ? null : docs.get(docs.size() - 1));
+        }).addOnFailureListener(e -> Log.w(TAG, "Could not get a page of ingredients", e));
+    }
+
+    /**
+     * Makes the query for the ingredients that expire before a day, the first to expire first.
+     * Firebase filters and orders the ingredients, so only the ones that are returned are read.
+     * @param day {@link long} the first day that is not included, as an epoch day
+     * @param limit {@link int} the most ingredients to return
+     * @return The {@link Query} of the ingredients
+     */
+    public Query expiringBeforeQuery(long day, int limit) {
+        return collectionReference
+                .whereLessThan("BestBeforeDate", new Timestamp(DateUtils.fromEpochDay(day)))
+                .orderBy("BestBeforeDate")
+                .limit(limit);
+    }
+
+    /**
+     * Makes the query that counts the ingredients that expire before a day. Firebase counts them
+     * without returning them, so there is no limit.
+     * @param day {@link long} the first day that is not included, as an epoch day
+     * @return The {@link AggregateQuery} of the number of ingredients
+     */
+    public AggregateQuery expiringBeforeCountQuery(long day) {
+        return collectionReference
+                .whereLessThan("BestBeforeDate", new Timestamp(DateUtils.fromEpochDay(day)))
+                .count();
+    }
+
+    /**
+     * Makes the query for the ingredients that expire between two days, the first to expire first
+     * @param firstDay {@link long} the first day to include, as an epoch day
+     * @param lastDay {@link long} the last day to include, as an epoch day
+     * @param limit {@link int} the most ingredients to return
+     * @return The {@link Query} of the ingredients
+     */
+    public Query expiringBetweenQuery(long firstDay, long lastDay, int limit) {
+        return collectionReference
+                .whereGreaterThanOrEqualTo("BestBeforeDate", new Timestamp(DateUtils.fromEpochDay(firstDay)))
+                .whereLessThan("BestBeforeDate", new Timestamp(DateUtils.fromEpochDay(lastDay + 1)))
+                .orderBy("BestBeforeDate")
+                .limit(limit);
+    }
+
+    /**
+     * Makes the query for the ingredients that have expired, the first to expire first. An
+     * ingredient that is best before today has not expired yet.
+     * @param today {@link long} today's date, as an epoch day
+     * @param limit {@link int} the most ingredients to return
+     * @return The {@link Query} of the ingredients
+     */
+    public Query expiredQuery(long today, int limit) {
+        return expiringBeforeQuery(today, limit);
+    }
+
+    /**
+     * Gets the ingredients that expire before a day from Firebase
+     * @param day {@link long} the first day that is not included, as an epoch day
+     * @param limit {@link int} the most ingredients to return
+     * @param s {@link getAllSuccessHandler} called with the ingredients, the first to expire first
+     */
+    public void getExpiringBefore(long day, int limit, getAllSuccessHandler s) {
+        getIngredients(expiringBeforeQuery(day, limit), s);
+    }
+
+    /**
+     * Gets the ingredients that expire between two days from Firebase
+     * @param firstDay {@link long} the first day to include, as an epoch day
+     * @param lastDay {@link long} the last day to include, as an epoch day
+     * @param limit {@link int} the most ingredients to return
+     * @param s {@link getAllSuccessHandler} called with the ingredients, the first to expire first
+     */
+    public void getExpiringBetween(long firstDay, long lastDay, int limit, getAllSuccessHandler s) {
+        getIngredients(expiringBetweenQuery(firstDay, lastDay, limit), s);
+    }
+
+    /**
+     * Gets the ingredients that have expired from Firebase
+     * @param today {@link long} today's date, as an epoch day
+     * @param limit {@link int} the most ingredients to return
+     * @param s {@link getAllSuccessHandler} called with the ingredients, the first to expire first
+     */
+    public void getExpired(long today, int limit, getAllSuccessHandler s) {
+        getIngredients(expiredQuery(today, limit), s);
+    }
+
+    /**
+     * Gets the ingredients of a query from Firebase
+     * @param query {@link Query} the query of the ingredients
+     * @param s {@link getAllSuccessHandler} called with the ingredients, in the order of the query
+     */
+    private void getIngredients(Query query, getAllSuccessHandler s) {
+        query.get().addOnSuccessListener(queryDocumentSnapshots -> {
+            ArrayList<Ingredient> res = new ArrayList<>();
+
+            queryDocumentSnapshots.forEach(doc -> res.add(fromDocument(doc)));
+            s.f(res);
+        }).addOnFailureListener(e -> Log.w(TAG, "Could not get the ingredients", e));
+    }
 }
@@ -1,31 +1,37 @@
 package com.example.a301project;
 
-import android.annotation.SuppressLint;
+import android.content.ContentResolver;
+import android.net.Uri;
 import android.os.Bundle;
 import android.view.View;
 import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.CompoundButton;
-import android.widget.ListView;
 import android.widget.Spinner;
 import android.widget.Switch;
+import android.widget.Toast;
+
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 
 import androidx.annotation.NonNull;
-import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
-import com.google.firebase.firestore.CollectionReference;
-import com.google.firebase.firestore.EventListener;
-import com.google.firebase.firestore.FirebaseFirestoreException;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
-import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.ListenerRegistration;
 
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Date;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Main Activity class for Ingredients
@@ -37,12 +43,27 @@ import java.util.Date;
 
 public class IngredientFragment extends Fragment implements AddEditIngredientFragment.OnFragmentInteractionListener {
     private IngredientController ingredientController;
-    private ArrayAdapter<Ingredient> ingredientAdapter;
-    private ArrayList<Ingredient> dataList;
-    private final String[] sortOptions = {"Name", "Location", "Expiry", "Category"};
+    private CustomList ingredientAdapter;
+    private final IngredientSortOrders pantry = new IngredientSortOrders();
+    private ListenerRegistration registration;
+    // pagination, only used when the page size is set
+    private int pageSize;
+    // the pages are shown in the order Firebase returned them, since sorting them again here
+    // could put a later page above the rows that were already scrolled past
+    private final ArrayList<Ingredient> pageItems = new ArrayList<>();
+    private final DocumentListModel<Ingredient> pages = new DocumentListModel<>(pageItems);
+    private DocumentSnapshot lastPage;
+    private boolean morePages;
+    private boolean loadingPage;
+    private int pageGeneration;
+    private String pageSortBy;
+    private boolean pageAscending;
+    private final String[] sortOptions = {ListSorting.NAME, ListSorting.LOCATION, ListSorting.EXPIRY, ListSorting.CATEGORY};
     private Spinner sortSpinner;
     private Switch sortSwitch;
     public int position = -1;
+    private final ActivityResultLauncher<String[]> importLauncher =
+            registerForActivityResult(new ActivityResultContracts.OpenDocument(), this::importFile);
 
     public IngredientFragment() {
         super(R.layout.activity_ingredient);
@@ -60,11 +81,13 @@ public class IngredientFragment extends Fragment implements AddEditIngredientFra
 
         Button addButton = view.findViewById(R.id.add_ingredient_button);
         // create list of ingredients
-        ListView ingredientList = view.findViewById(R.id.ingredientListView);
-        dataList = new ArrayList<>();
+        RecyclerView ingredientList = view.findViewById(R.id.ingredientListView);
+        pantry.clear();
+        pages.clear();
 
-        ingredientAdapter = new CustomList(getContext(),dataList);
-        ingredientList.setAdapter(ingredientAdapter);
+        // the list shows the ingredients of the pantry in its current order
+        ingredientAdapter = new CustomList();
+        ingredientAdapter.attachTo(ingredientList);
 
 
         // ingredient sort by title, location, expiry date, category
@@ -109,22 +132,10 @@ public class IngredientFragment extends Fragment implements AddEditIngredientFra
         });
 
         // on item  click in ingredient list, editor appears
-        ingredientList.setOnItemClickListener(new AdapterView.OnItemClickListener() {
-            /**
-             * Method invoked when an ingredient in this view is clicked
-             * @param adapterView {@link AdapterView} the AdapterView where the selection happened
-             * @param view {@link View} the view that was clicked
-             * @param i {@link Integer} position of the view in the adapter
-             * @param l {@link Long} the row ID of the item that was selected
-             */
-            @Override
-            public void onItemClick(AdapterView<?> adapterView, View view, int i, long l) {
-                // view ingredient details when you click on it
-                position = i;
-                Ingredient selected = (Ingredient) adapterView.getItemAtPosition(i);
-
-                AddEditIngredientFragment.newInstance(ingredientAdapter.getItem(position),false, IngredientFragment.this).show(getChildFragmentManager(),"EDIT");
-            }
+        ingredientAdapter.setOnItemClickListener((selected, i) -> {
+            // view ingredient details when you click on it
+            position = i;
+            AddEditIngredientFragment.newInstance(selected,false, IngredientFragment.this).show(getChildFragmentManager(),"EDIT");
         });
 
         // on add button click in ingredient list, adder appears
@@ -141,44 +152,152 @@ public class IngredientFragment extends Fragment implements AddEditIngredientFra
             }
         });
 
+        // on import button click, a CSV or JSON file of ingredients is picked
+        Button importButton = view.findViewById(R.id.import_ingredient_button);
+        importButton.setOnClickListener(v -> importLauncher.launch(new String[]{
+                "text/csv", "text/comma-separated-values", "application/json", "text/plain"}));
+
         // ingredient controller to get data from firebase
         ingredientController = new IngredientController();
-        CollectionReference collectionReference = ingredientController.getCollectionReference();
-        collectionReference.addSnapshotListener(new EventListener<QuerySnapshot>() {
-            /**
-             * Method for when data changes from collection reference
-             * @param value {@link QuerySnapshot}
-             * @param error {@link com.google.firebase.firestore.FirebaseFirestore}
-             */
-            @Override
-            public void onEvent(@Nullable QuerySnapshot value, @Nullable FirebaseFirestoreException error) {
-                dataList.clear();
-                // convert date picker date to a string
-                for(QueryDocumentSnapshot doc: value) {
-                    Date date = doc.getDate("BestBeforeDate");
-                    String pattern = "yyyy-MM-dd";
-                    @SuppressLint("SimpleDateFormat") DateFormat df = new SimpleDateFormat(pattern);
-                    String bbd = df.format(date);
-
-                    // create new ingredient in firebase
-                    Ingredient newIngredient = new Ingredient(
-                            doc.getString("Name"),
-                            doc.getDouble("Amount"),
-                            bbd,
-                            doc.getString("Location"),
-                            doc.getString("Unit"),
-                            doc.getString("Category")
-                    );
-                    // set ID for new ingredient
-                    newIngredient.setId(doc.getId());
-
-                    dataList.add(newIngredient);
+        pageSize = getResources().getInteger(R.integer.ingredient_page_size);
+        if (pageSize > 0) {
+            // large pantries are loaded a page at a time, in the order Firebase sorts them by
+            ingredientList.addOnScrollListener(new RecyclerView.OnScrollListener() {
+                /**
+                 * Loads the next page once the list is scrolled to within half a page of its end
+                 * @param recyclerView {@link RecyclerView} the list that was scrolled
+                 * @param dx {@link int} how far the list was scrolled across
+                 * @param dy {@link int} how far the list was scrolled down
+                 */
+                @Override
+                public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                    LinearLayoutManager layout = (LinearLayoutManager) recyclerView.getLayoutManager();
+                    if (layout.findLastVisibleItemPosition() + 1 >= ingredientAdapter.getItemCount() - pageSize / 2) {
+                        loadNextPage();
+                    }
                 }
-                sortDataBySpinner();
-                ingredientAdapter.notifyDataSetChanged();
+            });
+            pageSortBy = sortSpinner.getSelectedItem().toString();
+            pageAscending = sortSwitch.isChecked();
+            restartPages();
+        } else {
+            // only the ingredients that changed are applied to the list
+            registration = ingredientController.listenForIngredients(pantry, () -> ingredientAdapter.submit(pantry.getItems()));
+        }
+    }
+
+    /**
+     * Imports the ingredients of a CSV or JSON file. The rows are checked against the units,
+     * categories and locations the user can pick, and the result is shown once they are written.
+     * @param uri {@link Uri} the file that was picked, or null if none was
+     */
+    private void importFile(Uri uri) {
+        if (uri == null) return;
+        ContentResolver resolver = requireContext().getContentResolver();
+        boolean json = "application/json".equals(resolver.getType(uri))
+                || (uri.getPath() != null && uri.getPath().endsWith(".json"));
+
+        new AddEditIngredientController().getDocumentReference().get().addOnCompleteListener(task -> {
+            if (!isAdded()) return;
+            Map<String, Object> customization = task.isSuccessful() ? task.getResult().getData() : null;
+            PantryImportValidator validator = new PantryImportValidator(
+                    optionsOf(R.array.units_array, customization, "IngredientUnits"),
+                    optionsOf(R.array.category_array, customization, "IngredientCategories"),
+                    optionsOf(R.array.location_array, customization, "IngredientLocations"));
+
+            InputStream in;
+            try {
+                in = resolver.openInputStream(uri);
+            } catch (FileNotFoundException e) {
+                Toast.makeText(getContext(), "Could not open the file", Toast.LENGTH_LONG).show();
+                return;
             }
+            Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+            IngredientRowReader rows = json ? new JsonIngredientRowReader(reader) : new CsvIngredientRowReader(reader);
+            Toast.makeText(getContext(), "Importing ingredients", Toast.LENGTH_SHORT).show();
+
+            new PantryImporter(ingredientController).importRows(rows, validator).addOnCompleteListener(done -> {
+                if (!isAdded()) return;
+                String message;
+                if (done.isSuccessful()) {
+                    PantryImporter.Result result = done.getResult();
+                    message = "Imported " + result.getImported() + " ingredients";
+                    if (result.getRejected() > 0) {
+                        message += ", skipped " + result.getRejected() + " rows\n" + String.join("\n", result.getErrors());
+                    }
+                } else {
+                    message = "Could not import the file: " + done.getException().getMessage();
+                }
+                Toast.makeText(getContext(), message, Toast.LENGTH_LONG).show();
+                // without the listener, the imported ingredients are only shown once the pages are read again
+                if (pageSize > 0 && getView() != null) {
+                    restartPages();
+                }
+            });
         });
     }
+
+    /**
+     * Gets the options the user can pick for a field of an ingredient
+     * @param defaults {@link int} the ID of the array of default options
+     * @param customization {@link Map} the fields of the IngredientCustomization document, may be null
+     * @param field {@link String} the field of the document that holds the options the user added
+     * @return {@link List} of the options
+     */
+    @SuppressWarnings("unchecked")
+    private List<CharSequence> optionsOf(int defaults, Map<String, Object> customization, String field) {
+        String[] names = getResources().getStringArray(defaults);
+        // the last default is the option to add a new one
+        ArrayList<CharSequence> options = new ArrayList<>(Arrays.asList(names).subList(0, names.length - 1));
+        if (customization != null && customization.containsKey(field)) {
+            options.addAll((List<CharSequence>) customization.get(field));
+        }
+        return options;
+    }
+
+    /**
+     * Drops the loaded pages and loads the first page again, in the current order
+     */
+    private void restartPages() {
+        // pages of the previous order that are still loading are ignored
+        pageGeneration++;
+        pages.clear();
+        ingredientAdapter.submit(pageItems);
+        lastPage = null;
+        morePages = true;
+        loadingPage = false;
+        loadNextPage();
+    }
+
+    /**
+     * Loads the page after the last loaded one, if there is one and it isn't already loading
+     */
+    private void loadNextPage() {
+        if (loadingPage || !morePages) return;
+        loadingPage = true;
+        int generation = pageGeneration;
+        ingredientController.getIngredientPage(pageSortBy, pageAscending, pageSize, lastPage, (ingredients, last) -> {
+            if (generation != pageGeneration || getView() == null) return;
+            ingredients.forEach(ingredient -> pages.put(ingredient.getId(), ingredient));
+            lastPage = last;
+            morePages = last != null;
+            loadingPage = false;
+            ingredientAdapter.submit(pageItems);
+        });
+    }
+
+    /**
+     * Stops listening to Firebase when the view of the fragment is destroyed
+     */
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+    }
+
     /**
      * Method for sorting ingredients by selected attributes
      * sortable attributes: location, category, unit
@@ -191,23 +310,20 @@ public class IngredientFragment extends Fragment implements AddEditIngredientFra
 
         // retrieve the sort information
         String sortBy = sortSpinner.getSelectedItem().toString();
-        int asc = sortSwitch.isChecked() ? 1:-1;
-
-        // sort ingredient list based on the sort option
-        //
-        Collections.sort(dataList, (Ingredient i1, Ingredient i2) -> {
-                    if (sortBy.equals(sortOptions[0])) {
-                        return asc * i1.getName().toLowerCase().compareTo(i2.getName().toLowerCase());
-                    } else if (sortBy.equals(sortOptions[1])) {
-                        return asc * i1.getLocation().toLowerCase().compareTo(i2.getLocation().toLowerCase());
-                    } else if (sortBy.equals(sortOptions[2])) {
-                        return asc * i1.getbbd().compareTo(i2.getbbd());
-                    } else {
-                        return asc * i1.getCategory().toLowerCase().compareTo(i2.getCategory().toLowerCase());
-                    }
-                }
-        );
-        ingredientAdapter.notifyDataSetChanged();
+
+        // the loaded pages only hold the start of the old order, so Firebase is asked for the new one
+        if (pageSize > 0) {
+            if (!sortBy.equals(pageSortBy) || sortSwitch.isChecked() != pageAscending) {
+                pageSortBy = sortBy;
+                pageAscending = sortSwitch.isChecked();
+                restartPages();
+            }
+            return;
+        }
+
+        // the pantry is kept sorted by every option, so this only switches which order is shown
+        pantry.setOrder(sortBy, sortSwitch.isChecked());
+        ingredientAdapter.submit(pantry.getItems());
     }
     /**
      * Method for adding ingredients
@@ -215,8 +331,15 @@ public class IngredientFragment extends Fragment implements AddEditIngredientFra
      * @param ingredient {@link Ingredient} an ingredient to be added
      */
     public void addIngredient(Ingredient ingredient) {
-        ingredientAdapter.add(ingredient);
-        ingredientController.addIngredient(ingredient);
+        // the ingredient is shown once Firebase reports it was added
+        ingredientController.addIngredient(ingredient, added -> {
+            // without the listener, the list is only told about its own changes
+            // it is shown after the loaded pages until they are read again
+            if (pageSize > 0 && getView() != null) {
+                pages.put(added.getId(), added);
+                ingredientAdapter.submit(pageItems);
+            }
+        });
     }
 
     /**
@@ -232,8 +355,23 @@ public class IngredientFragment extends Fragment implements AddEditIngredientFra
         }
         else {
             ingredientController.notifyUpdate(currentIngredient);
+            if (pageSize > 0) {
+                pages.put(currentIngredient.getId(), currentIngredient);
+            }
+        }
+        ingredientAdapter.submit(pageSize > 0 ? pageItems : pantry.getItems());
+    }
+
+    /**
+     * Method invoked when an ingredient was deleted from the Add/Edit fragment
+     * @param currentIngredient {@link Ingredient} the ingredient that was deleted
+     */
+    @Override
+    public void onDeleteConfirmed(Ingredient currentIngredient) {
+        if (pageSize > 0) {
+            pages.remove(currentIngredient.getId());
+            ingredientAdapter.submit(pageItems);
         }
-        ingredientAdapter.notifyDataSetChanged();
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.example.a301project;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads the rows of a JSON file that holds an array of objects, one for each ingredient. The
+ * array is streamed, so only the object that is being read is held in memory. Fields that are
+ * not strings, numbers or booleans are skipped.
+ *
+ * JSON files are not read line by line, so {@link #getLine()} gives the position of the object
+ * in the array instead.
+ */
+public class JsonIngredientRowReader implements IngredientRowReader {
+    private final JsonReader reader;
+    private boolean started;
+    private int line;
+
+    /**
+     * Creates a reader of a JSON file
+     * @param reader {@link Reader} the file, which is closed with this reader
+     */
+    public JsonIngredientRowReader(Reader reader) {
+        this.reader = new JsonReader(reader);
+    }
+
+    @Override
+    public Map<String, String> next() throws IOException {
+        if (!started) {
+            reader.beginArray();
+            started = true;
+        }
+        if (!reader.hasNext()) {
+            return null;
+        }
+        line++;
+        HashMap<String, String> row = new HashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String column = IngredientRowReader.columnOf(reader.nextName());
+            JsonToken token = reader.peek();
+            if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+                row.put(column, reader.nextString());
+            } else if (token == JsonToken.BOOLEAN) {
+                row.put(column, String.valueOf(reader.nextBoolean()));
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return row;
+    }
+
+    @Override
+    public int getLine() {
+        return line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -12,7 +12,9 @@ import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.CollectionReference;
 import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -124,32 +126,50 @@ public class MealPlanController {
         cr.get().addOnSuccessListener(queryDocumentSnapshots -> {
             ArrayList<MealPlan> meals = new ArrayList<>();
 
-            queryDocumentSnapshots.forEach(doc -> {
-                ArrayList<Ingredient> ingredients = new ArrayList<>();
-                ArrayList<Recipe> recipes = new ArrayList<>();
-                ArrayList<Map<String, Object>> objects1 = (ArrayList<Map<String, Object>>) doc.get("Ingredients");
-                objects1.forEach(o -> {
-                    ingredients.add(new Ingredient((String) o.get("name"), ((Number) o.get("amount")).doubleValue()));
-                });
-                ArrayList<Map<String, Object>> objects2 = (ArrayList<Map<String, Object>>) doc.get("Recipes");
-                objects2.forEach(o -> {
-                    recipes.add(new Recipe((String) o.get("title"), ((Number) o.get("servings")).longValue()));
-                });
-
-                MealPlan m = new MealPlan(
-                        ingredients,
-                        recipes,
-                        doc.getString("Title"),
-                        doc.getString("Start Date"),
-                        doc.getString("End Date")
-                );
-                m.setId(doc.getId());
-                meals.add(m);
-            });
+            queryDocumentSnapshots.forEach(doc -> meals.add(fromDocument(doc)));
             s.f(meals);
         });
     }
 
+    /**
+     * Makes a {@link MealPlan} from its Firebase document
+     * @param doc {@link DocumentSnapshot} the document of the meal plan
+     * @return The {@link MealPlan}, with its ID set
+     */
+    public static MealPlan fromDocument(DocumentSnapshot doc) {
+        ArrayList<Ingredient> ingredients = new ArrayList<>();
+        ArrayList<Recipe> recipes = new ArrayList<>();
+        ArrayList<Map<String, Object>> objects1 = (ArrayList<Map<String, Object>>) doc.get("Ingredients");
+        objects1.forEach(o -> {
+            ingredients.add(new Ingredient((String) o.get("name"), ((Number) o.get("amount")).doubleValue()));
+        });
+        ArrayList<Map<String, Object>> objects2 = (ArrayList<Map<String, Object>>) doc.get("Recipes");
+        objects2.forEach(o -> {
+            recipes.add(new Recipe((String) o.get("title"), ((Number) o.get("servings")).longValue()));
+        });
+
+        MealPlan m = new MealPlan(
+                ingredients,
+                recipes,
+                doc.getString("Title"),
+                doc.getString("Start Date"),
+                doc.getString("End Date")
+        );
+        m.setId(doc.getId());
+        return m;
+    }
+
+    /**
+     * Keeps a list of meal plans up to date with Firebase. Only the meal plans that were added,
+     * changed or removed are applied to the list.
+     * @param model {@link DocumentCollection} the model of the list
+     * @param handler {@link DocumentChangeListener.changeHandler} called after each change
+     * @return {@link ListenerRegistration} to stop listening with
+     */
+    public ListenerRegistration listenForMealPlans(DocumentCollection<MealPlan> model, DocumentChangeListener.changeHandler handler) {
+        return cr.addSnapshotListener(new DocumentChangeListener<>(model, MealPlanController::fromDocument, handler));
+    }
+
     public interface successHandler {
         void f(ArrayList<MealPlan> m);
     }
@@ -166,6 +186,9 @@ public class MealPlanController {
         userMap.put("Recipes", mealplan.getRecipes());
         userMap.put("Start Start", mealplan.getStartDate());
         userMap.put("End Start", mealplan.getEndDate());
+        // the meal plans are read from these keys, so the listening screens see the new dates
+        userMap.put("Start Date", mealplan.getStartDate());
+        userMap.put("End Date", mealplan.getEndDate());
         String id = mealplan.getId();
         cr
                 .document(id)
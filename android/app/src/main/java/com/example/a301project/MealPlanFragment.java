@@ -3,13 +3,13 @@ package com.example.a301project;
 import android.os.Bundle;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.AdapterView;
-import android.widget.ArrayAdapter;
 import android.widget.Button;
-import android.widget.ListView;
 
 import androidx.annotation.NonNull;
 import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.google.firebase.firestore.ListenerRegistration;
 
 import java.time.DayOfWeek;
 import java.time.format.TextStyle;
@@ -17,15 +17,17 @@ import java.util.ArrayList;
 import java.util.Locale;
 
 /**
- * Class for MealPlan activity that contains a listview
- * an ArrayAdapter for the meal plan
+ * Class for MealPlan activity that contains a list
+ * an adapter for the meal plan
  * renders MealPlan for user and allows them to add, delete, modify it
  */
 public class MealPlanFragment extends Fragment implements AddEditMealPlanFragment.OnFragmentInteractionListener{
-    private ListView listView;
-    private ArrayAdapter<MealPlan> mealPlanArrayAdapter;
+    private RecyclerView listView;
+    private MealPlanListAdapter mealPlanArrayAdapter;
     private ArrayList<MealPlan> mealPlanDataList = new ArrayList<>();
+    private final DocumentListModel<MealPlan> documentModel = new DocumentListModel<>(mealPlanDataList);
     private MealPlanController controller = new MealPlanController();
+    private ListenerRegistration registration;
     Button addMealButton;
     public int position = -1;
 
@@ -45,12 +47,13 @@ public class MealPlanFragment extends Fragment implements AddEditMealPlanFragmen
         addMealButton = view.findViewById(R.id.add_meal_button);
 
         // Attach to listview
-        mealPlanArrayAdapter = new MealPlanListAdapter(getContext(), mealPlanDataList);
+        mealPlanArrayAdapter = new MealPlanListAdapter();
         listView = view.findViewById(R.id.mealPlanListView);
-        listView.setAdapter(mealPlanArrayAdapter);
+        mealPlanArrayAdapter.attachTo(listView);
 
-        // Fetch the data
-        controller.getMealPlan(meal -> setMealPlanDataList(meal));
+        // Fetch the data, then apply only the meal plans that changed
+        documentModel.clear();
+        registration = controller.listenForMealPlans(documentModel, () -> mealPlanArrayAdapter.submit(mealPlanDataList));
 
         // We have to put our layout in the space for the content
         ViewGroup content = view.findViewById(R.id.nav_content);
@@ -72,31 +75,23 @@ public class MealPlanFragment extends Fragment implements AddEditMealPlanFragmen
         });
 
         // by clicking on an item in list view, open edit menu
-        listView.setOnItemClickListener(new AdapterView.OnItemClickListener() {
-            /**
-             * Method invoked when an item in this view is clicked
-             * @param adapterView {@link AdapterView} the AdapterView where the selection happened
-             * @param view {@link View} the view that was clicked
-             * @param i {@link Integer} position of the view in the adapter
-             * @param l {@link Long} the row ID of the item that was selected
-             */
-            @Override
-            public void onItemClick(AdapterView<?> adapterView, View view, int i, long l) {
-                // when a MealPlan item is clicked, open Edit Recipe fragment
-                position = i;
-                AddEditMealPlanFragment.newInstance(mealPlanArrayAdapter.getItem(position), false, MealPlanFragment.this).show(getChildFragmentManager(), "EDIT");
-            }
+        mealPlanArrayAdapter.setOnItemClickListener((mealPlan, i) -> {
+            // when a MealPlan item is clicked, open Edit Recipe fragment
+            position = i;
+            AddEditMealPlanFragment.newInstance(mealPlan, false, MealPlanFragment.this).show(getChildFragmentManager(), "EDIT");
         });
     }
+
     /**
-     * Method to clear mealPlanDataList,
-     * Resets the internal recipe list the new one.
-     * @param m {@link ArrayList} list of recipes to set the data list to
+     * Stops listening to Firebase when the view of the fragment is destroyed
      */
-    private void setMealPlanDataList(ArrayList<MealPlan> m) {
-        mealPlanDataList.clear();
-        mealPlanDataList.addAll(m);
-        mealPlanArrayAdapter.notifyDataSetChanged();
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
     }
 
     /**
@@ -106,9 +101,8 @@ public class MealPlanFragment extends Fragment implements AddEditMealPlanFragmen
      * @return void
      */
     public void addMealPlan(MealPlan mealplan) {
+        // the meal plan is shown once Firebase reports it was added
         controller.addMealPlan(mealplan);
-        mealPlanArrayAdapter.add(mealplan);
-        mealPlanArrayAdapter.notifyDataSetChanged();
     }
 
     /**
@@ -124,7 +118,7 @@ public class MealPlanFragment extends Fragment implements AddEditMealPlanFragmen
         else {
             controller.notifyUpdate(currentMealPlan);
         }
-        mealPlanArrayAdapter.notifyDataSetChanged();
+        mealPlanArrayAdapter.submit(mealPlanDataList);
     }
 
     /**
@@ -133,6 +127,7 @@ public class MealPlanFragment extends Fragment implements AddEditMealPlanFragmen
      */
     @Override
     public void onDeleteConfirmed(MealPlan currentMealPlan) {
-        mealPlanArrayAdapter.remove(currentMealPlan);
+        mealPlanDataList.remove(currentMealPlan);
+        mealPlanArrayAdapter.submit(mealPlanDataList);
     }
 }
\ No newline at end of file
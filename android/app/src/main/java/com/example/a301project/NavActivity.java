@@ -64,6 +64,7 @@ public class NavActivity extends AppCompatActivity {
      */
     private void onSignInResult(FirebaseAuthUIAuthenticationResult result) {
         if (result.getResultCode() == RESULT_OK) {
+            ExpiryAlertWorker.schedule(this);
             renderFragment(R.id.action_ingredients, true);
         } else {
             Toast.makeText(this, "Error, could not sign in.", Toast.LENGTH_LONG).show();
@@ -106,6 +107,7 @@ public class NavActivity extends AppCompatActivity {
             FirebaseAuth mAuth = FirebaseAuth.getInstance();
             mAuth.signInWithEmailAndPassword("admin@admin.com", "admin123")
                     .addOnSuccessListener(authResult -> {
+                        ExpiryAlertWorker.schedule(this);
                         renderFragment(R.id.action_ingredients, true);
                     });
         } else {
@@ -0,0 +1,176 @@
+package com.example.a301project;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class adds the ingredients of an imported CSV or JSON file to the ingredient storage.
+ *
+ * The rows are read and checked one at a time on a background thread, and written in
+ * {@link WriteBatch} objects of up to {@link #BATCH_SIZE} ingredients. Each batch also adds its
+ * ingredients to the {@link PantrySummary}, so the summary has exactly the batches that were
+ * written. Only {@link #MAX_IN_FLIGHT} batches are written at once, and reading waits for one of
+ * them to finish before starting another, so the memory used does not grow with the file.
+ */
+public class PantryImporter {
+    // the most writes Firebase allows in one batch, where each increment of the summary is a write
+    static final int BATCH_LIMIT = 500;
+    // an ingredient can add a total with two increments, and the summary itself takes two writes
+    static final int BATCH_SIZE = (BATCH_LIMIT - 2) / 3;
+    static final int MAX_IN_FLIGHT = 4;
+    // a batch is not done until Firebase has it, which never happens offline
+    static final long COMMIT_TIMEOUT_SECONDS = 30;
+    private static final ExecutorService BACKGROUND = Executors.newSingleThreadExecutor();
+
+    /**
+     * What an import did
+     */
+    public static class Result {
+        private final int imported;
+        private final int rejected;
+        private final List<String> errors;
+
+        Result(int imported, int rejected, List<String> errors) {
+            this.imported = imported;
+            this.rejected = rejected;
+            this.errors = errors;
+        }
+
+        /**
+         * Gets the number of ingredients that were added
+         * @return The number of added ingredients
+         */
+        public int getImported() {return this.imported;}
+
+        /**
+         * Gets the number of rows that were skipped because they were not valid
+         * @return The number of skipped rows
+         */
+        public int getRejected() {return this.rejected;}
+
+        /**
+         * Gets the reasons the first rows were skipped
+         * @return {@link List} of the reasons
+         */
+        public List<String> getErrors() {return this.errors;}
+    }
+
+    private final IngredientController controller;
+    private final CollectionReference collectionReference;
+
+    /**
+     * Creates an importer into the ingredient storage of a controller
+     * @param controller {@link IngredientController} the controller of the ingredient storage
+     */
+    public PantryImporter(IngredientController controller) {
+        this.controller = controller;
+        this.collectionReference = controller.getCollectionReference();
+    }
+
+    /**
+     * Imports every valid row of a file on a background thread. The rows that were written before
+     * a batch failed stay in the ingredient storage and in the summary.
+     * @param reader {@link IngredientRowReader} the rows of the file, which is closed once it was read
+     * @param validator {@link PantryImportValidator} checks each row and makes its ingredient
+     * @return {@link Task} that completes with the {@link Result}, or fails if the file could not be
+     * read, a batch could not be written, or a batch took longer than {@link #COMMIT_TIMEOUT_SECONDS}
+     */
+    public Task<Result> importRows(IngredientRowReader reader, PantryImportValidator validator) {
+        return Tasks.call(BACKGROUND, () -> {
+            Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+            AtomicReference<Exception> failure = new AtomicReference<>();
+            AtomicInteger imported = new AtomicInteger();
+
+            try (IngredientRowReader rows = reader) {
+                ArrayList<Ingredient> batch = new ArrayList<>(BATCH_SIZE);
+                Map<String, String> row;
+                while ((row = rows.next()) != null && failure.get() == null) {
+                    Ingredient ingredient = validator.validate(row, rows.getLine());
+                    if (ingredient == null) {
+                        continue;
+                    }
+                    batch.add(ingredient);
+                    if (batch.size() == BATCH_SIZE) {
+                        commit(batch, inFlight, failure, imported);
+                        batch = new ArrayList<>(BATCH_SIZE);
+                    }
+                }
+                if (!batch.isEmpty() && failure.get() == null) {
+                    commit(batch, inFlight, failure, imported);
+                }
+            } finally {
+                // wait for the batches that are still being written
+                if (!inFlight.tryAcquire(MAX_IN_FLIGHT, COMMIT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    failure.compareAndSet(null, timeoutOf(imported));
+                }
+            }
+            if (failure.get() != null) {
+                throw failure.get();
+            }
+            return new Result(imported.get(), validator.getRejected(), validator.getErrors());
+        });
+    }
+
+    /**
+     * Writes a batch of ingredients with what they add to the {@link PantrySummary}, once fewer than
+     * {@link #MAX_IN_FLIGHT} batches are being written
+     * @param ingredients {@link ArrayList} of the {@link Ingredient} to write
+     * @param inFlight {@link Semaphore} with a permit for each batch that can be written at once
+     * @param failure {@link AtomicReference} set to the first error of a batch
+     * @param imported {@link AtomicInteger} counts the ingredients that were written
+     * @throws InterruptedException if the import was interrupted while waiting
+     * @throws TimeoutException if no batch finished in time, such as when Firebase is offline
+     */
+    private void commit(ArrayList<Ingredient> ingredients, Semaphore inFlight, AtomicReference<Exception> failure,
+                        AtomicInteger imported) throws InterruptedException, TimeoutException {
+        if (!inFlight.tryAcquire(COMMIT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            throw timeoutOf(imported);
+        }
+        WriteBatch batch = collectionReference.getFirestore().batch();
+        PantrySummary change = new PantrySummary();
+        for (Ingredient ingredient : ingredients) {
+            DocumentReference doc = collectionReference.document();
+            ingredient.setId(doc.getId());
+            batch.set(doc, IngredientController.toData(ingredient));
+            change.add(ingredient);
+        }
+        controller.addToSummary(batch, change);
+        // the batch is done on the main thread, like every other write to the shared models
+        controller.commitWithSummary(batch, change).addOnCompleteListener(task -> {
+            if (task.isSuccessful()) {
+                for (Ingredient ingredient : ingredients) {
+                    TrigramIndex.ingredientNames().add(ingredient.getName());
+                }
+                imported.addAndGet(ingredients.size());
+            } else {
+                failure.compareAndSet(null, task.getException());
+            }
+            inFlight.release();
+        });
+    }
+
+    /**
+     * Makes the error of an import that gave up waiting for Firebase. The batches that were not
+     * done yet are still written once Firebase is back online.
+     * @param imported {@link AtomicInteger} counts the ingredients that were written
+     * @return The {@link TimeoutException}
+     */
+    private static TimeoutException timeoutOf(AtomicInteger imported) {
+        return new TimeoutException("Firebase did not finish writing the ingredients after "
+                + imported.get() + " were imported, it may be offline");
+    }
+}
@@ -10,7 +10,9 @@ import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.CollectionReference;
 import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -71,6 +73,8 @@ public class RecipeController {
         data.put("Comments", comments);
         data.put("Ingredients", ingredients);
         data.put("Photo", photo);
+        data.put("PhotoThumbnail", recipe.getPhotoThumbnail());
+        data.put("PhotoDetail", recipe.getPhotoDetail());
         data.put("PrepTime", prepTime);
         data.put("Servings", servings);
 
@@ -87,6 +91,8 @@ public class RecipeController {
                         String id = documentReference.getId();
                         Log.d("Added", "Added document with ID: "+ id);
                         recipe.setId(id);
+                        RecipeExpansionIndex.getInstance().putRecipe(recipe);
+                        TrigramIndex.recipeTitles().add(recipe.getTitle());
                     }
                 })
                 .addOnFailureListener(new OnFailureListener() {
@@ -106,6 +112,8 @@ public class RecipeController {
      */
     public void removeRecipe(Recipe recipe) {
         String id = recipe.getId();
+        RecipeExpansionIndex.getInstance().removeRecipe(id);
+        TrigramIndex.recipeTitles().remove(recipe.getTitle());
         collectionReference.document(id)
                 .delete()
                 .addOnSuccessListener(new OnSuccessListener<Void>() {
@@ -133,28 +141,49 @@ public class RecipeController {
         collectionReference.get().addOnSuccessListener(queryDocumentSnapshots -> {
             ArrayList<Recipe> res = new ArrayList<>();
 
-            queryDocumentSnapshots.forEach(doc -> {
-                ArrayList<Ingredient> ingredients = new ArrayList<>();
+            queryDocumentSnapshots.forEach(doc -> res.add(fromDocument(doc)));
+            s.f(res);
+        });
+    }
 
-                ArrayList<Map<String, Object>> objects = (ArrayList<Map<String, Object>>) doc.get("Ingredients");
-                objects.forEach(o -> {
-                    ingredients.add(new Ingredient((String) o.get("name"), ((Number) o.get("amount")).doubleValue()));
-                });
+    /**
+     * Makes a {@link Recipe} from its Firebase document
+     * @param doc {@link DocumentSnapshot} the document of the recipe
+     * @return The {@link Recipe}, with its ID set
+     */
+    public static Recipe fromDocument(DocumentSnapshot doc) {
+        ArrayList<Ingredient> ingredients = new ArrayList<>();
 
-                Recipe r = new Recipe(
-                        doc.getString("Title"),
-                        doc.getString("Category"),
-                        doc.getString("Comments"),
-                        doc.getString("Photo"),
-                        doc.getLong("PrepTime"),
-                        doc.getLong("Servings"),
-                        ingredients
-                );
-                r.setId(doc.getId());
-                res.add(r);
-            });
-            s.f(res);
+        ArrayList<Map<String, Object>> objects = (ArrayList<Map<String, Object>>) doc.get("Ingredients");
+        objects.forEach(o -> {
+            ingredients.add(new Ingredient((String) o.get("name"), ((Number) o.get("amount")).doubleValue()));
         });
+
+        Recipe r = new Recipe(
+                doc.getString("Title"),
+                doc.getString("Category"),
+                doc.getString("Comments"),
+                doc.getString("Photo"),
+                doc.getLong("PrepTime"),
+                doc.getLong("Servings"),
+                ingredients
+        );
+        r.setId(doc.getId());
+        // recipes saved before the photo had several versions only have the photo
+        r.setPhotoThumbnail(doc.getString("PhotoThumbnail"));
+        r.setPhotoDetail(doc.getString("PhotoDetail"));
+        return r;
+    }
+
+    /**
+     * Keeps a list of recipes up to date with Firebase. Only the recipes that were added, changed
+     * or removed are applied to the list.
+     * @param model {@link DocumentCollection} the model of the list
+     * @param handler {@link DocumentChangeListener.changeHandler} called after each change
+     * @return {@link ListenerRegistration} to stop listening with
+     */
+    public ListenerRegistration listenForRecipes(DocumentCollection<Recipe> model, DocumentChangeListener.changeHandler handler) {
+        return collectionReference.addSnapshotListener(new DocumentChangeListener<>(model, RecipeController::fromDocument, handler));
     }
 
     public interface successHandler {
@@ -173,11 +202,16 @@ public class RecipeController {
         userMap.put("Comments",recipe.getComments());
         userMap.put("Ingredients",recipe.getIngredients());
         userMap.put("Photo", recipe.getPhoto());
+        userMap.put("PhotoThumbnail", recipe.getPhotoThumbnail());
+        userMap.put("PhotoDetail", recipe.getPhotoDetail());
         userMap.put("Servings", recipe.getServings());
         userMap.put("PrepTime", recipe.getPrepTime());
         String id = recipe.getId();
         collectionReference
             .document(id)
             .update(userMap);
+        // the cached ingredients of the recipe's title are out of date
+        RecipeExpansionIndex.getInstance().putRecipe(recipe);
+        TrigramIndex.recipeTitles().add(recipe.getTitle());
     }
 }
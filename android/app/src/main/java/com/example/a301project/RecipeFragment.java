@@ -1,34 +1,53 @@
 package com.example.a301project;
 
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.View;
 import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.CompoundButton;
-import android.widget.ListView;
+import android.widget.EditText;
 import android.widget.Spinner;
 import android.widget.Switch;
 
 import androidx.annotation.NonNull;
 import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.ListenerRegistration;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * /**
  *  Main Activity class for Recipes
  *  functionalities for add, edit, delete
  *  initiates an RecipeController object that has access to firebase data
- *  handles sorting of recipes
+ *  handles sorting and searching of recipes, and ranking them by the ingredients in storage
  *  @return void
  */
 public class RecipeFragment extends Fragment implements AddEditRecipeFragment.OnFragmentInteractionListener {
-    private ArrayAdapter<Recipe> recipeArrayAdapter;
+    // the most recipes a search or the ranking by ingredients in storage shows
+    static final int MAX_RANKED_RECIPES = 200;
+    private static final ExecutorService SEARCH = Executors.newSingleThreadExecutor();
+    private RecipeListAdapter recipeArrayAdapter;
     private final ArrayList<Recipe> recipeDataList = new ArrayList<>();
+    private final DocumentListModel<Recipe> documentModel = new DocumentListModel<>(recipeDataList);
+    private final RecipeSearchIndex searchIndex = new RecipeSearchIndex();
+    private final PantryCoverageMatcher coverageMatcher = new PantryCoverageMatcher();
+    private ListenerRegistration pantryRegistration;
+    private boolean canCook;
+    private String searchQuery = "";
+    private int searchGeneration;
     private final RecipeController controller = new RecipeController();
-    private final String[] sortOptions = {"Name", "Prep Time", "Servings", "Category"};
+    private ListenerRegistration registration;
+    private final String[] sortOptions = {ListSorting.NAME, ListSorting.PREP_TIME, ListSorting.SERVINGS, ListSorting.CATEGORY, ListSorting.CAN_COOK};
     private Spinner sortSpinner;
     private Switch sortSwitch;
     Button addButton;
@@ -50,13 +69,55 @@ public class RecipeFragment extends Fragment implements AddEditRecipeFragment.On
 
         addButton = view.findViewById(R.id.add_recipe_button);
 
-        // Fetch the data
-        controller.getRecipes(res -> setRecipeDataList(res));
+        // Attach to the list
+        recipeArrayAdapter = new RecipeListAdapter(getContext());
+        RecyclerView listView = view.findViewById(R.id.recipeListView);
+        recipeArrayAdapter.attachTo(listView);
+
+        // Fetch the data, then apply only the recipes that changed to the list, the search index and the matcher
+        documentModel.clear();
+        searchIndex.clear();
+        coverageMatcher.clear();
+        registration = controller.listenForRecipes(new DocumentCollection<Recipe>() {
+            @Override
+            public void put(String id, Recipe recipe) {
+                documentModel.put(id, recipe);
+                searchIndex.put(id, recipe);
+                coverageMatcher.put(id, recipe);
+            }
 
-        // Attach to listView
-        recipeArrayAdapter = new RecipeListAdapter(getContext(), recipeDataList);
-        ListView listView = view.findViewById(R.id.recipeListView);
-        listView.setAdapter(recipeArrayAdapter);
+            @Override
+            public Recipe remove(String id) {
+                searchIndex.remove(id);
+                coverageMatcher.remove(id);
+                return documentModel.remove(id);
+            }
+        }, this::showRecipes);
+
+        // Setup searching, which shows the recipes that match best instead of the sorted list
+        EditText searchText = view.findViewById(R.id.recipeSearchText);
+        searchQuery = searchText.getText().toString();
+        searchText.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence charSequence, int i, int i1, int i2) {
+
+            }
+
+            @Override
+            public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {
+
+            }
+
+            /**
+             * Searches again every time the search text changes
+             * @param editable {@link Editable} the search text
+             */
+            @Override
+            public void afterTextChanged(Editable editable) {
+                searchQuery = editable.toString();
+                showRecipes();
+            }
+        });
 
         // Setup sorting
         // sort by title, prep time, servings, category
@@ -114,39 +175,34 @@ public class RecipeFragment extends Fragment implements AddEditRecipeFragment.On
                 sortDataBySpinner();
             }
         });
-        listView.setOnItemClickListener(new AdapterView.OnItemClickListener() {
-            /**
-             * Method invoked when an item in this view is clicked
-             * @param adapterView {@link AdapterView} the AdapterView where the selection happened
-             * @param view {@link View} the view that was clicked
-             * @param i {@link Integer} position of the view in the adapter
-             * @param l {@link Long} the row ID of the item that was selected
-             */
-            @Override
-            public void onItemClick(AdapterView<?> adapterView, View view, int i, long l) {
-                // when a Recipe item is clicked, open Edit Recipe fragment
-                position = i;
-                AddEditRecipeFragment.newInstance(recipeArrayAdapter.getItem(position), false, RecipeFragment.this).show(getChildFragmentManager(), "EDIT");
-            }
+        recipeArrayAdapter.setOnItemClickListener((recipe, i) -> {
+            // when a Recipe item is clicked, open Edit Recipe fragment
+            position = i;
+            AddEditRecipeFragment.newInstance(recipe, false, RecipeFragment.this).show(getChildFragmentManager(), "EDIT");
         });
 
     }
 
     /**
-     * Method to clear recipeDataList,
-     * Resets the internal recipe list the new one.
-     * @param r {@link ArrayList} list of recipes to set the data list to
+     * Stops listening to Firebase and loading thumbnails when the view of the fragment is destroyed
      */
-    private void setRecipeDataList(ArrayList<Recipe> r) {
-        recipeDataList.clear();
-        recipeDataList.addAll(r);
-        sortDataBySpinner();
-        recipeArrayAdapter.notifyDataSetChanged();
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        RecipeImageCache.getInstance(getContext()).cancelPrefetches();
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+        if (pantryRegistration != null) {
+            pantryRegistration.remove();
+            pantryRegistration = null;
+        }
     }
 
     /**
      * Sorts internal recipe list by selected parameters defined the sortOptions attribute
-     * Sort By parameters: Title, Prep Time, Servings, Category
+     * Sort By parameters: Title, Prep Time, Servings, Category, Can Cook Now
      */
     private void sortDataBySpinner() {
         if (getView() == null) return;
@@ -155,24 +211,45 @@ public class RecipeFragment extends Fragment implements AddEditRecipeFragment.On
         sortSwitch = getView().findViewById(R.id.recipeSortSwitch);
 
         String sortBy = sortSpinner.getSelectedItem().toString();
-        int asc = sortSwitch.isChecked() ? 1 : -1;
-
-        // determine which sort option was selected, then sort them in ascending or descending order
-        // ascending or descending is based on the asc variable
-        Collections.sort(recipeDataList, (Recipe r1, Recipe r2) -> {
-                    if (sortBy.equals(sortOptions[0])) {
-                        return asc * r1.getTitle().toLowerCase().compareTo(r2.getTitle().toLowerCase());
-                    } else if (sortBy.equals(sortOptions[1])) {
-                        return asc * r1.getPrepTime().compareTo(r2.getPrepTime());
-                    } else if (sortBy.equals(sortOptions[2])) {
-                        return asc * r1.getServings().compareTo(r2.getServings());
-                    } else {
-                        return asc * r1.getCategory().toLowerCase().compareTo(r2.getCategory().toLowerCase());
-                    }
-                }
-        );
 
-        recipeArrayAdapter.notifyDataSetChanged();
+        canCook = sortBy.equals(ListSorting.CAN_COOK);
+        if (canCook) {
+            // storage is only read once the recipes are ranked by it, and then kept up to date
+            if (pantryRegistration == null) {
+                pantryRegistration = new IngredientController().listenForIngredients(coverageMatcher.pantry(), this::showRecipes);
+            }
+        } else {
+            // determine which sort option was selected, then sort them in ascending or descending order
+            // ascending or descending is based on the sort switch
+            documentModel.sort(ListSorting.recipeComparator(sortBy, sortSwitch.isChecked()));
+        }
+
+        showRecipes();
+    }
+
+    /**
+     * Shows the recipes that match the search text, or the recipes with the most of their
+     * ingredients in storage, or else every recipe in the sorted order. Searching and ranking are
+     * done on a background thread, and a result that finishes after a newer one is dropped.
+     */
+    private void showRecipes() {
+        int generation = ++searchGeneration;
+        Callable<ArrayList<Recipe>> ranking;
+        if (!searchQuery.trim().isEmpty()) {
+            String query = searchQuery;
+            ranking = () -> searchIndex.search(query, MAX_RANKED_RECIPES);
+        } else if (canCook) {
+            ranking = () -> coverageMatcher.topRecipes(MAX_RANKED_RECIPES);
+        } else {
+            recipeArrayAdapter.submit(recipeDataList);
+            return;
+        }
+        Tasks.call(SEARCH, ranking)
+                .addOnSuccessListener(results -> {
+                    if (generation == searchGeneration && getView() != null) {
+                        recipeArrayAdapter.submit(results);
+                    }
+                });
     }
 
     /**
@@ -182,8 +259,7 @@ public class RecipeFragment extends Fragment implements AddEditRecipeFragment.On
      * @return void
      */
     public void addRecipe(Recipe recipe) {
-        recipeArrayAdapter.add(recipe);
-        recipeArrayAdapter.notifyDataSetChanged();
+        // the recipe is shown once Firebase reports it was added
         controller.addRecipe(recipe);
     }
 
@@ -211,6 +287,9 @@ public class RecipeFragment extends Fragment implements AddEditRecipeFragment.On
      */
     @Override
     public void onDeleteConfirmed(Recipe currentRecipe) {
-        recipeArrayAdapter.remove(currentRecipe);
+        recipeDataList.remove(currentRecipe);
+        searchIndex.remove(currentRecipe.getId());
+        coverageMatcher.remove(currentRecipe.getId());
+        showRecipes();
     }
 }
\ No newline at end of file
@@ -0,0 +1,167 @@
+package com.example.a301project;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.util.Log;
+import android.widget.ImageView;
+
+import com.squareup.picasso.LruCache;
+import com.squareup.picasso.OkHttp3Downloader;
+import com.squareup.picasso.Picasso;
+import com.squareup.picasso.RequestCreator;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+
+/**
+ * This class loads the photos of {@link Recipe} objects through a cache of two tiers. Decoded
+ * thumbnails are kept in memory in an LRU cache of a fixed share of the app's memory, and the
+ * downloaded files are kept on disk, so scrolling back through the recipe list neither decodes
+ * nor downloads a photo again.
+ *
+ * Photos in Firebase Storage are served without a cache lifetime, so the disk tier gives every
+ * response one. A photo that is replaced by this device is taken out of both tiers with
+ * {@link #invalidate(String)}.
+ */
+public class RecipeImageCache {
+    private static final long DISK_CACHE_BYTES = 50L * 1024 * 1024;
+    private static final int DISK_CACHE_SECONDS = 7 * 24 * 60 * 60;
+    private static final int MEMORY_CACHE_SHARE = 8;
+    private static final String PREFETCH_TAG = "RecipePrefetch";
+    private static RecipeImageCache instance;
+
+    private final Picasso picasso;
+    private final Cache diskCache;
+    private final int thumbnailSize;
+
+    /**
+     * Gets the shared {@link RecipeImageCache}
+     * @param context {@link Context} any context of the app
+     * @return The shared {@link RecipeImageCache}
+     */
+    public static synchronized RecipeImageCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new RecipeImageCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private RecipeImageCache(Context context) {
+        ActivityManager activityManager = context.getSystemService(ActivityManager.class);
+        int memoryBytes = activityManager.getMemoryClass() * 1024 * 1024 / MEMORY_CACHE_SHARE;
+
+        diskCache = new Cache(new File(context.getCacheDir(), "recipe-images"), DISK_CACHE_BYTES);
+        OkHttpClient client = new OkHttpClient.Builder()
+                .cache(diskCache)
+                .addNetworkInterceptor(chain -> chain.proceed(chain.request()).newBuilder()
+                        .header("Cache-Control", "max-age=" + DISK_CACHE_SECONDS)
+                        .removeHeader("Pragma")
+                        .build())
+                .build();
+
+        picasso = new Picasso.Builder(context)
+                .memoryCache(new LruCache(memoryBytes))
+                .downloader(new OkHttp3Downloader(client))
+                .build();
+        thumbnailSize = context.getResources().getDimensionPixelSize(R.dimen.recipe_thumbnail_size);
+    }
+
+    /**
+     * Gets the URL of the photo to show in a row of the recipe list
+     * @param recipe {@link Recipe} the recipe
+     * @return The URL of the thumbnail, or of the photo if the recipe has no thumbnail, or null if
+     * it has no photo
+     */
+    private static String thumbnailOf(Recipe recipe) {
+        if (recipe.getPhoto() == null || recipe.getPhoto().isEmpty()) {
+            return null;
+        }
+        return recipe.getPhotoThumbnail() != null ? recipe.getPhotoThumbnail() : recipe.getPhoto();
+    }
+
+    /**
+     * Makes the request for a thumbnail, decoded at the size it is shown at
+     * @param url {@link String} the URL of the thumbnail
+     * @return The {@link RequestCreator} of the thumbnail
+     */
+    private RequestCreator thumbnail(String url) {
+        return picasso.load(url).resize(thumbnailSize, thumbnailSize).centerCrop();
+    }
+
+    /**
+     * Shows the thumbnail of a recipe. A view that is reused for another row stops loading the
+     * photo of the row it was used for before.
+     * @param recipe {@link Recipe} the recipe
+     * @param view {@link ImageView} the view to show the thumbnail in
+     */
+    public void loadThumbnail(Recipe recipe, ImageView view) {
+        String url = thumbnailOf(recipe);
+        if (url == null) {
+            picasso.cancelRequest(view);
+            view.setImageResource(R.drawable.meal);
+            return;
+        }
+        thumbnail(url).placeholder(R.drawable.meal).into(view);
+    }
+
+    /**
+     * Stops loading the photo of a view, once the row of the view is no longer shown
+     * @param view {@link ImageView} the view the photo was loading into
+     */
+    public void cancel(ImageView view) {
+        picasso.cancelRequest(view);
+    }
+
+    /**
+     * Loads the thumbnail of a recipe into the cache before its row is shown
+     * @param recipe {@link Recipe} the recipe
+     */
+    public void prefetchThumbnail(Recipe recipe) {
+        String url = thumbnailOf(recipe);
+        if (url != null) {
+            thumbnail(url).priority(Picasso.Priority.LOW).tag(PREFETCH_TAG).fetch();
+        }
+    }
+
+    /**
+     * Stops loading the thumbnails that were prefetched, once the list is no longer shown
+     */
+    public void cancelPrefetches() {
+        picasso.cancelTag(PREFETCH_TAG);
+    }
+
+    /**
+     * Shows a photo at the size of the view
+     * @param url {@link String} the URL of the photo
+     * @param view {@link ImageView} the view to show the photo in
+     */
+    public void loadPhoto(String url, ImageView view) {
+        picasso.load(url).into(view);
+    }
+
+    /**
+     * Takes a photo out of the cache after it was replaced, since a photo that is uploaded again
+     * keeps its URL
+     * @param url {@link String} the URL of the photo
+     */
+    public void invalidate(String url) {
+        if (url == null) {
+            return;
+        }
+        picasso.invalidate(url);
+        try {
+            Iterator<String> urls = diskCache.urls();
+            while (urls.hasNext()) {
+                if (urls.next().equals(url)) {
+                    urls.remove();
+                }
+            }
+        } catch (IOException e) {
+            Log.w("RecipeImageCache", "Could not remove a photo from the disk cache", e);
+        }
+    }
+}
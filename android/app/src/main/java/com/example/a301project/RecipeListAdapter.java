@@ -4,75 +4,119 @@ import android.content.Context;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
 import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
-import androidx.annotation.Nullable;
 
-import com.squareup.picasso.Picasso;
-
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Class for a RecipeList adapter that handles displaying Recipe objects to
  * recipe activity
  */
-public class RecipeListAdapter extends ArrayAdapter<Recipe> {
-    private final ArrayList<Recipe> recipes;
-    private final Context context;
+public class RecipeListAdapter extends DiffingListAdapter<Recipe, RecipeListAdapter.RecipeHolder> {
+    // rows past the last one shown whose thumbnails are loaded ahead of the scroll
+    static final int PREFETCH_ROWS = 3;
+    private final RecipeImageCache imageCache;
+    private int lastPosition = -1;
 
     /**
-     * Constructor for RecipeListAdapter using its attributes
-     * @param context {@link Context} the context for this adapter
-     * @param recipes {@link ArrayList} array list containing recipe objects
+     * Holds the views of a recipe row
      */
-    public RecipeListAdapter(Context context, ArrayList<Recipe> recipes) {
-        super(context, 0, recipes);
+    static class RecipeHolder extends DiffingListAdapter.Holder<Recipe> {
+        private final RecipeImageCache imageCache;
+        private final TextView titleTV;
+        private final TextView prepTimeTV;
+        private final TextView servingsTV;
+        private final TextView categoryTV;
+        private final ImageView imageView;
+
+        RecipeHolder(@NonNull View view, RecipeImageCache imageCache) {
+            super(view);
+            this.imageCache = imageCache;
+            // Find the views by searching text box ID
+            titleTV = view.findViewById(R.id.r_titleTextView);
+            prepTimeTV = view.findViewById(R.id.r_prepTimeTextView);
+            servingsTV = view.findViewById(R.id.r_servingsTextView);
+            categoryTV = view.findViewById(R.id.r_categoryTextView);
+            imageView = view.findViewById(R.id.r_imageview);
+            imageView.setClipToOutline(true);
+        }
+
+        @Override
+        public void bind(Recipe r) {
+            // Set the text to each textbox
+            titleTV.setText(r.getTitle());
+            prepTimeTV.setText(r.getPrepTime() + " min");
+            servingsTV.setText(r.getServings().toString() + " Servings");
+            categoryTV.setText(r.getCategory());
+            // a reused view stops loading the photo of the row it showed before
+            imageCache.loadThumbnail(r, imageView);
+        }
 
-        this.recipes = recipes;
-        this.context = context;
+        /**
+         * Stops loading the thumbnail of the row, which has been scrolled off the screen
+         */
+        void recycle() {
+            imageCache.cancel(imageView);
+        }
     }
 
     /**
-     * Method for creating a view that will appear in the recipe adapter
-     * @param position {@link Integer} the position of the current view
-     * @param convertView {@link View} the reused view to be retrieved
-     * @param parent {@link ViewGroup} the collection of views that contains current view
-     * @return a view
+     * Constructor for RecipeListAdapter
+     * @param context {@link Context} the context for this adapter
      */
+    public RecipeListAdapter(Context context) {
+        this.imageCache = RecipeImageCache.getInstance(context);
+    }
+
     @NonNull
     @Override
-    public View getView(int position, @Nullable View convertView, @NonNull ViewGroup parent) {
-        Recipe r = recipes.get(position);
+    public RecipeHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.recipe_row_layout, parent, false);
+        return new RecipeHolder(view, imageCache);
+    }
 
-        View view = convertView;
-        if (view == null) {
-            view = LayoutInflater.from(context).inflate(R.layout.recipe_row_layout, parent, false);
-        }
+    @Override
+    public void onBindViewHolder(@NonNull RecipeHolder holder, int position) {
+        super.onBindViewHolder(holder, position);
+        prefetch(position);
+    }
 
-        // Find the views by searching text box ID
-        TextView titleTV = view.findViewById(R.id.r_titleTextView);
-        TextView prepTimeTV = view.findViewById(R.id.r_prepTimeTextView);
-        TextView servingsTV = view.findViewById(R.id.r_servingsTextView);
-        TextView categoryTV = view.findViewById(R.id.r_categoryTextView);
-        ImageView imageView = view.findViewById(R.id.r_imageview);
+    @Override
+    public void onViewRecycled(@NonNull RecipeHolder holder) {
+        super.onViewRecycled(holder);
+        // the row may sit in the pool for a while, so its download does not hold up the shown rows
+        holder.recycle();
+    }
 
-        // Set the text to each textbox
-        titleTV.setText(r.getTitle());
-        prepTimeTV.setText(r.getPrepTime() + " min");
-        servingsTV.setText(r.getServings().toString() + " Servings");
-        categoryTV.setText(r.getCategory());
-        if (r.getPhoto() != null && !r.getPhoto().isEmpty()) {
-            Picasso.get().load(r.getPhoto()).into(imageView);
-            imageView.setClipToOutline(true);
-        }
-        else {
-            imageView.setImageResource(R.drawable.meal);
-        }
+    @Override
+    protected String idOf(Recipe recipe) {
+        return recipe.getId();
+    }
 
-        return view;
+    @Override
+    protected List<Object> contentsOf(Recipe recipe) {
+        return Arrays.asList(recipe.getTitle(), recipe.getPrepTime(), recipe.getServings(),
+                recipe.getCategory(), recipe.getPhoto(), recipe.getPhotoThumbnail());
     }
-}
 
+    /**
+     * Loads the thumbnails of the rows just past a row into the cache, in the direction the list
+     * is being scrolled
+     * @param position {@link Integer} the position of the row that was shown
+     */
+    private void prefetch(int position) {
+        int step = position >= lastPosition ? 1 : -1;
+        lastPosition = position;
+        for (int i = 1; i <= PREFETCH_ROWS; i++) {
+            int next = position + step * i;
+            if (next < 0 || next >= getItemCount()) {
+                break;
+            }
+            imageCache.prefetchThumbnail(getItem(next));
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.example.a301project;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.net.Uri;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.storage.StorageMetadata;
+import com.google.firebase.storage.StorageReference;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This class turns a picked or taken photo into the versions of a {@link Recipe} photo that are
+ * stored in Firebase: a thumbnail for the recipe list, a detail photo for the recipe editor and,
+ * if it is kept, a larger copy of the original.
+ *
+ * The photo is decoded on a background thread, sampled down to the largest version that is
+ * stored, and turned the right way up with its Exif orientation. Every version is compressed at a
+ * quality that suits its size, and the versions are uploaded at the same time.
+ */
+public class RecipePhotoPipeline {
+    static final int THUMBNAIL_EDGE = 240;
+    static final int THUMBNAIL_QUALITY = 75;
+    static final int DETAIL_EDGE = 1080;
+    static final int DETAIL_QUALITY = 85;
+    static final int ORIGINAL_EDGE = 3072;
+    static final int ORIGINAL_QUALITY = 92;
+    private static final ExecutorService BACKGROUND = Executors.newSingleThreadExecutor();
+
+    /**
+     * The compressed versions of a photo
+     */
+    public static class Photos {
+        private final Bitmap preview;
+        private final byte[] thumbnail;
+        private final byte[] detail;
+        private final byte[] original;
+
+        Photos(Bitmap preview, byte[] thumbnail, byte[] detail, byte[] original) {
+            this.preview = preview;
+            this.thumbnail = thumbnail;
+            this.detail = detail;
+            this.original = original;
+        }
+
+        /**
+         * Gets the detail photo, to show while the versions are uploaded
+         * @return {@link Bitmap} of the detail photo
+         */
+        public Bitmap getPreview() {return this.preview;}
+    }
+
+    /**
+     * The URLs of the uploaded versions of a photo
+     */
+    public static class Urls {
+        private final String photo;
+        private final String thumbnail;
+        private final String detail;
+
+        Urls(String photo, String thumbnail, String detail) {
+            this.photo = photo;
+            this.thumbnail = thumbnail;
+            this.detail = detail;
+        }
+
+        /**
+         * Gets the URL of the largest version, the original if it was kept or else the detail photo
+         * @return {@link String} the URL of the photo
+         */
+        public String getPhoto() {return this.photo;}
+
+        /**
+         * Gets the URL of the thumbnail
+         * @return {@link String} the URL of the thumbnail
+         */
+        public String getThumbnail() {return this.thumbnail;}
+
+        /**
+         * Gets the URL of the detail photo
+         * @return {@link String} the URL of the detail photo
+         */
+        public String getDetail() {return this.detail;}
+    }
+
+    private final boolean keepOriginal;
+
+    /**
+     * Creates a pipeline
+     * @param keepOriginal {@link boolean} whether a copy of the original is stored as well
+     */
+    public RecipePhotoPipeline(boolean keepOriginal) {
+        this.keepOriginal = keepOriginal;
+    }
+
+    /**
+     * Makes the versions of a photo picked from the gallery, on a background thread
+     * @param resolver {@link ContentResolver} to open the photo with
+     * @param uri {@link Uri} of the photo
+     * @return {@link Task} that completes with the {@link Photos}, or fails if the photo could not be read
+     */
+    public Task<Photos> process(ContentResolver resolver, Uri uri) {
+        return Tasks.call(BACKGROUND, () -> {
+            // the size is read first, so the photo is only decoded as large as it is needed
+            BitmapFactory.Options bounds = new BitmapFactory.Options();
+            bounds.inJustDecodeBounds = true;
+            try (InputStream in = resolver.openInputStream(uri)) {
+                BitmapFactory.decodeStream(in, null, bounds);
+            }
+            if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+                throw new IOException("The file is not a photo");
+            }
+
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inSampleSize = PhotoSizes.sampleSizeOf(bounds.outWidth, bounds.outHeight,
+                    keepOriginal ? ORIGINAL_EDGE : DETAIL_EDGE);
+            Bitmap bitmap;
+            try (InputStream in = resolver.openInputStream(uri)) {
+                bitmap = BitmapFactory.decodeStream(in, null, options);
+            }
+            if (bitmap == null) {
+                throw new IOException("The photo could not be decoded");
+            }
+
+            int orientation;
+            try (InputStream in = resolver.openInputStream(uri)) {
+                orientation = new ExifInterface(in).getAttributeInt(
+                        ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+            }
+            return encode(orient(bitmap, orientation));
+        });
+    }
+
+    /**
+     * Makes the versions of a photo taken with the camera, on a background thread
+     * @param bitmap {@link Bitmap} the photo
+     * @return {@link Task} that completes with the {@link Photos}
+     */
+    public Task<Photos> process(Bitmap bitmap) {
+        return Tasks.call(BACKGROUND, () -> encode(bitmap));
+    }
+
+    /**
+     * Uploads the versions of a photo at the same time. The thumbnail and the detail photo are
+     * stored next to the photo, with "_thumbnail" and "_detail" after its name.
+     * @param photoRef {@link StorageReference} where the photo is stored
+     * @param photos {@link Photos} the versions of the photo
+     * @return {@link Task} that completes with the {@link Urls} once every version is uploaded
+     */
+    public Task<Urls> upload(StorageReference photoRef, Photos photos) {
+        StorageReference parent = photoRef.getParent();
+        Task<Uri> thumbnail = put(parent.child(photoRef.getName() + "_thumbnail"), photos.thumbnail);
+        Task<Uri> detail = put(parent.child(photoRef.getName() + "_detail"), photos.detail);
+        Task<Uri> original = photos.original == null ? null : put(photoRef, photos.original);
+
+        ArrayList<Task<Uri>> uploads = new ArrayList<>();
+        uploads.add(thumbnail);
+        uploads.add(detail);
+        if (original != null) {
+            uploads.add(original);
+        }
+        return Tasks.whenAllSuccess(uploads).continueWith(task -> {
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            String detailUrl = detail.getResult().toString();
+            return new Urls(original == null ? detailUrl : original.getResult().toString(),
+                    thumbnail.getResult().toString(), detailUrl);
+        });
+    }
+
+    /**
+     * Uploads one version of a photo
+     * @param ref {@link StorageReference} where the version is stored
+     * @param bytes the compressed version
+     * @return {@link Task} that completes with the download URL of the version
+     */
+    private static Task<Uri> put(StorageReference ref, byte[] bytes) {
+        StorageMetadata metadata = new StorageMetadata.Builder()
+                .setContentType("image/jpeg")
+                .build();
+        return ref.putBytes(bytes, metadata).continueWithTask(task -> {
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            return ref.getDownloadUrl();
+        });
+    }
+
+    /**
+     * Compresses every version of a photo
+     * @param bitmap {@link Bitmap} the photo, the right way up
+     * @return The {@link Photos}
+     */
+    private Photos encode(Bitmap bitmap) {
+        Bitmap detail = scale(bitmap, DETAIL_EDGE);
+        Bitmap thumbnail = scale(detail, THUMBNAIL_EDGE);
+        byte[] original = keepOriginal ? compress(scale(bitmap, ORIGINAL_EDGE), ORIGINAL_QUALITY) : null;
+        return new Photos(detail, compress(thumbnail, THUMBNAIL_QUALITY), compress(detail, DETAIL_QUALITY), original);
+    }
+
+    /**
+     * Scales a photo to fit a longest edge
+     * @param bitmap {@link Bitmap} the photo
+     * @param longestEdge {@link int} the longest the longest edge can be
+     * @return The scaled {@link Bitmap}, or the photo itself if it already fits
+     */
+    private static Bitmap scale(Bitmap bitmap, int longestEdge) {
+        int[] size = PhotoSizes.fit(bitmap.getWidth(), bitmap.getHeight(), longestEdge);
+        if (size[0] == bitmap.getWidth() && size[1] == bitmap.getHeight()) {
+            return bitmap;
+        }
+        return Bitmap.createScaledBitmap(bitmap, size[0], size[1], true);
+    }
+
+    /**
+     * Compresses a photo to JPEG
+     * @param bitmap {@link Bitmap} the photo
+     * @param quality {@link int} the JPEG quality, from 0 to 100
+     * @return The compressed photo
+     */
+    private static byte[] compress(Bitmap bitmap, int quality) {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        bitmap.compress(Bitmap.CompressFormat.JPEG, quality, stream);
+        return stream.toByteArray();
+    }
+
+    /**
+     * Turns a photo the right way up
+     * @param bitmap {@link Bitmap} the photo as it was decoded
+     * @param orientation {@link int} the Exif orientation of the photo
+     * @return The {@link Bitmap} the right way up
+     */
+    private static Bitmap orient(Bitmap bitmap, int orientation) {
+        Matrix matrix = new Matrix();
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                matrix.postRotate(90);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                matrix.postRotate(180);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                matrix.postRotate(270);
+                break;
+            case ExifInterface.ORIENTATION_FLIP_HORIZONTAL:
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_FLIP_VERTICAL:
+                matrix.postScale(1, -1);
+                break;
+            case ExifInterface.ORIENTATION_TRANSPOSE:
+                matrix.postRotate(90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_TRANSVERSE:
+                matrix.postRotate(270);
+                matrix.postScale(-1, 1);
+                break;
+            default:
+                return bitmap;
+        }
+        Bitmap oriented = Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+        if (oriented != bitmap) {
+            bitmap.recycle();
+        }
+        return oriented;
+    }
+}
@@ -1,115 +1,127 @@
 package com.example.a301project;
 
-import android.content.Context;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
-import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 
 
 /**
- * This class creates a custom array list for ShoppingItem objects
- * contains a constructor and a method that returns a view of the custom list
+ * This class creates a custom list for ShoppingItem objects
+ * contains a holder that finds the views of a row once, and binds a shopping item to them
  */
-public class ShoppingListAdapter extends ArrayAdapter<ShoppingItem> {
-    private final ArrayList<ShoppingItem> shoppingItems;
-    private final Context context;
-    private ShoppingListAdapterListener listener;
+public class ShoppingListAdapter extends DiffingListAdapter<ShoppingItem, ShoppingListAdapter.ShoppingItemHolder> {
+    private final ShoppingListAdapterListener listener;
 
 
     /**
-     * Makes a Custom list from an array list of ingredients
-     * @param context {@link Context} context to the array list
-     * @param shoppingItems {@link ArrayList<ShoppingItem>} array list containing shopping items
+     * Makes a Custom list of shopping items
+     * @param listener {@link ShoppingListAdapterListener} told when an item is purchased
      * shopping items are similar to ingredients, but they have less attributes
      */
-    public ShoppingListAdapter(Context context, ArrayList<ShoppingItem> shoppingItems, ShoppingListAdapterListener listener) {
-        super(context, 0, shoppingItems);
-
-        this.shoppingItems = shoppingItems;
-        this.context = context;
+    public ShoppingListAdapter(ShoppingListAdapterListener listener) {
         this.listener = listener;
     }
 
     /**
      * An interface that is to be implemented as a listener for when interactions occur
-     * to individual items in the listView
+     * to individual items in the list
      */
     public interface ShoppingListAdapterListener {
         public void  onButtonPressed(int position);
     }
 
     /**
-     * Method for creating a view that will appear in the ingredient adapter
-     * @param position {@link Integer} the position of the current view
-     * @param convertView {@link View} the reused view to be retrieved
-     * @param parent {@link ViewGroup} the collection of views that contains current view
-     * @return a view
+     * Holds the views of a shopping item row
      */
-    @NonNull
-    @Override
-    public View getView(int position, @Nullable View convertView, @NonNull ViewGroup parent) {
-        ShoppingItem s = shoppingItems.get(position);
-
-        // create each list view from the defined shopping_row_layout
-        View view = convertView;
-        if (view == null) {
-            view = LayoutInflater.from(context).inflate(R.layout.shopping_row_layout, parent, false);
+    static class ShoppingItemHolder extends DiffingListAdapter.Holder<ShoppingItem> {
+        private final TextView shoppingItemName;
+        private final TextView amountName;
+        private final TextView unitName;
+        private final TextView categoryName;
+
+        ShoppingItemHolder(@NonNull View view, ShoppingListAdapterListener listener) {
+            super(view);
+            // if the purchased button is checked
+            Button shoppingItemPurchasedButton = view.findViewById(R.id.shoppingItemPurchasedButton);
+            shoppingItemPurchasedButton.setOnClickListener(new View.OnClickListener() {
+                /**
+                 * Sets the onClick method for the {@link Button} shoppingItemPurchasedButton for each item in the list
+                 * @param v the view being clicked
+                 */
+                @Override
+                public void onClick(View v) {
+                    int position = getBindingAdapterPosition();
+                    if (position != RecyclerView.NO_POSITION) {
+                        listener.onButtonPressed(position);
+                    }
+                }
+            });
+
+            // list view to attributes of each shopping item object- by finding view text boxes to their ID
+            shoppingItemName = view.findViewById(R.id.s_nameText);
+            amountName = view.findViewById(R.id.s_amountText);
+            unitName = view.findViewById(R.id.s_unitText);
+            categoryName = view.findViewById(R.id.s_categoryText);
         }
 
-        // if the purchased button is checked
-        Button shoppingItemPurchasedButton = view.findViewById(R.id.shoppingItemPurchasedButton);
-        shoppingItemPurchasedButton.setOnClickListener(new View.OnClickListener() {
-            /**
-             * Sets the onClick method for the {@link Button} shoppingItemPurchasedButton for each item in the list
-             * @param v the view being clicked
-             */
-            @Override
-            public void onClick(View v) {
-                listener.onButtonPressed(position);
+        @Override
+        public void bind(ShoppingItem s) {
+            // sets the text
+            shoppingItemName.setText(s.getName());
+            String amount = amountOf(s);
+            s.setAmount(Double.parseDouble(amount));
+            amountName.setText("Need: " + amount);
+            unitName.setText(s.getUnit());
+            categoryName.setText(s.getCategory());
+
+            // don't display the unit and category if they haven't been entered by user yet
+            if (s.getUnit() == "null") {
+                unitName.setVisibility(View.INVISIBLE);
+            } else {
+                unitName.setVisibility(View.VISIBLE);
+            }
+            if (s.getCategory() == "null") {
+                categoryName.setVisibility(View.INVISIBLE);
+            } else {
+                categoryName.setVisibility(View.VISIBLE);
             }
-        });
-
-
-        // list view to attributes of each shopping item object- by finding view text boxes to their ID
-        TextView shoppingItemName = view.findViewById(R.id.s_nameText);
-        TextView amountName = view.findViewById(R.id.s_amountText);
-        TextView unitName = view.findViewById(R.id.s_unitText);
-        TextView categoryName = view.findViewById(R.id.s_categoryText);
-
-        // sets the text
-        shoppingItemName.setText(s.getName());
-        String amount = String.format("%.1f",s.getAmount());
-        s.setAmount(Double.parseDouble(amount));
-        amountName.setText("Need: " + amount);
-        unitName.setText(s.getUnit());
-        categoryName.setText(s.getCategory());
-
-        // if the test is null -> don't display the text
-        System.out.println(s.getName());
-        System.out.println(s.getUnit());
-        System.out.println(s.getCategory());
-
-        // don't display the unit and category if they haven't been entered by user yet
-        if (s.getUnit() == "null") {
-            unitName.setVisibility(View.INVISIBLE);
-        } else {
-            unitName.setVisibility(View.VISIBLE);
-        }
-        if (s.getCategory() == "null") {
-            categoryName.setVisibility(View.INVISIBLE);
-        } else {
-            categoryName.setVisibility(View.VISIBLE);
         }
+    }
 
-        return view;
+    /**
+     * Gets the amount of a shopping item as it is shown
+     * @param s {@link ShoppingItem} the shopping item
+     * @return The amount, to one decimal place
+     */
+    private static String amountOf(ShoppingItem s) {
+        return String.format("%.1f", s.getAmount());
+    }
+
+    @NonNull
+    @Override
+    public ShoppingItemHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        // create each row from the defined shopping_row_layout
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.shopping_row_layout, parent, false);
+        return new ShoppingItemHolder(view, listener);
+    }
+
+    @Override
+    protected String idOf(ShoppingItem s) {
+        // the shopping list has one item for each name and unit
+        return PantrySummary.keyOf(s.getName(), s.getUnit());
+    }
+
+    @Override
+    protected List<Object> contentsOf(ShoppingItem s) {
+        return Arrays.asList(s.getName(), amountOf(s), s.getUnit(), s.getCategory());
     }
 }
@@ -1,13 +1,38 @@
 package com.example.a301project;
 
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.TaskExecutors;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.AggregateSource;
 import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.EventListener;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.QuerySnapshot;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Stack;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * This {@link ShoppingListController} class allows the {@link ShoppingListFragment} to communicate with
@@ -17,25 +42,42 @@ import java.util.Stack;
  * This class should be used exclusively by the {@link ShoppingListFragment} class to handle database communication.
  */
 public class ShoppingListController {
+    // reads are turned into objects and reconciled one at a time, off the main thread
+    private static final ExecutorService BACKGROUND = Executors.newSingleThreadExecutor();
+    private static final ScheduledExecutorService TIMEOUTS = Executors.newSingleThreadScheduledExecutor();
+    // the listeners that keep the shared model up to date stay registered once the shopping list
+    // has been opened, so opening it again only costs the documents that changed since
+    private static ListenerRegistration modelListeners;
+    private static String modelUserEmail;
+    private static TaskCompletionSource<Void> modelLoad;
+    private static DocumentChangeListener.changeHandler modelHandler;
     private final String collectionName = "ShoppingList";
     private final FirebaseFirestore db;
+    private String userEmail;
     private CollectionReference ingredient_cr;
+    private DocumentReference summary_ref;
     private CollectionReference mealplan_cr;
     private CollectionReference recipe_cr;
     private ArrayList<ShoppingItem> mealPlanItemsDataList;
     private ArrayList<Recipe> mealPlanRecipesDataList;
     private ArrayList<ShoppingItem> ingredientStorageItemsDataList;
     private ArrayList<Recipe> recipeItemsDataList;
+    private final ShoppingListModel model = ShoppingListModel.getInstance();
+    private final RecipeExpansionIndex expansionIndex;
+
     /**
      * The constructor for the {@link ShoppingListController}. Sets up the {@link #db} and {@link #ingredient_cr}
      */
     public ShoppingListController() {
         this.db = FirebaseFirestore.getInstance();
+        this.expansionIndex = RecipeExpansionIndex.getInstance();
 
         FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
         assert user.getEmail() != null;
+        userEmail = user.getEmail();
         String ingredientCollectionName = "Ingredient";
         ingredient_cr = db.collection("User").document(user.getEmail()).collection(ingredientCollectionName);
+        summary_ref = IngredientController.summaryReferenceOf(db, user.getEmail());
         String recipeCollectionName = "Recipe";
         recipe_cr = db.collection("User").document(user.getEmail()).collection(recipeCollectionName);
         String mealplanCollectionName = "MealPlan";
@@ -55,6 +97,8 @@ public class ShoppingListController {
         this.ingredientStorageItemsDataList = ingredientStorageItemsDataList;
         this.mealPlanRecipesDataList = mealPlanRecipesDataList;
         this.recipeItemsDataList = recipeItemsDataList;
+        this.expansionIndex = new RecipeExpansionIndex();
+        this.expansionIndex.setRecipes(recipeItemsDataList);
         //mealplan_cr = db.collection(collectionName);
     }
 
@@ -91,148 +135,365 @@ public class ShoppingListController {
     /**
      * From the {@link Ingredient} read from Firebase, calculate the {@link ShoppingItem}
      * that the user needs to purchase
-     * This is done by looping through each Ingredient from the MealPlans and checking if
-     * it exists it the IngredientStorage (and compares the amounts)
+     * This is done by the {@link ShoppingListReconciler}, which totals the Ingredients from the
+     * MealPlans by name and subtracts the amounts found in the IngredientStorage
      * @param s successHandler function to be called on success with
      *          the ArrayList of ShoppingItem
      */
     public void getShoppingItems(ShoppingListController.shoppingItemSuccessHandler s) {
+        // get all the ingredient from the recipes in the users meal plans
+        getIngredientsFromMealPlanRecipes();
 
-            ArrayList<ShoppingItem> shoppingItemDataList = new ArrayList<>();
-            // get all the ingredient from the recipes in the users meal plans
-            getIngredientsFromMealPlanRecipes();
-
-            // if there actually is ShoppingItems in the MealPlan
-            if (mealPlanItemsDataList != null) {
-                // loop through each ShoppingItem from MealPlan
-                for (int i = 0; i < mealPlanItemsDataList.size(); i++) {
-                    ShoppingItem item = mealPlanItemsDataList.get(i);
-                    boolean matches = false;
-                    boolean enoughIngredient = false;
-                    // then loop through each ShoppingItem from IngredientStorage
-                    for (int j = 0; j < ingredientStorageItemsDataList.size(); j++) {
-                        // compare the MealPlan shoppingItem to all the items from the IngredientStorage
-                        ShoppingItem item2 = ingredientStorageItemsDataList.get(j);
-                        // if the MealPlan item is found in the IngredientStorage
-                        if(item.getName().equalsIgnoreCase(item2.getName())) {
-                            matches = true;
-                            double amount1 = item.getAmount();
-                            double amount2 = item2.getAmount();
-                            item.setUnit(item2.getUnit());
-                            item.setCategory(item2.getCategory());
-                            // if there is enough of the Ingredient in the Storage
-                            if (amount2 >= amount1) {
-                                item2.setAmount(amount2-amount1);
-                                // then item does not need to be added to shopping list
-                                mealPlanItemsDataList.remove(item);
-                                enoughIngredient = true;
-                                i--;
-                                break;
-                            } else {
-                                // if there isn't enough of the Ingredient in the Storage
-                                amount1-=amount2;
-                                item.setAmount(amount1);
-                                item2.setAmount(0.0);
-                            }
-                        }
-                    }
-                    // if the ShoppingItem from MealPlan was not in IngredientStorage -> then add it to ShoppingList
-                    if (!matches) {
-                        // check if there is already an item with that name in the shopping list
-                        boolean nameMatch = false;
-                        for (int k = 0; k < shoppingItemDataList.size(); k++) {
-                            ShoppingItem item3 = shoppingItemDataList.get(k);
-                            if (item3.getName().equalsIgnoreCase(item.getName())) {
-                                // then combine the amount
-                                item3.setAmount(item3.getAmount() + item.getAmount());
-                                shoppingItemDataList.set(k, new ShoppingItem(
-                                        item3.getName(),
-                                        item3.getAmount(),
-                                        item3.getUnit(),
-                                        item3.getCategory()
-                                ));
-                                nameMatch = true;
-                            }
-                        }
-                        // if there isn't already that ingredient in the shopping list then add a new one
-                        if (!nameMatch) {
-                            shoppingItemDataList.add(new ShoppingItem(
-                                    item.getName(),
-                                    item.getAmount(),
-                                    item.getUnit(),
-                                    item.getCategory()
-                            ));
-                        }
-                    } else {
-                        if (!enoughIngredient) {
-                            // also if there is not enough of the Ingredient in the Storage then add the difference to the ShoppingList
-                            ShoppingItem newItem = new ShoppingItem(
-                                    item.getName(),
-                                    item.getAmount(),
-                                    item.getUnit(),
-                                    item.getCategory()
-                            );
-                            // check if that ingredient is already in the shopping list
-                            boolean nameMatch = false;
-                            for (int k = 0; k < shoppingItemDataList.size(); k++) {
-                                ShoppingItem item3 = shoppingItemDataList.get(k);
-                                if (item3.getName().equalsIgnoreCase(newItem.getName())) {
-                                    // then combine the amount (combine the ingredient and the shopping list item)
-                                    item3.setAmount(item3.getAmount() + newItem.getAmount());
-                                    shoppingItemDataList.set(k, new ShoppingItem(
-                                            item3.getName(),
-                                            item3.getAmount(),
-                                            item3.getUnit(),
-                                            item3.getCategory()
-                                    ));
-                                    nameMatch = true;
-                                }
-                            }
-                            // if the ingredient wasn't already in shoppinglist -> add it
-                            if (!nameMatch) {
-                                shoppingItemDataList.add(newItem);
-                            }
-                        }
-                    }
+        s.f(ShoppingListReconciler.reconcile(mealPlanItemsDataList, ingredientStorageItemsDataList));
+    }
+
+    /**
+     * Waits for the shared {@link ShoppingListModel} to be filled with the Ingredients, MealPlans and
+     * Recipes from Firebase, and calculates the {@link ShoppingItem} the user needs to purchase on a
+     * background thread. The model is filled by the listeners that keep it up to date, which are
+     * started if they are not running yet, and read the three collections at the same time. Once
+     * the model is filled, this completes straight away.
+     * @param timeoutMillis {@link Long} how long to wait for everything, in milliseconds
+     * @return {@link Task} that completes with the {@link ShoppingListResult}, or fails with the
+     * {@link com.google.firebase.firestore.FirebaseFirestoreException} of the first listener that
+     * failed, as it is and not wrapped in another exception, or with a {@link TimeoutException} if
+     * it took too long. The listeners keep filling the model after a timeout.
+     */
+    public Task<ShoppingListResult> loadShoppingList(long timeoutMillis) {
+        // the error of the listeners is passed on as it is, since getResult would wrap it
+        Task<ShoppingListResult> shoppingList = startModelListeners().continueWith(BACKGROUND, task -> {
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            return new ShoppingListResult(model.getShoppingItems());
+        });
+
+        TaskCompletionSource<ShoppingListResult> result = new TaskCompletionSource<>();
+        ScheduledFuture<?> timeout = TIMEOUTS.schedule(() ->
+                result.trySetException(new TimeoutException("Reading the shopping list took longer than " + timeoutMillis + "ms")),
+                timeoutMillis, TimeUnit.MILLISECONDS);
+        shoppingList.addOnCompleteListener(BACKGROUND, task -> {
+            timeout.cancel(false);
+            if (task.isSuccessful()) {
+                result.trySetResult(task.getResult());
+            } else {
+                result.trySetException(task.getException());
+            }
+        });
+        return result.getTask();
+    }
+
+    /**
+     * Calls a handler whenever the shared {@link ShoppingListModel} changes, such as while the
+     * shopping list is shown. The listeners that keep the model up to date are started if they are
+     * not running yet.
+     * @param handler {@link DocumentChangeListener.changeHandler} called on the main thread after
+     *                each change
+     * @return {@link ListenerRegistration} to stop calling the handler with. The model is still
+     * kept up to date after it is removed.
+     */
+    public ListenerRegistration listenForModel(DocumentChangeListener.changeHandler handler) {
+        startModelListeners();
+        synchronized (ShoppingListController.class) {
+            modelHandler = handler;
+        }
+        return () -> {
+            synchronized (ShoppingListController.class) {
+                if (modelHandler == handler) {
+                    modelHandler = null;
                 }
             }
-            s.f(shoppingItemDataList);
+        };
     }
 
     /**
-     * From the recipes read from Firebase -> go through all of them and check if they are in MealPlan
-     * If the recipe is in meal plan add it's Ingredient to mealPlanItemsDataList (which is the list of needed Ingredients)
+     * Starts listening to the user's {@link PantrySummary}, MealPlans and Recipes, unless the
+     * listeners are already running for the user. The first snapshot of each fills the shared
+     * {@link ShoppingListModel}, and after that only the documents that changed are applied to it.
+     * The model is only emptied when the listeners are started for a different user, or again
+     * after they failed.
+     * @return {@link Task} that completes once the model has been filled, or fails with the error
+     * of a listener
      */
-    private void getIngredientsFromMealPlanRecipes() {
+    private Task<Void> startModelListeners() {
+        synchronized (ShoppingListController.class) {
+            if (userEmail.equals(modelUserEmail)) {
+                return modelLoad.getTask();
+            }
+            if (modelListeners != null) {
+                modelListeners.remove();
+            }
+            long generation = model.startLoad();
+            TaskCompletionSource<Void> load = new TaskCompletionSource<>();
+            // the model is filled once each listener has read its first snapshot into it
+            AtomicInteger pending = new AtomicInteger(3);
+            Runnable firstRead = () -> {
+                if (pending.decrementAndGet() == 0 && model.finishLoad(generation)) {
+                    load.trySetResult(null);
+                }
+            };
+
+            ListenerRegistration storage = summary_ref.addSnapshotListener(BACKGROUND,
+                    storageListener(generation, load, firstRead));
+            ListenerRegistration mealPlans = mealplan_cr.addSnapshotListener(BACKGROUND,
+                    collectionListener(generation, model.mealPlans(), this::mealPlanOf, load, firstRead));
+            ListenerRegistration recipes = recipe_cr.addSnapshotListener(BACKGROUND,
+                    collectionListener(generation, recipeModel(), this::recipeOf, load, firstRead));
+            modelListeners = () -> {
+                storage.remove();
+                mealPlans.remove();
+                recipes.remove();
+            };
+            modelUserEmail = userEmail;
+            modelLoad = load;
+            return load.getTask();
+        }
+    }
 
-        // loop through mealplanrecipes and get all the ingredients currently in the recipe and multiply it by serving#
-        if (mealPlanRecipesDataList != null) {
-            mealPlanRecipesDataList.forEach(recipe -> {
-                Long servings = recipe.getServings();
-                String title = recipe.getTitle();
-
-                // loop through the actual recipes and look for a match
-                for (int i = 0; i < recipeItemsDataList.size(); i++) {
-                    if (recipeItemsDataList.get(i).getTitle().equalsIgnoreCase(title)) {
-                        // found a match -> get all ingredients in the recipe
-                        ArrayList<Ingredient> ingredients = recipeItemsDataList.get(i).getIngredients();
-
-                        // add each ingredient to the mealPlanItemsDataList with the correct serving
-                        if (ingredients != null) {
-                            for (int j = 0; j < ingredients.size(); j++) {
-                                Ingredient ingredient = ingredients.get(j);
-                                mealPlanItemsDataList.add(new ShoppingItem(
-                                        ingredient.getName(),
-                                        ingredient.getAmount() * servings.doubleValue(),
-                                        ingredient.getUnit(),
-                                        ingredient.getCategory()
-                                ));
-                            }
-                        }
+    /**
+     * Stops the listeners after one of them failed, so they are started again the next time the
+     * shopping list is opened
+     * @param load {@link TaskCompletionSource} of the listeners that failed
+     * @param e {@link Exception} the error of the listener
+     */
+    private static void stopModelListeners(TaskCompletionSource<Void> load, Exception e) {
+        Log.w("ShoppingList", "Could not listen to the shopping list", e);
+        load.trySetException(e);
+        synchronized (ShoppingListController.class) {
+            if (modelLoad == load) {
+                modelListeners.remove();
+                modelListeners = null;
+                modelUserEmail = null;
+            }
+        }
+    }
+
+    /**
+     * Calls the handler of the shopping list on the main thread, after the model changed
+     */
+    private static void notifyModelChanged() {
+        TaskExecutors.MAIN_THREAD.execute(() -> {
+            DocumentChangeListener.changeHandler handler;
+            synchronized (ShoppingListController.class) {
+                handler = modelHandler;
+            }
+            if (handler != null) {
+                handler.f();
+            }
+        });
+    }
+
+    /**
+     * Makes the listener that applies the documents of a collection that changed to the model
+     * @param generation {@link Long} the generation of the model the listener fills
+     * @param collection {@link DocumentCollection} the part of the model the documents go in
+     * @param parser {@link DocumentChangeListener.documentParser} makes the item of a document
+     * @param load {@link TaskCompletionSource} failed if the listener fails
+     * @param firstRead {@link Runnable} called once the first snapshot has been read
+     * @return The {@link EventListener} for the collection
+     */
+    private <T> EventListener<QuerySnapshot> collectionListener(long generation, DocumentCollection<T> collection,
+                                                                DocumentChangeListener.documentParser<T> parser,
+                                                                TaskCompletionSource<Void> load, Runnable firstRead) {
+        AtomicBoolean read = new AtomicBoolean();
+        DocumentChangeListener<T> listener = new DocumentChangeListener<>(ifCurrent(generation, collection), parser, () -> {
+            if (read.compareAndSet(false, true)) {
+                firstRead.run();
+            }
+            notifyModelChanged();
+        });
+        return (value, error) -> {
+            if (error != null) {
+                stopModelListeners(load, error);
+                return;
+            }
+            listener.onEvent(value, null);
+        };
+    }
+
+    /**
+     * Makes the listener that applies the user's {@link PantrySummary} to the model each time it
+     * changes, which includes the edits made on this device as soon as they are written locally.
+     * A summary that is missing or not consistent is made again from every ingredient, and the
+     * first summary read from the server is checked against the number of ingredients, which
+     * Firebase counts without reading them. The model uses the totals of every ingredient until
+     * the summary that is made again is saved.
+     * @param generation {@link Long} the generation of the model the listener fills
+     * @param load {@link TaskCompletionSource} failed if the listener fails
+     * @param firstRead {@link Runnable} called once the first summary has been read
+     * @return The {@link EventListener} for the summary
+     */
+    private EventListener<DocumentSnapshot> storageListener(long generation, TaskCompletionSource<Void> load,
+                                                            Runnable firstRead) {
+        AtomicBoolean read = new AtomicBoolean();
+        AtomicBoolean counted = new AtomicBoolean();
+        AtomicBoolean rebuilding = new AtomicBoolean();
+        Consumer<PantrySummary> storage = summary -> {
+            readIfCurrent(generation, () -> model.setStorage(summary));
+            if (read.compareAndSet(false, true)) {
+                firstRead.run();
+            }
+            notifyModelChanged();
+        };
+        return (doc, error) -> {
+            if (error != null) {
+                stopModelListeners(load, error);
+                return;
+            }
+            PantrySummary summary = PantrySummary.fromMap(doc.getData());
+            if (!doc.exists() || !summary.isConsistent()) {
+                rebuildPantrySummary(doc.getData(), rebuilding).addOnSuccessListener(BACKGROUND, storage::accept);
+                return;
+            }
+            storage.accept(summary);
+            // the ingredients can only be counted online, and edits that are not saved yet are not counted
+            if (!doc.getMetadata().isFromCache() && !doc.getMetadata().hasPendingWrites()
+                    && counted.compareAndSet(false, true)) {
+                ingredient_cr.count().get(AggregateSource.SERVER).addOnSuccessListener(BACKGROUND, count -> {
+                    if (count.getCount() != summary.getIngredientCount()) {
+                        rebuildPantrySummary(doc.getData(), rebuilding).addOnSuccessListener(BACKGROUND, storage::accept);
                     }
-                }
-            });
+                });
+            }
+        };
+    }
+
+    /**
+     * Gets the part of the model the recipes go in, which also keeps the shared
+     * {@link RecipeExpansionIndex} up to date
+     * @return {@link DocumentCollection} that adds and removes recipes
+     */
+    private DocumentCollection<Recipe> recipeModel() {
+        DocumentCollection<Recipe> recipes = model.recipes();
+        return new DocumentCollection<Recipe>() {
+            @Override
+            public void put(String id, Recipe recipe) {
+                recipes.put(id, recipe);
+                expansionIndex.putRecipe(recipe);
+            }
+
+            @Override
+            public Recipe remove(String id) {
+                expansionIndex.removeRecipe(id);
+                return recipes.remove(id);
+            }
+        };
+    }
+
+    /**
+     * Wraps a part of the model, so the documents of listeners that were replaced are dropped
+     * @param generation {@link Long} the generation of the model the listener fills
+     * @param collection {@link DocumentCollection} the part of the model
+     * @return {@link DocumentCollection} that only changes the model while the generation is current
+     */
+    private <T> DocumentCollection<T> ifCurrent(long generation, DocumentCollection<T> collection) {
+        return new DocumentCollection<T>() {
+            @Override
+            public void put(String id, T item) {
+                readIfCurrent(generation, () -> collection.put(id, item));
+            }
+
+            @Override
+            public T remove(String id) {
+                readIfCurrent(generation, () -> collection.remove(id));
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Reads documents into the shared {@link ShoppingListModel}, unless the listeners they were
+     * read by were replaced. The model is locked while they are read, so it can't be emptied
+     * halfway through.
+     * @param generation {@link Long} the generation of the model the listener fills
+     * @param read {@link Runnable} that reads the documents into the model
+     */
+    private void readIfCurrent(long generation, Runnable read) {
+        synchronized (model) {
+            if (model.isCurrentLoad(generation)) {
+                read.run();
+            }
+        }
+    }
+
+    /**
+     * Reads the shopping list that was saved the last time it was loaded for the current user,
+     * so it can be shown while the up to date one is loaded
+     * @param directory {@link File} the directory the shopping list is saved in
+     * @return {@link Task} that completes with the saved {@link ShoppingListResult}, or with null if
+     * there is none
+     */
+    public Task<ShoppingListResult> readSnapshot(File directory) {
+        if (userEmail == null) {
+            return Tasks.forResult(null);
+        }
+        ShoppingListSnapshotStore store = new ShoppingListSnapshotStore(directory, collectionName, userEmail);
+        return Tasks.call(BACKGROUND, store::read);
+    }
+
+    /**
+     * Saves a shopping list for the current user on a background thread, so it can be shown the
+     * next time the shopping list is opened. A shopping list limited to a horizon is not saved,
+     * because the shopping list always opens with every meal plan.
+     * @param directory {@link File} the directory to save the shopping list in
+     * @param result {@link ShoppingListResult} the shopping list to save
+     */
+    public void saveSnapshot(File directory, ShoppingListResult result) {
+        if (userEmail == null || model.hasHorizon()) {
+            return;
         }
+        ShoppingListSnapshotStore store = new ShoppingListSnapshotStore(directory, collectionName, userEmail);
+        BACKGROUND.execute(() -> {
+            try {
+                store.write(result);
+            } catch (IOException e) {
+                Log.w("ShoppingList", "Could not save the shopping list", e);
+            }
+        });
+    }
+
+    /**
+     * Checks if the shared {@link ShoppingListModel} has been filled by a complete read and kept
+     * up to date since, so the shopping list can be shown without reading Firebase again
+     * @return true if the model can be used, false otherwise
+     */
+    public boolean isModelLoaded() {
+        return model.isLoaded();
+    }
+
+    /**
+     * Gets the {@link ShoppingItem} that the user needs to purchase from the shared
+     * {@link ShoppingListModel}, which only recalculates the items that changed
+     * @param s successHandler function to be called with the ArrayList of ShoppingItem
+     */
+    public void getModelShoppingItems(ShoppingListController.shoppingItemSuccessHandler s) {
+        s.f(model.getShoppingItems());
+    }
+
+    /**
+     * Limits the shopping list from the shared {@link ShoppingListModel} to the meal plans that
+     * share at least one day with a range
+     * @param startDay {@link Long} the first day of the range, as an epoch day
+     * @param endDay {@link Long} the last day of the range, as an epoch day
+     */
+    public void setHorizon(long startDay, long endDay) {
+        model.setHorizon(startDay, endDay);
+    }
+
+    /**
+     * Lets every meal plan add to the shopping list from the shared {@link ShoppingListModel}
+     */
+    public void clearHorizon() {
+        model.clearHorizon();
+    }
+
+    /**
+     * From the recipes read from Firebase -> go through all of them and check if they are in MealPlan
+     * If the recipe is in meal plan add it's Ingredient to mealPlanItemsDataList (which is the list of needed Ingredients)
+     * The ingredients of each recipe are cached by the {@link RecipeExpansionIndex}
+     */
+    private void getIngredientsFromMealPlanRecipes() {
+        expansionIndex.expand(mealPlanRecipesDataList, mealPlanItemsDataList);
     }
 
     /**
@@ -243,79 +504,149 @@ public class ShoppingListController {
      */
     public void getMealPlanItems(ShoppingListController.mealPlanSuccessHandler s) {
         mealplan_cr.get().addOnSuccessListener(queryDocumentSnapshots -> {
-            mealPlanItemsDataList = new ArrayList<>();
-            mealPlanRecipesDataList = new ArrayList<>();
-
-            // for each MealPlan read from Firebase
-            queryDocumentSnapshots.forEach(doc -> {
-                // get the Ingredients list from the MealPlan
-                ArrayList<HashMap<String, Object>> values = (ArrayList<HashMap<String, Object>>) doc.get("Ingredients");
-                if (values != null) {
-                    // if there is Ingredients then create an equivalent ShoppingItem for each
-                    for (int i = 0; i < values.size(); i++) {
-                        HashMap<String,Object> value = values.get(i);
-                        double amount = 0;
-                        try {
-                            amount = ((Long) value.get("amount")).doubleValue();
-                        } catch (Exception e) {
-                            amount = (double) value.get("amount");
-                        }
-                        ShoppingItem ingredient = new ShoppingItem(
-                                String.valueOf(value.get("name")),
-                                amount,
-                                String.valueOf(value.get("unit")),
-                                String.valueOf(value.get("category"))
-                        );
-                        mealPlanItemsDataList.add(ingredient);
-                    }
-                }
-
-                // get the Recipes list from the MealPlan
-                ArrayList<HashMap<String, Object>> recipes = (ArrayList<HashMap<String, Object>>) doc.get("Recipes");
-                if (recipes != null) {
-                    // if there is some Recipes then loop through one-by-one
-                    for (int j = 0; j < recipes.size(); j++) {
-                        HashMap<String, Object> recipe = recipes.get(j);
-                        // for each Recipe, get the list of Ingredients
-                        mealPlanRecipesDataList.add(new Recipe(
-                                String.valueOf(recipe.get("title")),
-                                null,
-                                null,
-                                null,
-                                null,
-                                (Long) recipe.get("servings"),
-                                null
-                        ));
-                    }
-                }
-            });
+            readMealPlanItems(queryDocumentSnapshots);
             s.f(mealPlanItemsDataList);
         });
     }
 
+    /**
+     * Creates a ShoppingItem for each {@link Ingredient} and a {@link Recipe} for each recipe in the
+     * {@link MealPlan} documents read from Firebase
+     * @param queryDocumentSnapshots {@link QuerySnapshot} the documents read from Firebase
+     */
+    private void readMealPlanItems(QuerySnapshot queryDocumentSnapshots) {
+        mealPlanItemsDataList = new ArrayList<>();
+        mealPlanRecipesDataList = new ArrayList<>();
+
+        // for each MealPlan read from Firebase
+        queryDocumentSnapshots.forEach(doc -> {
+            MealPlan mealPlan = mealPlanOf(doc);
+            for (Ingredient ingredient : mealPlan.getIngredients()) {
+                mealPlanItemsDataList.add(new ShoppingItem(ingredient.getName(), ingredient.getAmount(),
+                        ingredient.getUnit(), ingredient.getCategory()));
+            }
+            mealPlanRecipesDataList.addAll(mealPlan.getRecipes());
+        });
+    }
+
+    /**
+     * Makes a {@link MealPlan} from a MealPlan document read from Firebase, with the name, amount,
+     * unit and category of each {@link Ingredient}, and the title and servings of each {@link Recipe}
+     * @param doc {@link DocumentSnapshot} the document read from Firebase
+     * @return The {@link MealPlan} of the document
+     */
+    private MealPlan mealPlanOf(DocumentSnapshot doc) {
+        ArrayList<Ingredient> ingredients = new ArrayList<>();
+        // get the Ingredients list from the MealPlan
+        ArrayList<HashMap<String, Object>> values = (ArrayList<HashMap<String, Object>>) doc.get("Ingredients");
+        if (values != null) {
+            // if there is Ingredients then create an equivalent Ingredient for each
+            for (HashMap<String, Object> value : values) {
+                ingredients.add(new Ingredient(
+                        String.valueOf(value.get("name")),
+                        amountOf(value),
+                        Ingredient.NO_BEST_BEFORE,
+                        null,
+                        String.valueOf(value.get("unit")),
+                        String.valueOf(value.get("category"))
+                ));
+            }
+        }
+
+        ArrayList<Recipe> recipes = new ArrayList<>();
+        // get the Recipes list from the MealPlan
+        ArrayList<HashMap<String, Object>> recipeValues = (ArrayList<HashMap<String, Object>>) doc.get("Recipes");
+        if (recipeValues != null) {
+            // for each Recipe, only the title and servings are needed
+            for (HashMap<String, Object> recipe : recipeValues) {
+                recipes.add(new Recipe(String.valueOf(recipe.get("title")), (Long) recipe.get("servings")));
+            }
+        }
+        MealPlan mealPlan = new MealPlan(ingredients, recipes, doc.getString("Name"),
+                doc.getString("Start Date"), doc.getString("End Date"));
+        mealPlan.setId(doc.getId());
+        return mealPlan;
+    }
+
+    /**
+     * Gets the amount of an ingredient map read from Firebase, which is a {@link Long} if it has no
+     * decimals and a {@link Double} otherwise
+     * @param value {@link HashMap} the ingredient map
+     * @return The amount of the ingredient
+     */
+    private static double amountOf(HashMap<String, Object> value) {
+        return ((Number) value.get("amount")).doubleValue();
+    }
+
     /**
      * Reads all the {@link Ingredient} from Firebase and creates a ShoppingItem for each
      * @param s successHandler function to be called on success with
      *          the ArrayList of Shopping Items
      */
     public void getIngredientStorageItems(ShoppingListController.ingredientItemSuccessHandler s) {
-        ingredient_cr.get().addOnSuccessListener(queryDocumentSnapshots -> {
-            ingredientStorageItemsDataList = new ArrayList<>();
-
-            // for each Ingredient that is read -> create an equivalent (simplified) ShoppingItem
-            queryDocumentSnapshots.forEach(doc -> {
-                ShoppingItem item = new ShoppingItem(
-                        doc.getString("Name"),
-                        doc.getDouble("Amount"),
-                        doc.getString("Unit"),
-                        doc.getString("Category")
-                );
-                ingredientStorageItemsDataList.add(item);
-            });
+        readIngredientStorage().addOnSuccessListener(summary -> {
+            ingredientStorageItemsDataList = summary.getTotals();
             s.f(ingredientStorageItemsDataList);
         });
     }
 
+    /**
+     * Reads the ingredient storage from the user's {@link PantrySummary}, a single document. If the
+     * summary is missing or is not consistent, every Ingredient is read instead.
+     * @return {@link Task} that completes with the {@link PantrySummary} of the storage, on a
+     * background thread
+     */
+    private Task<PantrySummary> readIngredientStorage() {
+        return summary_ref.get().continueWithTask(BACKGROUND, task -> {
+            DocumentSnapshot doc = task.getResult();
+            PantrySummary summary = PantrySummary.fromMap(doc.getData());
+            if (doc.exists() && summary.isConsistent()) {
+                return Tasks.forResult(summary);
+            }
+            return ingredient_cr.get().continueWith(BACKGROUND, ingredients -> summaryOf(ingredients.getResult()));
+        });
+    }
+
+    /**
+     * Makes the {@link PantrySummary} of the user again from every ingredient, and saves it in place
+     * of the one that was read. It is only saved if the summary has not changed since it was read,
+     * so an edit made while the ingredients were read is not lost. Only one summary is made at a
+     * time.
+     * @param stale {@link Map} of the fields of the summary that was read, or null if there was none
+     * @param rebuilding {@link AtomicBoolean} set while the summary is made
+     * @return {@link Task} that completes with the {@link PantrySummary} made from every ingredient,
+     * whether it was saved or not, or is cancelled if a summary is already being made
+     */
+    private Task<PantrySummary> rebuildPantrySummary(Map<String, Object> stale, AtomicBoolean rebuilding) {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return Tasks.forCanceled();
+        }
+        Task<PantrySummary> rebuilt = ingredient_cr.get().continueWith(BACKGROUND, task -> summaryOf(task.getResult()));
+        rebuilt.onSuccessTask(BACKGROUND, summary -> db.runTransaction(transaction -> {
+            if (Objects.equals(transaction.get(summary_ref).getData(), stale)) {
+                transaction.set(summary_ref, summary.toMap());
+            }
+            return null;
+        })).addOnCompleteListener(BACKGROUND, task -> {
+            rebuilding.set(false);
+            if (!task.isSuccessful()) {
+                Log.w("ShoppingList", "Could not make the pantry summary again", task.getException());
+            }
+        });
+        return rebuilt;
+    }
+
+    /**
+     * Makes the {@link PantrySummary} of every {@link Ingredient} document read from Firebase
+     * @param queryDocumentSnapshots {@link QuerySnapshot} the documents read from Firebase
+     * @return The {@link PantrySummary} of the ingredients
+     */
+    private static PantrySummary summaryOf(QuerySnapshot queryDocumentSnapshots) {
+        PantrySummary summary = new PantrySummary();
+        queryDocumentSnapshots.forEach(doc -> summary.add(IngredientController.fromDocument(doc)));
+        return summary;
+    }
+
     /**
      * Reads all the {@link Recipe} from Firebase
      * @param s successHandler function to be called on success with
@@ -323,49 +654,55 @@ public class ShoppingListController {
      */
     public void getRecipeItems(ShoppingListController.recipeItemSuccessHandler s) {
         recipe_cr.get().addOnSuccessListener(queryDocumentSnapshots -> {
-            recipeItemsDataList = new ArrayList<>();
-
-            // for each Recipe that is read
-            queryDocumentSnapshots.forEach(doc -> {
-                String id = doc.getId();
-                ArrayList<Ingredient> ingredients = new ArrayList<>();
-                // get the Ingredients for that recipe
-                ArrayList<HashMap<String, Object>> recipeIngredients = (ArrayList<HashMap<String, Object>>) doc.get("Ingredients");
-                if (recipeIngredients != null) {
-                    // for each ingredient read from the recipe -> created an Ingredient Object
-                    for (int i = 0; i < recipeIngredients.size(); i++) {
-                        HashMap<String, Object> rIngredient = recipeIngredients.get(i);
-                        double amount = 0;
-                        try {
-                            amount = ((Long) rIngredient.get("amount")).doubleValue();
-                        } catch (Exception e) {
-                            amount = (double) rIngredient.get("amount");
-                        }
-                        Ingredient ingredient = new Ingredient(
-                                String.valueOf(rIngredient.get("name")),
-                                amount,
-                                String.valueOf(rIngredient.get("bbd")),
-                                String.valueOf(rIngredient.get("location")),
-                                String.valueOf(rIngredient.get("unit")),
-                                String.valueOf(rIngredient.get("category"))
-                        );
-                        ingredients.add(ingredient);
-                    }
-                }
-                // create a Recipe object for each recipe read from Firebase
-                Recipe recipe = new Recipe(
-                        doc.getString("Title"),
-                        doc.getString("Category"),
-                        doc.getString("Comments"),
-                        doc.getString("Photo"),
-                        doc.get("PrepTime", Long.class),
-                        doc.get("Servings", Long.class),
-                        ingredients
-                );
-                recipe.setId(id);
-                recipeItemsDataList.add(recipe);
-            });
+            readRecipeItems(queryDocumentSnapshots);
             s.r(recipeItemsDataList);
         });
     }
+
+    /**
+     * Creates a {@link Recipe} for each Recipe document read from Firebase
+     * @param queryDocumentSnapshots {@link QuerySnapshot} the documents read from Firebase
+     */
+    private void readRecipeItems(QuerySnapshot queryDocumentSnapshots) {
+        recipeItemsDataList = new ArrayList<>();
+        // for each Recipe that is read
+        queryDocumentSnapshots.forEach(doc -> recipeItemsDataList.add(recipeOf(doc)));
+    }
+
+    /**
+     * Makes a {@link Recipe} from a Recipe document read from Firebase
+     * @param doc {@link DocumentSnapshot} the document read from Firebase
+     * @return The {@link Recipe} of the document
+     */
+    private Recipe recipeOf(DocumentSnapshot doc) {
+        ArrayList<Ingredient> ingredients = new ArrayList<>();
+        // get the Ingredients for that recipe
+        ArrayList<HashMap<String, Object>> recipeIngredients = (ArrayList<HashMap<String, Object>>) doc.get("Ingredients");
+        if (recipeIngredients != null) {
+            // for each ingredient read from the recipe -> created an Ingredient Object
+            for (HashMap<String, Object> rIngredient : recipeIngredients) {
+                Ingredient ingredient = new Ingredient(
+                        String.valueOf(rIngredient.get("name")),
+                        amountOf(rIngredient),
+                        String.valueOf(rIngredient.get("bbd")),
+                        String.valueOf(rIngredient.get("location")),
+                        String.valueOf(rIngredient.get("unit")),
+                        String.valueOf(rIngredient.get("category"))
+                );
+                ingredients.add(ingredient);
+            }
+        }
+        // create a Recipe object for each recipe read from Firebase
+        Recipe recipe = new Recipe(
+                doc.getString("Title"),
+                doc.getString("Category"),
+                doc.getString("Comments"),
+                doc.getString("Photo"),
+                doc.get("PrepTime", Long.class),
+                doc.get("Servings", Long.class),
+                ingredients
+        );
+        recipe.setId(doc.getId());
+        return recipe;
+    }
 }
@@ -1,22 +1,28 @@
 package com.example.a301project;
 
+import android.app.DatePickerDialog;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
 import android.widget.CompoundButton;
-import android.widget.ListView;
 import android.widget.Spinner;
 import android.widget.Switch;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.constraintlayout.widget.ConstraintLayout;
 import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.airbnb.lottie.LottieAnimationView;
+import com.google.firebase.firestore.ListenerRegistration;
 
+import java.io.File;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collections;
 
@@ -29,22 +35,25 @@ import java.util.Collections;
  *  @return void
  */
 public class ShoppingListFragment extends Fragment implements ShoppingListAdapter.ShoppingListAdapterListener, AddEditIngredientFragment.OnFragmentInteractionListener,
-    ShoppingListController.ingredientItemSuccessHandler, ShoppingListController.shoppingItemSuccessHandler, ShoppingListController.mealPlanSuccessHandler,
-    ShoppingListController.recipeItemSuccessHandler {
+    ShoppingListController.shoppingItemSuccessHandler {
+    private static final long LOAD_TIMEOUT_MILLIS = 20000;
 
-    private ArrayAdapter<ShoppingItem> shoppingListArrayAdapter;
+    private ShoppingListAdapter shoppingListArrayAdapter;
     private ArrayList<ShoppingItem> shoppingItemDataList;
     private final ShoppingListController controller = new ShoppingListController();
-    private ListView shoppingListView;
-    private final String[] sortOptions = {"Name", "Category"};
+    private RecyclerView shoppingListView;
+    private final String[] sortOptions = {ListSorting.NAME, ListSorting.CATEGORY};
+    private final String[] horizonOptions = {"All Meal Plans", "Next 7 Days", "Next 30 Days", "Custom Range"};
+    private Spinner horizonSpinner;
     private Spinner sortSpinner;
     private Switch sortSwitch;
     private IngredientController ingredientController;
-    private int selectedShoppingItem;
-    private int listCount;
+    private ShoppingItem selectedShoppingItem;
     private ConstraintLayout shoppingSort;
     private LottieAnimationView shoppingAnimation;
     private TextView emptyShoppingListText;
+    private ShoppingListResult shownResult;
+    private ListenerRegistration registration;
 
 
     public ShoppingListFragment() {
@@ -61,9 +70,7 @@ public class ShoppingListFragment extends Fragment implements ShoppingListAdapte
         super.onCreate(savedInstanceState);
         getActivity().setTitle("My Shopping List");
 
-        // used when reading data from firebase
-        listCount = 0;
-        selectedShoppingItem = -1;
+        selectedShoppingItem = null;
         ingredientController = new IngredientController();
 
         // get the layout item
@@ -76,16 +83,11 @@ public class ShoppingListFragment extends Fragment implements ShoppingListAdapte
         ViewGroup content = view.findViewById(R.id.nav_content);
         getLayoutInflater().inflate(R.layout.activity_shopping_list, content, true);
 
-        // Fetch the data -> get the Ingredients from both the Storage and the MealPlan -> used to calculate shopping list items
-        controller.getIngredientStorageItems(this);
-        controller.getMealPlanItems(this);
-        controller.getRecipeItems(this);
-
         // Attach to shoppingListView
         shoppingItemDataList = new ArrayList<>();
-        shoppingListArrayAdapter = new ShoppingListAdapter(getContext(), shoppingItemDataList, ShoppingListFragment.this);
+        shoppingListArrayAdapter = new ShoppingListAdapter(ShoppingListFragment.this);
         shoppingListView= view.findViewById(R.id.shoppingItemListView);
-        shoppingListView.setAdapter(shoppingListArrayAdapter);
+        shoppingListArrayAdapter.attachTo(shoppingListView);
 
         // Setup sorting
         sortSpinner = view.findViewById(R.id.shoppingSortSpinner);
@@ -130,6 +132,122 @@ public class ShoppingListFragment extends Fragment implements ShoppingListAdapte
             }
         });
         sortDataBySpinner();
+
+        // Setup the shopping horizon
+        horizonSpinner = view.findViewById(R.id.shoppingHorizonSpinner);
+        ArrayAdapter<String> horizonAdapter = new ArrayAdapter<>(getContext(), com.google.android.material.R.layout.support_simple_spinner_dropdown_item, horizonOptions);
+        horizonSpinner.setAdapter(horizonAdapter);
+        horizonSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            /**
+             * Method invoked when a shopping horizon is selected
+             * @param adapterView {@link AdapterView} the AdapterView where the selection happened
+             * @param view {@link View} the view that was clicked
+             * @param i {@link Integer} position of the view in the adapter
+             * @param l {@link Long} the row ID of the item that was selected
+             */
+            @Override
+            public void onItemSelected(AdapterView<?> adapterView, View view, int i, long l) {
+                long today = DateUtils.today();
+                if (i == 0) {
+                    controller.clearHorizon();
+                } else if (i == 1) {
+                    controller.setHorizon(today, today + 6);
+                } else if (i == 2) {
+                    controller.setHorizon(today, today + 29);
+                } else {
+                    pickCustomHorizon();
+                    return;
+                }
+                refreshShoppingList();
+            }
+
+            /**
+             * Method for when no spinner item is selected
+             * @param adapterView {@link AdapterView} the AdapterView where the selection happened
+             */
+            @Override
+            public void onNothingSelected(AdapterView<?> adapterView) {
+                // nothing happens
+            }
+        });
+
+        // the list is shown once the sorting views are set up, since it is sorted when it is shown
+        File snapshotDirectory = requireContext().getFilesDir();
+        shownResult = null;
+        if (controller.isModelLoaded()) {
+            // the shopping list kept up to date by the listeners is shown straight away
+            refreshShoppingList();
+        } else {
+            // show the shopping list saved last time straight away, unless the new one is already here
+            controller.readSnapshot(snapshotDirectory)
+                    .addOnSuccessListener(requireActivity(), snapshot -> {
+                        if (snapshot != null && shownResult == null && getView() != null) {
+                            shownResult = snapshot;
+                            f(snapshot.copyItems());
+                        }
+                    });
+
+            // Fetch the data -> get the Ingredients from both the Storage and the MealPlan -> used to calculate shopping list items
+            controller.loadShoppingList(LOAD_TIMEOUT_MILLIS)
+                    .addOnSuccessListener(requireActivity(), result -> refreshShoppingList())
+                    .addOnFailureListener(requireActivity(), e -> {
+                        Log.w("ShoppingList", "Could not load the shopping list", e);
+                        if (getView() != null) {
+                            Toast.makeText(getContext(), "Could not load the shopping list", Toast.LENGTH_LONG).show();
+                        }
+                    });
+        }
+        // show the changes made on this device or on other devices while the shopping list is open
+        registration = controller.listenForModel(this::refreshShoppingList);
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+    }
+
+    /**
+     * Asks the user for the first and last day of the shopping horizon, then shows the shopping
+     * list for the meal plans in that range
+     */
+    private void pickCustomHorizon() {
+        LocalDate today = LocalDate.now();
+        DatePickerDialog startPicker = new DatePickerDialog(getContext(), (startView, startYear, startMonth, startDay) -> {
+            LocalDate start = LocalDate.of(startYear, startMonth + 1, startDay);
+            DatePickerDialog endPicker = new DatePickerDialog(getContext(), (endView, endYear, endMonth, endDay) -> {
+                LocalDate end = LocalDate.of(endYear, endMonth + 1, endDay);
+                controller.setHorizon(start.toEpochDay(), Math.max(start.toEpochDay(), end.toEpochDay()));
+                refreshShoppingList();
+            }, start.getYear(), start.getMonthValue() - 1, start.getDayOfMonth());
+            endPicker.setTitle("Last Day");
+            endPicker.show();
+        }, today.getYear(), today.getMonthValue() - 1, today.getDayOfMonth());
+        startPicker.setTitle("First Day");
+        startPicker.show();
+    }
+
+    /**
+     * Shows the shopping list again from the shared {@link ShoppingListModel}, after the model or
+     * the shopping horizon changed. The list is only swapped in if it is different from the one
+     * shown. If the model is still being read from Firebase, the new horizon is used when it is done.
+     */
+    private void refreshShoppingList() {
+        if (getView() == null || !controller.isModelLoaded()) {
+            return;
+        }
+        controller.getModelShoppingItems(items -> {
+            ShoppingListResult result = new ShoppingListResult(items);
+            if (result.equals(shownResult)) {
+                return;
+            }
+            shownResult = result;
+            f(result.copyItems());
+            controller.saveSnapshot(requireContext().getFilesDir(), result);
+        });
     }
 
     /**
@@ -142,21 +260,25 @@ public class ShoppingListFragment extends Fragment implements ShoppingListAdapte
         sortSpinner = getView().findViewById(R.id.shoppingSortSpinner);
         sortSwitch = getView().findViewById(R.id.shoppingSortSwitch);
 
-        String sortBy = sortSpinner.getSelectedItem().toString();
-        int asc = sortSwitch.isChecked() ? 1 : -1;
+        // the spinner has nothing selected until its adapter is set
+        Object selected = sortSpinner.getSelectedItem();
+        String sortBy = selected == null ? sortOptions[0] : selected.toString();
 
         // determine which sort option was selected, then sort them in ascending or descending order
-        // ascending or descending is based on the asc variable
-        Collections.sort(shoppingItemDataList, (ShoppingItem s1, ShoppingItem s2) -> {
-                    if (sortBy.equals(sortOptions[0])) {
-                        return asc * s1.getName().toLowerCase().compareTo(s2.getName().toLowerCase());
-                    } else {
-                        return asc * s1.getCategory().toLowerCase().compareTo(s2.getCategory().toLowerCase());
-                    }
-                }
-        );
-        // notify the list adapter that the order of the data has changed
-        shoppingListArrayAdapter.notifyDataSetChanged();
+        // ascending or descending is based on the sort switch
+        Collections.sort(shoppingItemDataList, ListSorting.shoppingItemComparator(sortBy, sortSwitch.isChecked()));
+        // give the list adapter the data in its new order
+        shoppingListArrayAdapter.submit(shoppingItemDataList);
+    }
+
+    /**
+     * Called when an ingredient is deleted from the AddEditIngredientFragment. Ingredients added
+     * from the shopping list are new, so they can't be deleted here.
+     * @param currentIngredient The ingredient that was deleted
+     */
+    @Override
+    public void onDeleteConfirmed(Ingredient currentIngredient) {
+        // nothing happens
     }
 
     /**
@@ -170,13 +292,13 @@ public class ShoppingListFragment extends Fragment implements ShoppingListAdapte
         // add the ingredient and remove from shopping list
         ingredientController.addIngredient(currentIngredient);
 
-        if (selectedShoppingItem >= 0) {
+        if (selectedShoppingItem != null) {
             // check if that amount of the ingredient purchased >= amount needed
-            ShoppingItem shoppingItem =  shoppingListArrayAdapter.getItem(selectedShoppingItem);
+            ShoppingItem shoppingItem = selectedShoppingItem;
             double amountNeeded = shoppingItem.getAmount();
             if (currentIngredient.getAmount() >= amountNeeded) {
                 // purchased enough -> remove ingredient from shopping list
-                shoppingItemDataList.remove(selectedShoppingItem);
+                shoppingItemDataList.remove(shoppingItem);
                 if (shoppingItemDataList.size() == 0) {
                     shoppingSort.setVisibility(View.GONE);
                     shoppingListView.setVisibility(View.GONE);
@@ -186,22 +308,21 @@ public class ShoppingListFragment extends Fragment implements ShoppingListAdapte
             } else {
                 // update amount needed to purchase
                 shoppingItem.setAmount(amountNeeded - currentIngredient.getAmount());
-                shoppingItemDataList.set(selectedShoppingItem, shoppingItem);
             }
-            shoppingListArrayAdapter.notifyDataSetChanged();
-            selectedShoppingItem = -1;
+            shoppingListArrayAdapter.submit(shoppingItemDataList);
+            selectedShoppingItem = null;
         }
     }
 
     /**
      * Called when the "purchased" button is pressed on one of the shopping items in the listview
-     * @param position The position of the {@link ShoppingItem} in the {@link ArrayAdapter} shoppingItemArrayAdapter
+     * @param position The position of the {@link ShoppingItem} in the {@link ShoppingListAdapter} shoppingListArrayAdapter
      */
     @Override
     public void onButtonPressed(int position) {
         // one of the shopping list items was checked
-        selectedShoppingItem = position;
         ShoppingItem shoppingItem = shoppingListArrayAdapter.getItem(position);
+        selectedShoppingItem = shoppingItem;
         Ingredient selected = new Ingredient(
                 shoppingItem.getName(),
                 shoppingItem.getAmount(),
@@ -216,33 +337,24 @@ public class ShoppingListFragment extends Fragment implements ShoppingListAdapte
     }
 
     /**
-     * Called when the {@link ShoppingListController} is done reading a list from Firebase
-     * After both Ingredients and MealPlan are done being read from Firebase, then
-     * this method calls the {@link ShoppingListController} to calculate the items for the
-     * shopping list
-     * @param r The ArrayList of {@link ShoppingItem} that was read from Firebase
+     * Shows the calculated shopping list on the screen
+     * @param r {@link ArrayList} of {@link ShoppingItem} that the user needs to purchase
      */
     @Override
     public void f(ArrayList<ShoppingItem> r) {
-        listCount++;
-        // after both Ingredients and MealPlan and Recipes have been read from Firebase
-        if (listCount == 3) {
-            controller.getShoppingItems(this);
-        } else if (listCount == 4) {
-            // this adds the calculated ShoppingItem ArrayList to the list to display on the screen
-            shoppingItemDataList.addAll(r);
-            shoppingListArrayAdapter.notifyDataSetChanged();
-            if (r.size()>0) {
-                shoppingSort.setVisibility(View.VISIBLE);
-                shoppingListView.setVisibility(View.VISIBLE);
-                shoppingAnimation.setVisibility(View.GONE);
-                emptyShoppingListText.setVisibility(View.GONE);
-            }
+        shoppingItemDataList.clear();
+        shoppingItemDataList.addAll(r);
+        sortDataBySpinner();
+        if (r.size()>0) {
+            shoppingSort.setVisibility(View.VISIBLE);
+            shoppingListView.setVisibility(View.VISIBLE);
+            shoppingAnimation.setVisibility(View.GONE);
+            emptyShoppingListText.setVisibility(View.GONE);
+        } else {
+            shoppingSort.setVisibility(View.GONE);
+            shoppingListView.setVisibility(View.GONE);
+            shoppingAnimation.setVisibility(View.VISIBLE);
+            emptyShoppingListText.setVisibility(View.VISIBLE);
         }
     }
-
-    @Override
-    public void r(ArrayList<Recipe> r) {
-        f(null);
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,83 @@
+package com.example.a301project;
+
+import android.content.Context;
+import android.widget.ArrayAdapter;
+import android.widget.Filter;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * This class is the adapter of an AutoCompleteTextView that suggests names from a
+ * {@link TrigramIndex}, instead of only the names that start with what the user typed. The names
+ * are looked up on the background thread of the filter.
+ */
+public class SuggestionAdapter extends ArrayAdapter<String> {
+    private static final int MAX_SUGGESTIONS = 10;
+
+    private final TrigramIndex index;
+    private final HashSet<String> excludedKeys = new HashSet<>();
+    private final Filter filter = new Filter() {
+        /**
+         * Finds the names that match what the user typed
+         * @param constraint {@link CharSequence} what the user typed
+         * @return {@link FilterResults} holding the suggested names
+         */
+        @Override
+        protected FilterResults performFiltering(CharSequence constraint) {
+            ArrayList<String> suggestions = constraint == null
+                    ? new ArrayList<>()
+                    : index.suggest(constraint.toString(), MAX_SUGGESTIONS, excludedSnapshot());
+            FilterResults results = new FilterResults();
+            results.values = suggestions;
+            results.count = suggestions.size();
+            return results;
+        }
+
+        /**
+         * Shows the suggested names
+         * @param constraint {@link CharSequence} what the user typed
+         * @param results {@link FilterResults} the suggested names
+         */
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void publishResults(CharSequence constraint, FilterResults results) {
+            clear();
+            if (results.values != null) {
+                addAll((List<String>) results.values);
+            }
+            notifyDataSetChanged();
+        }
+    };
+
+    /**
+     * Makes an adapter that suggests names from an index
+     * @param context {@link Context} the context of the view
+     * @param index {@link TrigramIndex} the names to suggest
+     */
+    public SuggestionAdapter(Context context, TrigramIndex index) {
+        super(context, android.R.layout.simple_dropdown_item_1line, new ArrayList<>());
+        this.index = index;
+    }
+
+    /**
+     * Stops suggesting a name, for example because it has already been added
+     * @param name {@link String} the name not to suggest
+     */
+    public synchronized void exclude(String name) {
+        excludedKeys.add(TrigramIndex.keyOf(name));
+    }
+
+    private synchronized HashSet<String> excludedSnapshot() {
+        return new HashSet<>(excludedKeys);
+    }
+
+    @NonNull
+    @Override
+    public Filter getFilter() {
+        return filter;
+    }
+}
@@ -1,29 +1,36 @@
 package com.example.a301project;
 
 import static org.junit.Assert.assertEquals;
-import static org.mockito.ArgumentMatchers.any;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.android.gms.tasks.OnSuccessListener;
-import com.google.android.gms.tasks.Task;
 import com.google.firebase.Timestamp;
 import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Transaction;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
@@ -35,7 +42,9 @@ import java.util.function.Consumer;
 @SuppressWarnings("SpellCheckingInspection")
 public class IngredientControllerTest {
     private IngredientController controller;
+    private FirebaseFirestore mockFirestore;
     private CollectionReference mockCollectionRef;
+    private Transaction mockTransaction;
 
     private Ingredient mockIngredient() {
         return new Ingredient("Carrot",3,"2022-11-30","Pantry","lbs","Vegetable");
@@ -44,13 +53,13 @@ public class IngredientControllerTest {
     @Before
     public void setUp() {
         // Add our mock classes
-        FirebaseFirestore mockFirestore = mock(FirebaseFirestore.class);
+        mockFirestore = mock(FirebaseFirestore.class, RETURNS_DEEP_STUBS);
         mockCollectionRef = mock(CollectionReference.class, RETURNS_DEEP_STUBS);
 
         when(mockFirestore.collection(anyString()))
                 .thenReturn(mockCollectionRef);
 
-        this.controller = new IngredientController(mockFirestore);
+        this.controller = new IngredientController(mockFirestore, "test@example.com");
     }
 
     @Test
@@ -67,6 +76,38 @@ public class IngredientControllerTest {
         assertEquals(controller.getCollectionReference(), mockCollectionRef);
     }
 
+    /**
+     * Runs the transaction that writes an ingredient, where the ingredient is read as it was
+     * @param id {@link String} the ID of the ingredient
+     * @param before {@link DocumentSnapshot} the ingredient as it was read
+     */
+    @SuppressWarnings("unchecked")
+    private void readBefore(String id, DocumentSnapshot before) throws Exception {
+        ArgumentCaptor<Transaction.Function<PantrySummary>> writeCaptor = ArgumentCaptor.forClass(Transaction.Function.class);
+        verify(mockFirestore).runTransaction(writeCaptor.capture());
+        mockTransaction = mock(Transaction.class);
+        DocumentReference documentReference = mockCollectionRef.document(id);
+        when(mockTransaction.get(documentReference)).thenReturn(before);
+        writeCaptor.getValue().apply(mockTransaction);
+    }
+
+    /**
+     * Makes the document of an ingredient as it is read from Firebase
+     * @param ingredient {@link Ingredient} the ingredient
+     * @return The mock {@link DocumentSnapshot}
+     */
+    private DocumentSnapshot documentOf(Ingredient ingredient) {
+        DocumentSnapshot doc = mock(DocumentSnapshot.class);
+        when(doc.exists()).thenReturn(true);
+        when(doc.getId()).thenReturn(ingredient.getId());
+        when(doc.getString("Name")).thenReturn(ingredient.getName());
+        when(doc.getDouble("Amount")).thenReturn(ingredient.getAmount());
+        when(doc.getString("Unit")).thenReturn(ingredient.getUnit());
+        when(doc.getString("Category")).thenReturn(ingredient.getCategory());
+        when(doc.getString("Location")).thenReturn(ingredient.getLocation());
+        return doc;
+    }
+
     @Test
     public void testAddIngredient() {
         // Create a mock ingredient
@@ -77,9 +118,10 @@ public class IngredientControllerTest {
 
         // Capture the data value
         ArgumentCaptor<Map<String, Object>> dataCaptor = ArgumentCaptor.forClass(Map.class);
+        DocumentReference added = mockCollectionRef.document();
 
-        verify(mockCollectionRef)
-                .add(dataCaptor.capture());
+        verify(mockFirestore.batch())
+                .set(eq(added), dataCaptor.capture());
         Map<String, Object> data = dataCaptor.getValue();
 
         // Make sure the correct data was passed
@@ -92,21 +134,23 @@ public class IngredientControllerTest {
     }
 
     @Test
-    public void testRemoveIngredient() {
+    public void testRemoveIngredient() throws Exception {
         Ingredient i = mockIngredient();
         i.setId("TEST_ID");
 
         // add, then remove ingredient
         controller.addIngredient(i);
         controller.removeIngredient(i);
+        readBefore(i.getId(), documentOf(i));
 
         // verify delete was called with the correct ID
         assertEquals(i.getId(), "TEST_ID");
-        verify(mockCollectionRef.document(i.getId())).delete();
+        DocumentReference removed = mockCollectionRef.document(i.getId());
+        verify(mockTransaction).delete(removed);
     }
 
     @Test
-    public void testNotifyUpdate() {
+    public void testNotifyUpdate() throws Exception {
         Ingredient i = mockIngredient();
         i.setId("TEST_ID");
         controller.addIngredient(i);
@@ -114,10 +158,12 @@ public class IngredientControllerTest {
         u.setId("TEST_ID");
 
         controller.notifyUpdate(u);
+        readBefore(i.getId(), documentOf(i));
 
         ArgumentCaptor<Map<String, Object>> dataCaptor = ArgumentCaptor.forClass(Map.class);
+        DocumentReference updated = mockCollectionRef.document(i.getId());
 
-        verify(mockCollectionRef.document(i.getId())).update(dataCaptor.capture());
+        verify(mockTransaction).update(eq(updated), dataCaptor.capture());
 
         Map<String, Object> updatedIngredient = dataCaptor.getValue();
 
@@ -130,4 +176,71 @@ public class IngredientControllerTest {
         assertEquals("lbs", updatedIngredient.get("Unit"));
         assertEquals("Cupboard", updatedIngredient.get("Location"));
     }
+
+    @Test
+    public void testPageQuery() {
+        DocumentSnapshot last = mock(DocumentSnapshot.class);
+
+        // the first page is only ordered and limited
+        controller.pageQuery(ListSorting.EXPIRY, false, 25, null);
+        verify(mockCollectionRef).orderBy("BestBeforeDate", Query.Direction.DESCENDING);
+        verify(mockCollectionRef.orderBy("BestBeforeDate", Query.Direction.DESCENDING)).limit(25);
+
+        // the next pages start after the last document of the previous page
+        controller.pageQuery(ListSorting.NAME, true, 25, last);
+        Query ordered = mockCollectionRef.orderBy("Name", Query.Direction.ASCENDING);
+        verify(ordered).startAfter(last);
+        verify(ordered.startAfter(last)).limit(25);
+    }
+
+    @Test
+    public void testExpiringQueries() {
+        long day = LocalDate.of(2022, 12, 9).toEpochDay();
+        Timestamp start = IngredientController.convertStringToTimestamp("2022-12-09");
+        Timestamp end = IngredientController.convertStringToTimestamp("2022-12-12");
+
+        // the filter and the order are left to Firebase
+        controller.expiringBeforeQuery(day, 20);
+        verify(mockCollectionRef).whereLessThan("BestBeforeDate", start);
+        Query before = mockCollectionRef.whereLessThan("BestBeforeDate", start);
+        verify(before).orderBy("BestBeforeDate");
+        verify(before.orderBy("BestBeforeDate")).limit(20);
+
+        // the last day is included
+        controller.expiringBetweenQuery(day, day + 2, 20);
+        Query after = mockCollectionRef.whereGreaterThanOrEqualTo("BestBeforeDate", start);
+        verify(after).whereLessThan("BestBeforeDate", end);
+        verify(after.whereLessThan("BestBeforeDate", end).orderBy("BestBeforeDate")).limit(20);
+
+        // an ingredient that is best before today has not expired
+        controller.expiredQuery(day, 5);
+        verify(before.orderBy("BestBeforeDate")).limit(5);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSummaryIncrements() throws Exception {
+        Ingredient i = mockIngredient();
+        i.setId("TEST_ID");
+        Ingredient u = new Ingredient("Carrot", 5, "2022-11-30", "Fridge", "lbs", "Vegetable");
+        u.setId("TEST_ID");
+
+        // the summary is changed by what the edit changed, in the same transaction as the ingredient
+        controller.notifyUpdate(u);
+        readBefore(i.getId(), documentOf(i));
+
+        ArgumentCaptor<Map<String, Object>> dataCaptor = ArgumentCaptor.forClass(Map.class);
+        DocumentReference summary = IngredientController.summaryReferenceOf(mockFirestore, "test@example.com");
+        verify(mockTransaction).set(eq(summary), dataCaptor.capture(), eq(SetOptions.merge()));
+        Map<String, Object> totals = (Map<String, Object>) dataCaptor.getValue().get(PantrySummary.TOTALS);
+        Map<String, Object> carrots = (Map<String, Object>) totals.get(PantrySummary.keyOf("Carrot", "lbs"));
+        assertEquals(1, totals.size());
+        assertEquals("Carrot", carrots.get(PantrySummary.NAME));
+        assertTrue(carrots.get(PantrySummary.AMOUNT) instanceof FieldValue);
+        assertTrue(carrots.get(PantrySummary.LOTS) instanceof FieldValue);
+        Map<String, Object> days = (Map<String, Object>) carrots.get(PantrySummary.DAYS);
+        assertTrue(days.get(Long.toString(u.bestBeforeDay())) instanceof FieldValue);
+        // the whole summary is never read or rewritten
+        verify(mockTransaction, never()).get(summary);
+    }
 }
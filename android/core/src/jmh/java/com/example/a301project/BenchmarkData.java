@@ -0,0 +1,167 @@
+package com.example.a301project;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * This class generates ingredients, recipes and meal plans for the benchmarks. The same seed
+ * always gives the same data, so runs can be compared with each other.
+ */
+class BenchmarkData {
+    private static final String[] LOCATIONS = {"Pantry", "Fridge", "Freezer", "Cupboard"};
+    private static final String[] CATEGORIES = {"Vegetable", "Fruit", "Dairy", "Meat", "Baking", "Spice"};
+    private static final String[] UNITS = {"Pieces", "Slices", "Grams", "lbs", "Ounces", "Cups", "Kgs"};
+    private static final String[] PANTRY_UNITS = {"Pieces", "Slices", "Kgs", "Cups"};
+
+    private final Random random;
+    private final int nameCount;
+
+    /**
+     * Creates a generator for data drawn from a fixed number of ingredient names
+     * @param seed {@link Long} the seed of the random numbers
+     * @param nameCount {@link Integer} how many different ingredient names there are
+     */
+    BenchmarkData(long seed, int nameCount) {
+        this.random = new Random(seed);
+        this.nameCount = nameCount;
+    }
+
+    /**
+     * Picks a random ingredient name, with random capitalisation like names entered by users
+     * @return {@link String} the ingredient name
+     */
+    String name() {
+        String name = "ingredient " + random.nextInt(nameCount);
+        return random.nextBoolean() ? name : name.toUpperCase();
+    }
+
+    /**
+     * Picks a random best before date in 2022 and 2023
+     * @return {@link String} the date in the format "yyyy-MM-dd"
+     */
+    String date() {
+        return String.format("%04d-%02d-%02d", 2022 + random.nextInt(2), 1 + random.nextInt(12), 1 + random.nextInt(28));
+    }
+
+    /**
+     * Creates the ingredients in the ingredient storage
+     * @param count {@link Integer} how many ingredients to create
+     * @return {@link ArrayList} of {@link Ingredient}
+     */
+    ArrayList<Ingredient> ingredients(int count) {
+        ArrayList<Ingredient> ingredients = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Ingredient ingredient = new Ingredient(
+                    name(),
+                    1 + random.nextInt(20),
+                    date(),
+                    LOCATIONS[random.nextInt(LOCATIONS.length)],
+                    PANTRY_UNITS[random.nextInt(PANTRY_UNITS.length)],
+                    CATEGORIES[random.nextInt(CATEGORIES.length)]
+            );
+            ingredient.setId("ingredient-" + i);
+            ingredients.add(ingredient);
+        }
+        return ingredients;
+    }
+
+    /**
+     * Creates the storage items that the shopping list is calculated from
+     * @param ingredients {@link ArrayList} the {@link Ingredient} in the ingredient storage
+     * @return {@link ArrayList} of {@link ShoppingItem}
+     */
+    static ArrayList<ShoppingItem> storageItems(ArrayList<Ingredient> ingredients) {
+        ArrayList<ShoppingItem> items = new ArrayList<>(ingredients.size());
+        for (Ingredient ingredient : ingredients) {
+            items.add(new ShoppingItem(ingredient.getName(), ingredient.getAmount(), ingredient.getUnit(), ingredient.getCategory()));
+        }
+        return items;
+    }
+
+    /**
+     * Creates the user's recipes, each with between 3 and 12 ingredients
+     * @param count {@link Integer} how many recipes to create
+     * @return {@link ArrayList} of {@link Recipe}
+     */
+    ArrayList<Recipe> recipes(int count) {
+        ArrayList<Recipe> recipes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int size = 3 + random.nextInt(10);
+            ArrayList<Ingredient> ingredients = new ArrayList<>(size);
+            for (int j = 0; j < size; j++) {
+                ingredients.add(new Ingredient(
+                        name(),
+                        0.25 * (1 + random.nextInt(8)),
+                        date(),
+                        LOCATIONS[random.nextInt(LOCATIONS.length)],
+                        UNITS[random.nextInt(UNITS.length)],
+                        CATEGORIES[random.nextInt(CATEGORIES.length)]
+                ));
+            }
+            Recipe recipe = new Recipe(
+                    "Recipe " + i,
+                    CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    "",
+                    "",
+                    (long) (5 + random.nextInt(120)),
+                    (long) (1 + random.nextInt(8)),
+                    ingredients
+            );
+            recipe.setId("recipe-" + i);
+            recipes.add(recipe);
+        }
+        return recipes;
+    }
+
+    /**
+     * Creates the meal plans, each with between 3 and 14 of the given recipes
+     * @param count {@link Integer} how many meal plans to create
+     * @param recipes {@link ArrayList} the {@link Recipe} the meal plans can use
+     * @return {@link ArrayList} of {@link MealPlan}
+     */
+    ArrayList<MealPlan> mealPlans(int count, ArrayList<Recipe> recipes) {
+        ArrayList<MealPlan> mealPlans = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int size = 3 + random.nextInt(12);
+            ArrayList<Recipe> planRecipes = new ArrayList<>(size);
+            for (int j = 0; j < size; j++) {
+                String title = recipes.get(random.nextInt(recipes.size())).getTitle();
+                planRecipes.add(new Recipe(random.nextBoolean() ? title : title.toLowerCase(), (long) (1 + random.nextInt(6))));
+            }
+            ArrayList<Ingredient> planIngredients = new ArrayList<>();
+            planIngredients.add(new Ingredient(name(), 1 + random.nextInt(5)));
+            MealPlan mealPlan = new MealPlan(planIngredients, planRecipes, "Plan " + i, date(), date());
+            mealPlan.setId("meal-plan-" + i);
+            mealPlans.add(mealPlan);
+        }
+        return mealPlans;
+    }
+
+    /**
+     * Gets all the recipes used by the meal plans, as read by the shopping list
+     * @param mealPlans {@link ArrayList} the {@link MealPlan} to read
+     * @return {@link ArrayList} of {@link Recipe} with their servings
+     */
+    static ArrayList<Recipe> mealPlanRecipes(ArrayList<MealPlan> mealPlans) {
+        ArrayList<Recipe> recipes = new ArrayList<>();
+        for (MealPlan mealPlan : mealPlans) {
+            recipes.addAll(mealPlan.getRecipes());
+        }
+        return recipes;
+    }
+
+    /**
+     * Gets the ingredients added directly to the meal plans, as read by the shopping list
+     * @param mealPlans {@link ArrayList} the {@link MealPlan} to read
+     * @return {@link ArrayList} of {@link ShoppingItem}
+     */
+    static ArrayList<ShoppingItem> mealPlanItems(ArrayList<MealPlan> mealPlans) {
+        ArrayList<ShoppingItem> items = new ArrayList<>();
+        for (MealPlan mealPlan : mealPlans) {
+            for (Ingredient ingredient : mealPlan.getIngredients()) {
+                items.add(new ShoppingItem(ingredient.getName(), ingredient.getAmount(), ingredient.getUnit(), ingredient.getCategory()));
+            }
+        }
+        return items;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.a301project;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The original recipe expansion, which scans every recipe the user has for each recipe in the meal
+ * plans. It is kept as the baseline the benchmarks compare {@link RecipeExpander} and
+ * {@link RecipeExpansionIndex} with.
+ */
+class LinearRecipeExpander {
+
+    private LinearRecipeExpander() {}
+
+    /**
+     * Goes through the recipes in the meal plans and finds every recipe with the same title (ignoring
+     * case). Each ingredient of a matching recipe is added to the needed items, multiplied by the
+     * servings in the meal plan.
+     * @param mealPlanRecipes {@link List} the {@link Recipe} in the meal plans, with their servings
+     * @param recipes {@link List} the {@link Recipe} the user has, with their ingredients per serving
+     * @param neededItems {@link List} the {@link ShoppingItem} list the ingredients are added to
+     */
+    static void expand(List<Recipe> mealPlanRecipes, List<Recipe> recipes, List<ShoppingItem> neededItems) {
+        if (mealPlanRecipes == null || recipes == null) {
+            return;
+        }
+        for (Recipe mealPlanRecipe : mealPlanRecipes) {
+            Long servings = mealPlanRecipe.getServings();
+            String title = mealPlanRecipe.getTitle();
+            if (servings == null) {
+                continue;
+            }
+
+            // loop through the actual recipes and look for a match
+            for (int i = 0; i < recipes.size(); i++) {
+                if (!recipes.get(i).getTitle().equalsIgnoreCase(title)) {
+                    continue;
+                }
+                // found a match -> add each ingredient with the correct serving
+                ArrayList<Ingredient> ingredients = recipes.get(i).getIngredients();
+                if (ingredients != null) {
+                    for (int j = 0; j < ingredients.size(); j++) {
+                        Ingredient ingredient = ingredients.get(j);
+                        neededItems.add(new ShoppingItem(
+                                ingredient.getName(),
+                                ingredient.getAmount() * servings.doubleValue(),
+                                ingredient.getUnit(),
+                                ingredient.getCategory()
+                        ));
+                    }
+                }
+            }
+        }
+    }
+}
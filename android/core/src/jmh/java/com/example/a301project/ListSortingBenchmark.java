@@ -0,0 +1,97 @@
+package com.example.a301project;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+
+/**
+ * Measures how long it takes to sort the ingredient and recipe lists, the work done by
+ * sortDataBySpinner in IngredientFragment and RecipeFragment. Each call sorts a fresh copy of the
+ * unsorted list, so the cost of copying it is included in the results.
+ */
+@State(Scope.Benchmark)
+public class ListSortingBenchmark {
+    @Param({"100", "1000", "10000", "100000"})
+    public int size;
+
+    @Param({ListSorting.NAME, ListSorting.CATEGORY})
+    public String sortBy;
+
+    private ArrayList<Ingredient> ingredients;
+    private ArrayList<Recipe> recipes;
+    private IngredientSortOrders pantry;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        BenchmarkData data = new BenchmarkData(42, Math.max(100, size / 2));
+        ingredients = data.ingredients(size);
+        recipes = data.recipes(Math.min(size, 5000));
+        Collections.shuffle(recipes, new Random(42));
+        pantry = new IngredientSortOrders();
+        for (int i = 0; i < ingredients.size(); i++) {
+            pantry.put(String.valueOf(i), ingredients.get(i));
+        }
+    }
+
+    /**
+     * Sorts the ingredient list in ascending order
+     * @return The sorted ingredients
+     */
+    @Benchmark
+    public ArrayList<Ingredient> sortIngredients() {
+        ArrayList<Ingredient> sorted = new ArrayList<>(ingredients);
+        Collections.sort(sorted, ListSorting.ingredientComparator(sortBy, true));
+        return sorted;
+    }
+
+    /**
+     * Sorts the ingredient list by best before date in ascending order
+     * @return The sorted ingredients
+     */
+    @Benchmark
+    public ArrayList<Ingredient> sortIngredientsByExpiry() {
+        ArrayList<Ingredient> sorted = new ArrayList<>(ingredients);
+        Collections.sort(sorted, ListSorting.ingredientComparator(ListSorting.EXPIRY, true));
+        return sorted;
+    }
+
+    /**
+     * Sorts the recipe list, which has at most 5000 recipes, in ascending order
+     * @return The sorted recipes
+     */
+    @Benchmark
+    public ArrayList<Recipe> sortRecipes() {
+        ArrayList<Recipe> sorted = new ArrayList<>(recipes);
+        Collections.sort(sorted, ListSorting.recipeComparator(sortBy, true));
+        return sorted;
+    }
+
+    /**
+     * Switches the order of the ingredient model kept by IngredientFragment and reads the first
+     * ingredient, as the list does after the sort spinner changes
+     * @return The first ingredient in the new order
+     */
+    @Benchmark
+    public Ingredient switchIngredientOrder() {
+        pantry.setOrder(sortBy, (next++ & 1) == 0);
+        return pantry.getItems().get(0);
+    }
+
+    /**
+     * Replaces one ingredient in the ingredient model, as when an ingredient is edited
+     * @return The number of ingredients
+     */
+    @Benchmark
+    public int reinsertIngredient() {
+        int index = next++ % ingredients.size();
+        pantry.put(String.valueOf(index), ingredients.get(index));
+        return pantry.size();
+    }
+}
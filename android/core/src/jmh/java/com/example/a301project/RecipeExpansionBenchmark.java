@@ -0,0 +1,71 @@
+package com.example.a301project;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+
+/**
+ * Measures how long it takes to expand the recipes in the meal plans into the ingredients they
+ * need, the work done by ShoppingListController.getIngredientsFromMealPlanRecipes. The original
+ * scan of every recipe is the baseline, and is compared with {@link RecipeExpander}, which builds
+ * a {@link RecipeExpansionIndex} each time, and with an index that already has the recipes.
+ */
+@State(Scope.Benchmark)
+public class RecipeExpansionBenchmark {
+    @Param({"10", "100", "1000", "5000"})
+    public int recipeCount;
+
+    @Param({"1", "10", "100", "500"})
+    public int mealPlanCount;
+
+    private ArrayList<Recipe> recipes;
+    private ArrayList<Recipe> mealPlanRecipes;
+    private RecipeExpansionIndex index;
+
+    @Setup
+    public void setUp() {
+        BenchmarkData data = new BenchmarkData(42, 1000);
+        recipes = data.recipes(recipeCount);
+        mealPlanRecipes = BenchmarkData.mealPlanRecipes(data.mealPlans(mealPlanCount, recipes));
+        index = new RecipeExpansionIndex();
+        index.setRecipes(recipes);
+        index.expand(mealPlanRecipes, new ArrayList<>());
+    }
+
+    /**
+     * Expands every recipe in the meal plans by scanning every recipe for each of them
+     * @return The ingredients needed by the meal plans
+     */
+    @Benchmark
+    public ArrayList<ShoppingItem> expandMealPlanRecipes() {
+        ArrayList<ShoppingItem> neededItems = new ArrayList<>();
+        LinearRecipeExpander.expand(mealPlanRecipes, recipes, neededItems);
+        return neededItems;
+    }
+
+    /**
+     * Expands every recipe in the meal plans from an index built for the call
+     * @return The ingredients needed by the meal plans
+     */
+    @Benchmark
+    public ArrayList<ShoppingItem> expandWithNewIndex() {
+        ArrayList<ShoppingItem> neededItems = new ArrayList<>();
+        RecipeExpander.expand(mealPlanRecipes, recipes, neededItems);
+        return neededItems;
+    }
+
+    /**
+     * Expands every recipe in the meal plans from the cached ingredients of their titles
+     * @return The ingredients needed by the meal plans
+     */
+    @Benchmark
+    public ArrayList<ShoppingItem> expandFromIndex() {
+        ArrayList<ShoppingItem> neededItems = new ArrayList<>();
+        index.expand(mealPlanRecipes, neededItems);
+        return neededItems;
+    }
+}
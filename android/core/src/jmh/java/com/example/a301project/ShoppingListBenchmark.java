@@ -0,0 +1,95 @@
+package com.example.a301project;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+
+/**
+ * Measures how long it takes to calculate the shopping list, the work done by
+ * ShoppingListController.getShoppingItems once everything has been read from Firebase, and how
+ * long the {@link ShoppingListModel} takes to bring the list up to date after a single change.
+ */
+@State(Scope.Benchmark)
+public class ShoppingListBenchmark {
+    // a small and a large pantry, recipe book and meal plan calendar, so the whole grid is 8 runs
+    @Param({"1000", "100000"})
+    public int ingredientCount;
+
+    @Param({"100", "5000"})
+    public int recipeCount;
+
+    @Param({"10", "500"})
+    public int mealPlanCount;
+
+    private ArrayList<Ingredient> ingredients;
+    private ArrayList<ShoppingItem> storageItems;
+    private ArrayList<Recipe> recipes;
+    private ArrayList<Recipe> mealPlanRecipes;
+    private ArrayList<ShoppingItem> mealPlanItems;
+    private ShoppingListModel model;
+    private int nextChange;
+
+    @Setup
+    public void setUp() {
+        BenchmarkData data = new BenchmarkData(42, Math.max(100, ingredientCount / 2));
+        ingredients = data.ingredients(ingredientCount);
+        storageItems = BenchmarkData.storageItems(ingredients);
+        recipes = data.recipes(recipeCount);
+        ArrayList<MealPlan> mealPlans = data.mealPlans(mealPlanCount, recipes);
+        mealPlanRecipes = BenchmarkData.mealPlanRecipes(mealPlans);
+        mealPlanItems = BenchmarkData.mealPlanItems(mealPlans);
+
+        model = new ShoppingListModel();
+        for (Ingredient ingredient : ingredients) {
+            model.putIngredient(ingredient);
+        }
+        for (Recipe recipe : recipes) {
+            model.putRecipe(recipe);
+        }
+        for (MealPlan mealPlan : mealPlans) {
+            model.putMealPlan(mealPlan);
+        }
+        model.getShoppingItems();
+    }
+
+    /**
+     * Expands the meal plan recipes with the original scan of every recipe, and reconciles them
+     * with the ingredient storage
+     * @return The shopping list
+     */
+    @Benchmark
+    public ArrayList<ShoppingItem> generateShoppingList() {
+        ArrayList<ShoppingItem> neededItems = new ArrayList<>(mealPlanItems);
+        LinearRecipeExpander.expand(mealPlanRecipes, recipes, neededItems);
+        return ShoppingListReconciler.reconcile(neededItems, storageItems);
+    }
+
+    /**
+     * Expands the meal plan recipes with the {@link RecipeExpander}, and reconciles them with the
+     * ingredient storage
+     * @return The shopping list
+     */
+    @Benchmark
+    public ArrayList<ShoppingItem> generateShoppingListWithIndex() {
+        ArrayList<ShoppingItem> neededItems = new ArrayList<>(mealPlanItems);
+        RecipeExpander.expand(mealPlanRecipes, recipes, neededItems);
+        return ShoppingListReconciler.reconcile(neededItems, storageItems);
+    }
+
+    /**
+     * Changes the amount of one ingredient in storage and gets the updated shopping list
+     * @return The shopping list
+     */
+    @Benchmark
+    public ArrayList<ShoppingItem> updateShoppingList() {
+        Ingredient ingredient = ingredients.get(nextChange);
+        nextChange = (nextChange + 1) % ingredients.size();
+        ingredient.setAmount(ingredient.getAmount() + 1);
+        model.putIngredient(ingredient);
+        return model.getShoppingItems();
+    }
+}
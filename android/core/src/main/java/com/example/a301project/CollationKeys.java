@@ -0,0 +1,31 @@
+package com.example.a301project;
+
+import java.text.CollationKey;
+import java.text.Collator;
+
+/**
+ * This class makes the keys the lists are sorted by. A {@link CollationKey} compares two names the
+ * way the user's language orders them, ignoring case, and comparing two keys is much cheaper than
+ * comparing the names, so each object makes the keys of its names once and keeps them until the
+ * names change.
+ */
+final class CollationKeys {
+    private static final Collator COLLATOR = Collator.getInstance();
+
+    static {
+        // accents still change the order, but upper and lower case letters are the same
+        COLLATOR.setStrength(Collator.SECONDARY);
+    }
+
+    private CollationKeys() {}
+
+    /**
+     * Makes the key of a name. The {@link Collator} cannot be used by two threads at once, so
+     * the keys are made one at a time.
+     * @param value {@link String} the name, which may be null
+     * @return The {@link CollationKey} of the name, where null is sorted like an empty name
+     */
+    static synchronized CollationKey of(String value) {
+        return COLLATOR.getCollationKey(value == null ? "" : value);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.a301project;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads the rows of a CSV file, where the first row names the columns. Fields can be quoted with
+ * double quotes, so they can hold commas, line breaks and doubled quotes. Blank lines are skipped.
+ */
+public class CsvIngredientRowReader implements IngredientRowReader {
+    private final BufferedReader reader;
+    private final ArrayList<String> fields = new ArrayList<>();
+    private final StringBuilder field = new StringBuilder();
+    private String[] columns;
+    private int nextLine = 1;
+    private int line;
+
+    /**
+     * Creates a reader of a CSV file
+     * @param reader {@link Reader} the file, which is closed with this reader
+     */
+    public CsvIngredientRowReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    @Override
+    public Map<String, String> next() throws IOException {
+        if (columns == null) {
+            if (!readRecord()) {
+                return null;
+            }
+            columns = new String[fields.size()];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = IngredientRowReader.columnOf(fields.get(i));
+            }
+        }
+        if (!readRecord()) {
+            return null;
+        }
+        HashMap<String, String> row = new HashMap<>();
+        for (int i = 0; i < Math.min(columns.length, fields.size()); i++) {
+            row.put(columns[i], fields.get(i));
+        }
+        return row;
+    }
+
+    @Override
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * Reads the fields of the next record that is not blank
+     * @return true if a record was read, false at the end of the file
+     * @throws IOException if the file could not be read, or ends inside a quoted field
+     */
+    private boolean readRecord() throws IOException {
+        fields.clear();
+        field.setLength(0);
+        line = nextLine;
+        boolean quoted = false;
+        boolean blank = true;
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        nextLine++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                blank = false;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                blank = false;
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                nextLine++;
+                if (!blank || field.length() > 0) {
+                    fields.add(field.toString());
+                    return true;
+                }
+                line = nextLine;
+            } else {
+                field.append((char) c);
+                blank = false;
+            }
+        }
+        if (quoted) {
+            throw new IOException("Line " + line + " ends inside a quoted field");
+        }
+        if (blank && field.length() == 0) {
+            return false;
+        }
+        fields.add(field.toString());
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
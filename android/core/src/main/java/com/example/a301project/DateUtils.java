@@ -0,0 +1,121 @@
+package com.example.a301project;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+
+/**
+ * This class holds the date handling shared by the ingredients and meal plans. Dates are shown and
+ * entered in the app in the format "yyyy-MM-dd", and kept as the number of days since 1970-01-01
+ * where they are compared.
+ */
+public class DateUtils {
+    /**
+     * The format of every date that is displayed or entered in the app
+     */
+    public static final String DATE_PATTERN = "yyyy-MM-dd";
+    /**
+     * The formatter of {@link #DATE_PATTERN}. It cannot be changed, so it is shared by every thread.
+     */
+    public static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern(DATE_PATTERN);
+
+    private DateUtils() {}
+
+    /**
+     * Parses a date in the format "yyyy-MM-dd"
+     * @param date {@link String} the date to parse
+     * @return The {@link Date} at the start of the day in the default time zone, or null if the
+     * date could not be parsed
+     */
+    public static Date parseDate(String date) {
+        if (date == null) {
+            return null;
+        }
+        try {
+            LocalDate day = LocalDate.parse(date, DATE_FORMATTER);
+            return Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        } catch (DateTimeParseException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Formats a date in the format "yyyy-MM-dd"
+     * @param date {@link Date} the date to format
+     * @return The date as a {@link String}
+     */
+    public static String formatDate(Date date) {
+        return DATE_FORMATTER.format(date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate());
+    }
+
+    /**
+     * Formats a number of days since 1970-01-01 in the format "yyyy-MM-dd"
+     * @param epochDay {@link Long} the epoch day to format
+     * @return The date as a {@link String}
+     */
+    public static String formatEpochDay(long epochDay) {
+        return DATE_FORMATTER.format(LocalDate.ofEpochDay(epochDay));
+    }
+
+    /**
+     * Checks if a date is before or the same as another date
+     * @param startDate The start date in the format "yyyy-MM-dd"
+     * @param endDate The end date in the format "yyyy-MM-dd"
+     * @return Returns {@link Boolean} true if the start date is before (or equal to) the end date,
+     * false otherwise, or if either date could not be parsed
+     */
+    public static boolean isOnOrBefore(String startDate, String endDate) {
+        // a date that could not be parsed is after every date as a start, and before every date as an end
+        return parseEpochDay(startDate, Long.MAX_VALUE) <= parseEpochDay(endDate, Long.MIN_VALUE);
+    }
+
+    /**
+     * Parses a date in the format "yyyy-MM-dd" into the number of days since 1970-01-01
+     * @param date {@link String} the date to parse
+     * @param fallback {@link Long} the value to return if the date is missing or could not be parsed
+     * @return The epoch day of the date, or the fallback
+     */
+    public static long parseEpochDay(String date, long fallback) {
+        if (date == null) {
+            return fallback;
+        }
+        try {
+            return LocalDate.parse(date, DATE_FORMATTER).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return fallback;
+        }
+    }
+
+    /**
+     * Gets today's date as the number of days since 1970-01-01, in the default time zone
+     * @return The epoch day of today
+     */
+    public static long today() {
+        return LocalDate.now().toEpochDay();
+    }
+
+    /**
+     * Converts a date to the number of days since 1970-01-01, in the default time zone
+     * @param date {@link Date} the date to convert
+     * @param fallback {@link Long} the value to return if the date is missing
+     * @return The epoch day of the date, or the fallback
+     */
+    public static long toEpochDay(Date date, long fallback) {
+        if (date == null) {
+            return fallback;
+        }
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+    }
+
+    /**
+     * Converts a number of days since 1970-01-01 to a date, in the default time zone
+     * @param epochDay {@link Long} the epoch day to convert
+     * @return The {@link Date} at the start of the day
+     */
+    public static Date fromEpochDay(long epochDay) {
+        return Date.from(LocalDate.ofEpochDay(epochDay).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.a301project;
+
+/**
+ * This interface is implemented by the models of the list screens that are kept up to date with a
+ * Firebase collection one document at a time
+ * @param <T> the type of item made from each document
+ */
+public interface DocumentCollection<T> {
+    /**
+     * Adds the item of a document that was added, or replaces the item of a document that changed
+     * @param id {@link String} the ID of the document
+     * @param item the item made from the document
+     */
+    void put(String id, T item);
+
+    /**
+     * Removes the item of a document that was removed
+     * @param id {@link String} the ID of the document
+     * @return The item that was removed, or null if there was none
+     */
+    T remove(String id);
+}
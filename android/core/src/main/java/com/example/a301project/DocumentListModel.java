@@ -0,0 +1,141 @@
+package com.example.a301project;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * This class keeps the items shown by a list screen in step with a Firebase collection, one
+ * document at a time. Each item is stored by the ID of its document, so a document that was added,
+ * changed or removed only moves its own item in the shown list, and the rest of the list is not
+ * read again or sorted again.
+ *
+ * The shown list is kept in the order of the {@link Comparator} it was last sorted with. Without
+ * one, items are shown in the order their documents were added, and an item that changed keeps
+ * its place.
+ * @param <T> the type of item made from each document
+ */
+public class DocumentListModel<T> implements DocumentCollection<T> {
+    private final LinkedHashMap<String, T> documents = new LinkedHashMap<>();
+    private final List<T> shownItems;
+    private Comparator<? super T> comparator;
+
+    /**
+     * Creates a model that keeps a list up to date
+     * @param shownItems {@link List} the list shown on the screen, which the model changes
+     */
+    public DocumentListModel(List<T> shownItems) {
+        this.shownItems = shownItems;
+    }
+
+    /**
+     * Sorts the shown list, and keeps it in this order as documents change
+     * @param comparator {@link Comparator} the order of the shown list, or null to add new items
+     *                   at the end
+     */
+    public void sort(Comparator<? super T> comparator) {
+        this.comparator = comparator;
+        if (comparator != null) {
+            Collections.sort(shownItems, comparator);
+        }
+    }
+
+    /**
+     * Adds the item of a document that was added, or replaces the item of a document that changed
+     * @param id {@link String} the ID of the document
+     * @param item the item made from the document
+     */
+    @Override
+    public void put(String id, T item) {
+        T old = documents.put(id, item);
+        if (comparator == null) {
+            int position = old == null ? -1 : positionOf(old);
+            if (position < 0) {
+                shownItems.add(item);
+            } else {
+                shownItems.set(position, item);
+            }
+            return;
+        }
+        if (old != null) {
+            removeShown(old);
+        }
+        int position = Collections.binarySearch(shownItems, item, comparator);
+        shownItems.add(position < 0 ? -position - 1 : position, item);
+    }
+
+    /**
+     * Removes the item of a document that was removed
+     * @param id {@link String} the ID of the document
+     * @return The item that was removed, or null if there was none
+     */
+    @Override
+    public T remove(String id) {
+        T old = documents.remove(id);
+        if (old != null) {
+            removeShown(old);
+        }
+        return old;
+    }
+
+    /**
+     * Gets the item of a document
+     * @param id {@link String} the ID of the document
+     * @return The item of the document, or null if there is none
+     */
+    public T get(String id) {
+        return documents.get(id);
+    }
+
+    /**
+     * Gets how many documents the model holds
+     * @return The number of documents
+     */
+    public int size() {
+        return documents.size();
+    }
+
+    /**
+     * Gets the items of every document, in the order the documents were first added
+     * @return {@link ArrayList} of the items
+     */
+    public ArrayList<T> getItems() {
+        return new ArrayList<>(documents.values());
+    }
+
+    /**
+     * Removes every document and empties the shown list
+     */
+    public void clear() {
+        documents.clear();
+        shownItems.clear();
+    }
+
+    /**
+     * Removes an item from the shown list. The item is looked for by identity rather than with the
+     * comparator, since the screen may have changed the item after it was sorted.
+     * @param item the item to remove
+     */
+    private void removeShown(T item) {
+        int position = positionOf(item);
+        if (position >= 0) {
+            shownItems.remove(position);
+        }
+    }
+
+    /**
+     * Finds an item in the shown list by identity
+     * @param item the item to find
+     * @return The position of the item, or -1 if it is not shown
+     */
+    private int positionOf(T item) {
+        for (int i = shownItems.size() - 1; i >= 0; i--) {
+            if (shownItems.get(i) == item) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
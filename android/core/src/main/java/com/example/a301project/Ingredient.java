@@ -1,6 +1,7 @@
 package com.example.a301project;
 
 import java.io.Serializable;
+import java.text.CollationKey;
 
 /**
  * This is a class that holds the data which makes up an ingredient. This class consists mostly of
@@ -8,10 +9,20 @@ import java.io.Serializable;
  */
 @SuppressWarnings("SpellCheckingInspection")
 public class Ingredient implements Serializable {
+    /**
+     * The best before day of an {@link Ingredient} without a best before date, which never expires
+     */
+    public static final long NO_BEST_BEFORE = Long.MAX_VALUE;
+
     private String id = null;
     private String name;
     private String location;
-    private String bbd;
+    // the best before date is only kept as an epoch day, and formatted when it is asked for
+    private long bestBeforeDay = NO_BEST_BEFORE;
+    // the sort keys are made when they are first needed after a change, and are not saved
+    private transient CollationKey nameKey;
+    private transient CollationKey locationKey;
+    private transient CollationKey categoryKey;
     private String category;
     private String unit;
     private double amount;
@@ -29,7 +40,27 @@ public class Ingredient implements Serializable {
         // constructor
         this.name = name;
         this.location = location;
-        this.bbd = bbd;
+        setBbd(bbd);
+        this.category = category;
+        this.unit = unit;
+        this.amount = amount;
+    }
+
+    /**
+     * Makes an {@link Ingredient} object from the given parameters, with its best before date as
+     * an epoch day. The date is only formatted if it is shown.
+     * @param name {@link String} The name of the object
+     * @param amount {@link Integer} The amount of the object
+     * @param bestBeforeDay {@link Long} The best before date of the object, as the number of days
+     *                      since 1970-01-01
+     * @param location {@link String} The location of the object
+     * @param unit {@link String} The unit the object uses
+     * @param category {@link String} The object's category
+     */
+    public Ingredient(String name, double amount, long bestBeforeDay, String location, String unit, String category) {
+        this.name = name;
+        this.location = location;
+        this.bestBeforeDay = bestBeforeDay;
         this.category = category;
         this.unit = unit;
         this.amount = amount;
@@ -54,9 +85,20 @@ public class Ingredient implements Serializable {
 
     /**
      * Gets the {@link Ingredient} object's best before date
-     * @return The best before date of the object
+     * @return The best before date of the object, in the format "yyyy-MM-dd", or null if it has none
+     */
+    public String getbbd() {
+        return this.bestBeforeDay == NO_BEST_BEFORE ? null : DateUtils.formatEpochDay(this.bestBeforeDay);
+    }
+
+    /**
+     * Gets the {@link Ingredient} object's best before date as an epoch day. It is not named like a
+     * getter, so the date is not written a second time when an ingredient is saved in the
+     * ingredient list of a recipe or meal plan.
+     * @return The number of days since 1970-01-01 of the best before date, or
+     * {@link #NO_BEST_BEFORE} if the object has none
      */
-    public String getbbd() {return this.bbd;}
+    public long bestBeforeDay() {return this.bestBeforeDay;}
 
     /**
      * Gets the {@link Ingredient} object's location
@@ -98,21 +140,35 @@ public class Ingredient implements Serializable {
      */
     public void setName(String name) {
         this.name = name;
+        this.nameKey = null;
     }
 
     /**
      * Sets the {@link Ingredient} object's best before date
-     * @param bbd The {@link Ingredient} object's best before date is set to this value
+     * @param bbd The {@link Ingredient} object's best before date is set to this value, in the
+     *            format "yyyy-MM-dd". A date that can't be read leaves the object without one.
      */
     public void setBbd(String bbd) {
-        this.bbd = bbd;
+        this.bestBeforeDay = DateUtils.parseEpochDay(bbd, NO_BEST_BEFORE);
+    }
+
+    /**
+     * Sets the {@link Ingredient} object's best before date as an epoch day
+     * @param bestBeforeDay The number of days since 1970-01-01 of the best before date, or
+     *                      {@link #NO_BEST_BEFORE}
+     */
+    public void setBestBeforeDay(long bestBeforeDay) {
+        this.bestBeforeDay = bestBeforeDay;
     }
 
     /**
      * Sets the {@link Ingredient} object's location
      * @param location The {@link Ingredient} object's location is set to this value
      */
-    public void setLocation(String location) {this.location = location;}
+    public void setLocation(String location) {
+        this.location = location;
+        this.locationKey = null;
+    }
 
     /**
      * Sets the {@link Ingredient} object's unit
@@ -136,6 +192,39 @@ public class Ingredient implements Serializable {
      */
     public void setCategory(String category) {
         this.category = category;
+        this.categoryKey = null;
+    }
+
+    /**
+     * Gets the key the {@link Ingredient} object is sorted by name with
+     * @return The {@link CollationKey} of the name
+     */
+    CollationKey nameKey() {
+        if (nameKey == null) {
+            nameKey = CollationKeys.of(name);
+        }
+        return nameKey;
+    }
+
+    /**
+     * Gets the key the {@link Ingredient} object is sorted by location with
+     * @return The {@link CollationKey} of the location
+     */
+    CollationKey locationKey() {
+        if (locationKey == null) {
+            locationKey = CollationKeys.of(location);
+        }
+        return locationKey;
     }
-}
 
+    /**
+     * Gets the key the {@link Ingredient} object is sorted by category with
+     * @return The {@link CollationKey} of the category
+     */
+    CollationKey categoryKey() {
+        if (categoryKey == null) {
+            categoryKey = CollationKeys.of(category);
+        }
+        return categoryKey;
+    }
+}
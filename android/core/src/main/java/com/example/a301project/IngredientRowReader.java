@@ -0,0 +1,44 @@
+package com.example.a301project;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads the rows of an imported file one at a time, so a file of any size can be imported without
+ * holding it in memory. Each row maps the column of a field to its value, and the columns are
+ * given by {@link #columnOf(String)} so the files can spell them however they like.
+ */
+public interface IngredientRowReader extends Closeable {
+
+    /**
+     * Reads the next row
+     * @return {@link Map} of the column of each field to its value, or null if there are no more rows
+     * @throws IOException if the file could not be read or is not in the expected format
+     */
+    Map<String, String> next() throws IOException;
+
+    /**
+     * Gets the line of the file that the last row started on, for error messages
+     * @return The line number, starting at 1
+     */
+    int getLine();
+
+    /**
+     * Gets the column of a field name, ignoring case, spaces and punctuation, so "Best Before Date"
+     * and "bestBeforeDate" are the same column
+     * @param name {@link String} the name of the field in the file
+     * @return The column of the field
+     */
+    static String columnOf(String name) {
+        StringBuilder column = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                column.append(c);
+            }
+        }
+        return column.toString().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.a301project;
+
+import java.text.CollationKey;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * This class is the model of the ingredient list. It keeps the ingredients sorted by every sort
+ * option of the list at once, each in an {@link OrderStatisticTree}. Changing the sort option or
+ * direction only changes which tree is read and from which end, and an ingredient that was added,
+ * changed or removed is moved in each tree in O(log n) time.
+ *
+ * The values an ingredient is sorted by are copied when it is put in the model, so an ingredient
+ * that is changed on the screen can still be found and removed.
+ */
+public class IngredientSortOrders implements DocumentCollection<Ingredient> {
+    /**
+     * An ingredient in the trees, with the values it is sorted by
+     */
+    private static final class Entry {
+        private final Ingredient ingredient;
+        private final long sequence;
+        private final CollationKey name;
+        private final CollationKey location;
+        private final long bestBeforeDay;
+        private final CollationKey category;
+
+        Entry(Ingredient ingredient, long sequence) {
+            this.ingredient = ingredient;
+            this.sequence = sequence;
+            this.name = ingredient.nameKey();
+            this.location = ingredient.locationKey();
+            this.bestBeforeDay = ingredient.bestBeforeDay();
+            this.category = ingredient.categoryKey();
+        }
+    }
+
+    // ingredients that sort the same keep the order they were added in, so no two entries are equal
+    private static final Comparator<Entry> BY_SEQUENCE = Comparator.comparingLong(e -> e.sequence);
+
+    private final HashMap<String, Entry> entries = new HashMap<>();
+    private final HashMap<String, OrderStatisticTree<Entry>> orders = new HashMap<>();
+    private final List<Ingredient> items = new AbstractList<Ingredient>() {
+        @Override
+        public Ingredient get(int index) {
+            return current.get(ascending ? index : current.size() - 1 - index).ingredient;
+        }
+
+        @Override
+        public int size() {
+            return current.size();
+        }
+
+        @Override
+        public Object[] toArray() {
+            // copying the list walks the tree once, instead of finding each position in it
+            ArrayList<Entry> entries = current.toList();
+            Object[] array = new Object[entries.size()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = entries.get(ascending ? i : array.length - 1 - i).ingredient;
+            }
+            return array;
+        }
+    };
+    private OrderStatisticTree<Entry> current;
+    private boolean ascending = true;
+    private long nextSequence;
+
+    /**
+     * Creates an empty model, sorted by name in ascending order
+     */
+    public IngredientSortOrders() {
+        orders.put(ListSorting.NAME, new OrderStatisticTree<>(
+                Comparator.comparing((Entry e) -> e.name).thenComparing(BY_SEQUENCE)));
+        orders.put(ListSorting.LOCATION, new OrderStatisticTree<>(
+                Comparator.comparing((Entry e) -> e.location).thenComparing(BY_SEQUENCE)));
+        orders.put(ListSorting.EXPIRY, new OrderStatisticTree<>(
+                Comparator.comparingLong((Entry e) -> e.bestBeforeDay).thenComparing(BY_SEQUENCE)));
+        orders.put(ListSorting.CATEGORY, new OrderStatisticTree<>(
+                Comparator.comparing((Entry e) -> e.category).thenComparing(BY_SEQUENCE)));
+        current = orders.get(ListSorting.NAME);
+    }
+
+    /**
+     * Gets the ingredients in the current order. The list cannot be changed, and follows every
+     * change of the model and of its order. Copying the list takes O(n) time.
+     * @return {@link List} of the {@link Ingredient} objects
+     */
+    public List<Ingredient> getItems() {
+        return items;
+    }
+
+    /**
+     * Changes the order of the ingredients
+     * @param sortBy {@link String} the sort option, one of Name, Location, Expiry or Category
+     * @param ascending {@link Boolean} true to sort in ascending order, false for descending
+     */
+    public void setOrder(String sortBy, boolean ascending) {
+        OrderStatisticTree<Entry> order = orders.get(sortBy);
+        if (order == null) {
+            throw new IllegalArgumentException("Unknown sort option: " + sortBy);
+        }
+        this.current = order;
+        this.ascending = ascending;
+    }
+
+    /**
+     * Adds an ingredient, or replaces the ingredient with the same ID
+     * @param id {@link String} the ID of the ingredient
+     * @param ingredient {@link Ingredient} the ingredient
+     */
+    @Override
+    public void put(String id, Ingredient ingredient) {
+        remove(id);
+        Entry entry = new Entry(ingredient, nextSequence++);
+        entries.put(id, entry);
+        for (OrderStatisticTree<Entry> order : orders.values()) {
+            order.insert(entry);
+        }
+    }
+
+    /**
+     * Removes an ingredient
+     * @param id {@link String} the ID of the ingredient
+     * @return The {@link Ingredient} that was removed, or null if there was none
+     */
+    @Override
+    public Ingredient remove(String id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return null;
+        }
+        for (OrderStatisticTree<Entry> order : orders.values()) {
+            order.remove(entry);
+        }
+        return entry.ingredient;
+    }
+
+    /**
+     * Gets an ingredient
+     * @param id {@link String} the ID of the ingredient
+     * @return The {@link Ingredient}, or null if there is none
+     */
+    public Ingredient get(String id) {
+        Entry entry = entries.get(id);
+        return entry == null ? null : entry.ingredient;
+    }
+
+    /**
+     * Gets the number of ingredients
+     * @return The number of ingredients
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Removes every ingredient
+     */
+    public void clear() {
+        entries.clear();
+        for (OrderStatisticTree<Entry> order : orders.values()) {
+            order.clear();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.a301project;
+
+import java.util.Comparator;
+
+/**
+ * This class holds the orders that the ingredient, recipe and shopping lists can be sorted in.
+ * The sort options are the names shown in the sort spinner of each list.
+ */
+public class ListSorting {
+    public static final String NAME = "Name";
+    public static final String LOCATION = "Location";
+    public static final String EXPIRY = "Expiry";
+    public static final String CATEGORY = "Category";
+    public static final String PREP_TIME = "Prep Time";
+    public static final String SERVINGS = "Servings";
+    // recipes are ranked by the ingredients in storage with a PantryCoverageMatcher, not sorted
+    public static final String CAN_COOK = "Can Cook Now";
+
+    private ListSorting() {}
+
+    /**
+     * Gets the order of the ingredient list. The comparator is chosen once for the sort option, and
+     * compares the keys each {@link Ingredient} keeps, so comparing two ingredients makes no objects.
+     * @param sortBy {@link String} the sort option, one of Name, Location, Expiry or Category
+     * @param ascending {@link Boolean} true to sort in ascending order, false for descending
+     * @return {@link Comparator} of {@link Ingredient}
+     */
+    public static Comparator<Ingredient> ingredientComparator(String sortBy, boolean ascending) {
+        Comparator<Ingredient> comparator;
+        if (sortBy.equals(NAME)) {
+            comparator = Comparator.comparing(Ingredient::nameKey);
+        } else if (sortBy.equals(LOCATION)) {
+            comparator = Comparator.comparing(Ingredient::locationKey);
+        } else if (sortBy.equals(EXPIRY)) {
+            // ingredients without a best before date never expire, so they come last
+            comparator = Comparator.comparingLong(Ingredient::bestBeforeDay);
+        } else {
+            comparator = Comparator.comparing(Ingredient::categoryKey);
+        }
+        return ascending ? comparator : comparator.reversed();
+    }
+
+    /**
+     * Gets the order of the recipe list
+     * @param sortBy {@link String} the sort option, one of Name, Prep Time, Servings or Category
+     * @param ascending {@link Boolean} true to sort in ascending order, false for descending
+     * @return {@link Comparator} of {@link Recipe}
+     */
+    public static Comparator<Recipe> recipeComparator(String sortBy, boolean ascending) {
+        Comparator<Recipe> comparator;
+        if (sortBy.equals(NAME)) {
+            comparator = Comparator.comparing(Recipe::titleKey);
+        } else if (sortBy.equals(PREP_TIME)) {
+            comparator = Comparator.comparing(Recipe::getPrepTime);
+        } else if (sortBy.equals(SERVINGS)) {
+            comparator = Comparator.comparing(Recipe::getServings);
+        } else {
+            comparator = Comparator.comparing(Recipe::categoryKey);
+        }
+        return ascending ? comparator : comparator.reversed();
+    }
+
+    /**
+     * Gets the order of the shopping list
+     * @param sortBy {@link String} the sort option, either Name or Category
+     * @param ascending {@link Boolean} true to sort in ascending order, false for descending
+     * @return {@link Comparator} of {@link ShoppingItem}
+     */
+    public static Comparator<ShoppingItem> shoppingItemComparator(String sortBy, boolean ascending) {
+        Comparator<ShoppingItem> comparator;
+        if (sortBy.equals(NAME)) {
+            comparator = Comparator.comparing(ShoppingItem::nameKey);
+        } else {
+            comparator = Comparator.comparing(ShoppingItem::categoryKey);
+        }
+        return ascending ? comparator : comparator.reversed();
+    }
+}
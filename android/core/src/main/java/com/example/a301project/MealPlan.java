@@ -1,10 +1,7 @@
 package com.example.a301project;
 
 import java.io.Serializable;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
 
 /**
  * Represents an individual meal plan with ingredients and recipes.
@@ -86,24 +83,7 @@ public class MealPlan implements Serializable {
      * false otherwise
      */
     public static boolean isStartDateBeforeEndDate(String startDate, String endDate) {
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-        Date sDate = null;
-        Date eDate = null;
-
-        try {
-            sDate = sdf.parse(startDate);
-            eDate = sdf.parse(endDate);
-
-            if (sDate.equals(eDate)) {
-                return true;
-            }
-            else {
-                return sDate.before(eDate);
-            }
-        } catch (ParseException e) {
-            e.printStackTrace();
-        }
-        return false;
+        return DateUtils.isOnOrBefore(startDate, endDate);
     }
 
 
@@ -0,0 +1,169 @@
+package com.example.a301project;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * This class finds the meal plans whose dates overlap a range of days, without going through
+ * every meal plan the user has ever made.
+ *
+ * The intervals are kept sorted by their start day, with a tree over them that holds the latest
+ * end day below each node. A query only visits the plans that start before the range ends, and
+ * skips every branch that ends before the range starts. The sorted array is rebuilt the first time
+ * it is queried after a change.
+ * @param <T> the type of the values stored with each interval
+ */
+public class MealPlanIntervalIndex<T> {
+
+    /**
+     * A range of days, both ends included, with the value stored for it
+     */
+    private static class Interval<T> {
+        private final long start;
+        private final long end;
+        private final T value;
+
+        Interval(long start, long end, T value) {
+            this.start = start;
+            this.end = end;
+            this.value = value;
+        }
+    }
+
+    private final HashMap<String, Interval<T>> intervals = new HashMap<>();
+    private ArrayList<Interval<T>> sorted = new ArrayList<>();
+    private long[] starts = new long[0];
+    private long[] maxEnds = new long[0];
+    private int leaves;
+    private boolean dirty;
+
+    /**
+     * Adds or replaces the interval for a meal plan. A meal plan that ends before it starts is
+     * stored as a single day.
+     * @param id {@link String} the ID of the meal plan
+     * @param startDay {@link Long} the first day of the meal plan, as an epoch day
+     * @param endDay {@link Long} the last day of the meal plan, as an epoch day
+     * @param value the value to return for the meal plan
+     */
+    public void put(String id, long startDay, long endDay, T value) {
+        intervals.put(id, new Interval<>(startDay, Math.max(startDay, endDay), value));
+        dirty = true;
+    }
+
+    /**
+     * Removes the interval for a meal plan
+     * @param id {@link String} the ID of the meal plan
+     */
+    public void remove(String id) {
+        if (intervals.remove(id) != null) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Removes every interval
+     */
+    public void clear() {
+        intervals.clear();
+        dirty = true;
+    }
+
+    /**
+     * Gets the number of intervals in the index
+     * @return The number of intervals
+     */
+    public int size() {
+        return intervals.size();
+    }
+
+    /**
+     * Finds the values of every interval that shares at least one day with a range
+     * @param fromDay {@link Long} the first day of the range, as an epoch day
+     * @param toDay {@link Long} the last day of the range, as an epoch day
+     * @return {@link List} of the values, in order of their start day
+     */
+    public List<T> query(long fromDay, long toDay) {
+        ArrayList<T> result = new ArrayList<>();
+        if (fromDay > toDay) {
+            return result;
+        }
+        if (dirty) {
+            rebuild();
+        }
+
+        // only the intervals that start on or before the last day can overlap the range
+        int count = upperBound(toDay);
+        if (count > 0) {
+            collect(1, 0, leaves, count, fromDay, result);
+        }
+        return result;
+    }
+
+    /**
+     * Adds the values below a node of the tree that end on or after a day
+     * @param node {@link Integer} the node of the tree
+     * @param lo {@link Integer} the first position covered by the node
+     * @param hi {@link Integer} the position after the last one covered by the node
+     * @param count {@link Integer} the number of positions that can overlap the range
+     * @param fromDay {@link Long} the first day of the range
+     * @param result {@link List} the list the values are added to
+     */
+    private void collect(int node, int lo, int hi, int count, long fromDay, List<T> result) {
+        if (lo >= count || maxEnds[node] < fromDay) {
+            return;
+        }
+        if (hi - lo == 1) {
+            result.add(sorted.get(lo).value);
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        collect(2 * node, lo, mid, count, fromDay, result);
+        collect(2 * node + 1, mid, hi, count, fromDay, result);
+    }
+
+    /**
+     * Counts the intervals that start on or before a day
+     * @param day {@link Long} the day, as an epoch day
+     * @return The number of intervals that start on or before the day
+     */
+    private int upperBound(long day) {
+        int lo = 0;
+        int hi = sorted.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (starts[mid] <= day) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Sorts the intervals by their start day and rebuilds the tree of end days
+     */
+    private void rebuild() {
+        sorted = new ArrayList<>(intervals.values());
+        sorted.sort(Comparator.comparingLong((Interval<T> interval) -> interval.start));
+        int size = sorted.size();
+        starts = new long[size];
+        leaves = 1;
+        while (leaves < size) {
+            leaves <<= 1;
+        }
+        maxEnds = new long[2 * leaves];
+        Arrays.fill(maxEnds, Long.MIN_VALUE);
+        for (int i = 0; i < size; i++) {
+            starts[i] = sorted.get(i).start;
+            maxEnds[leaves + i] = sorted.get(i).end;
+        }
+        for (int node = leaves - 1; node > 0; node--) {
+            maxEnds[node] = Math.max(maxEnds[2 * node], maxEnds[2 * node + 1]);
+        }
+        dirty = false;
+    }
+}
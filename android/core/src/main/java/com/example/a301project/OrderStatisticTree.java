@@ -0,0 +1,208 @@
+package com.example.a301project;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * This class is a sorted collection that can also find the item at a position, both in O(log n)
+ * time. It is a treap, a binary search tree kept balanced by giving each node a random priority,
+ * where every node also counts the nodes below it.
+ *
+ * The comparator must not find two different items equal, so an item can be removed by searching
+ * for it.
+ * @param <E> the type of the items
+ */
+final class OrderStatisticTree<E> {
+    private static final class Node<E> {
+        private final E value;
+        private final int priority;
+        private int size = 1;
+        private Node<E> left;
+        private Node<E> right;
+
+        Node(E value, int priority) {
+            this.value = value;
+            this.priority = priority;
+        }
+    }
+
+    private final Comparator<? super E> comparator;
+    private final Random random = new Random();
+    private Node<E> root;
+
+    /**
+     * Creates an empty tree
+     * @param comparator {@link Comparator} the order of the items
+     */
+    OrderStatisticTree(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * Gets the number of items in the tree
+     * @return The number of items
+     */
+    int size() {
+        return size(root);
+    }
+
+    /**
+     * Adds an item in its sorted position
+     * @param value the item to add
+     */
+    void insert(E value) {
+        Node<E> node = new Node<>(value, random.nextInt());
+        root = insert(root, node);
+    }
+
+    /**
+     * Removes an item
+     * @param value the item to remove, found with the comparator
+     * @return true if the item was in the tree, false otherwise
+     */
+    boolean remove(E value) {
+        int before = size(root);
+        root = remove(root, value);
+        return size(root) != before;
+    }
+
+    /**
+     * Gets the item at a position in the sorted order
+     * @param index {@link Integer} the position of the item
+     * @return The item at the position
+     */
+    E get(int index) {
+        if (index < 0 || index >= size(root)) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size(root));
+        }
+        Node<E> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.value;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Copies every item, in the sorted order. The tree is walked once, so this takes O(n) time
+     * instead of the O(n log n) of getting each position.
+     * @return {@link ArrayList} of the items
+     */
+    ArrayList<E> toList() {
+        ArrayList<E> items = new ArrayList<>(size(root));
+        ArrayDeque<Node<E>> path = new ArrayDeque<>();
+        Node<E> node = root;
+        while (node != null || !path.isEmpty()) {
+            while (node != null) {
+                path.push(node);
+                node = node.left;
+            }
+            node = path.pop();
+            items.add(node.value);
+            node = node.right;
+        }
+        return items;
+    }
+
+    /**
+     * Removes every item
+     */
+    void clear() {
+        root = null;
+    }
+
+    private Node<E> insert(Node<E> node, Node<E> added) {
+        if (node == null) {
+            return added;
+        }
+        if (added.priority > node.priority) {
+            // the new node becomes the root of this subtree, and the subtree is split around it
+            split(node, added.value, added);
+            update(added);
+            return added;
+        }
+        if (comparator.compare(added.value, node.value) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        update(node);
+        return node;
+    }
+
+    /**
+     * Splits a subtree into the items before a value, stored as the left child of a node, and
+     * the rest, stored as its right child
+     */
+    private void split(Node<E> node, E value, Node<E> into) {
+        if (node == null) {
+            into.left = null;
+            into.right = null;
+            return;
+        }
+        if (comparator.compare(value, node.value) <= 0) {
+            split(node.left, value, into);
+            node.left = into.right;
+            update(node);
+            into.right = node;
+        } else {
+            split(node.right, value, into);
+            node.right = into.left;
+            update(node);
+            into.left = node;
+        }
+    }
+
+    private Node<E> remove(Node<E> node, E value) {
+        if (node == null) {
+            return null;
+        }
+        int compare = comparator.compare(value, node.value);
+        if (compare == 0) {
+            return merge(node.left, node.right);
+        }
+        if (compare < 0) {
+            node.left = remove(node.left, value);
+        } else {
+            node.right = remove(node.right, value);
+        }
+        update(node);
+        return node;
+    }
+
+    /**
+     * Joins two subtrees, where every item of the first comes before every item of the second
+     */
+    private Node<E> merge(Node<E> left, Node<E> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static <E> int size(Node<E> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static <E> void update(Node<E> node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+}
@@ -0,0 +1,292 @@
+package com.example.a301project;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.PriorityQueue;
+
+/**
+ * This class ranks recipes by how much of their ingredient list is already in storage, to show the
+ * recipes the user can cook now. Every ingredient name is given a small number, and the names of
+ * each recipe and of storage are kept as bitsets, so the names a recipe has in storage are counted
+ * with one AND and a bit count for every 64 names instead of comparing each ingredient.
+ *
+ * Recipes and ingredients in storage are both kept up to date one document at a time. A name only
+ * changes the count of the recipes that use it, and only when it is first added to storage or the
+ * last of it is removed, so the ranking is ready as soon as it is asked for.
+ */
+public class PantryCoverageMatcher implements DocumentCollection<Recipe> {
+
+    /**
+     * The slots of the recipes that use a name
+     */
+    private static final class Posting {
+        private int[] slots = new int[4];
+        private int size;
+
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+
+        void remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    slots[i] = slots[--size];
+                    return;
+                }
+            }
+        }
+    }
+
+    private final HashMap<String, Integer> nameIds = new HashMap<>();
+    private final ArrayList<Posting> recipesByName = new ArrayList<>();
+    private final HashMap<String, Integer> slotsById = new HashMap<>();
+    private final ArrayList<Recipe> recipes = new ArrayList<>();
+    private final ArrayList<long[]> recipeBits = new ArrayList<>();
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private int[] covered = new int[16];
+    private int[] totals = new int[16];
+    // the ingredients in storage, and how many of them have each name
+    private final HashMap<String, Integer> pantryNames = new HashMap<>();
+    private int[] pantryCounts = new int[64];
+    private long[] pantryBits = new long[1];
+
+    /**
+     * Gets the number of a name, giving it the next number if it does not have one yet
+     * @param name {@link String} the name of an ingredient
+     * @return The number of the name
+     */
+    private int idOf(String name) {
+        String key = ShoppingListReconciler.keyOf(name.trim());
+        Integer id = nameIds.get(key);
+        if (id == null) {
+            id = nameIds.size();
+            nameIds.put(key, id);
+            recipesByName.add(new Posting());
+        }
+        return id;
+    }
+
+    /**
+     * Adds the recipe of a document, or replaces the recipe of a document that changed
+     * @param id {@link String} the ID of the document
+     * @param recipe {@link Recipe} the recipe made from the document
+     */
+    @Override
+    public synchronized void put(String id, Recipe recipe) {
+        remove(id);
+
+        // the names of the recipe, each only once
+        long[] bits = new long[1];
+        int total = 0;
+        if (recipe.getIngredients() != null) {
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                if (ingredient.getName() == null || ingredient.getName().trim().isEmpty()) {
+                    continue;
+                }
+                int nameId = idOf(ingredient.getName());
+                if (nameId / 64 >= bits.length) {
+                    bits = Arrays.copyOf(bits, nameId / 64 + 1);
+                }
+                if ((bits[nameId / 64] & (1L << nameId)) == 0) {
+                    bits[nameId / 64] |= 1L << nameId;
+                    total++;
+                }
+            }
+        }
+
+        int slot;
+        if (freeSlots.isEmpty()) {
+            slot = recipes.size();
+            recipes.add(recipe);
+            recipeBits.add(bits);
+            if (slot == covered.length) {
+                covered = Arrays.copyOf(covered, slot * 2);
+                totals = Arrays.copyOf(totals, slot * 2);
+            }
+        } else {
+            slot = freeSlots.pop();
+            recipes.set(slot, recipe);
+            recipeBits.set(slot, bits);
+        }
+        slotsById.put(id, slot);
+        totals[slot] = total;
+
+        // the names the recipe has in storage are counted once, and then kept up to date by storage
+        int count = 0;
+        for (int word = 0; word < bits.length; word++) {
+            if (word < pantryBits.length) {
+                count += Long.bitCount(bits[word] & pantryBits[word]);
+            }
+            for (long rest = bits[word]; rest != 0; rest &= rest - 1) {
+                recipesByName.get(word * 64 + Long.numberOfTrailingZeros(rest)).add(slot);
+            }
+        }
+        covered[slot] = count;
+    }
+
+    /**
+     * Removes the recipe of a document that was removed
+     * @param id {@link String} the ID of the document
+     * @return The {@link Recipe} that was removed, or null if there was none
+     */
+    @Override
+    public synchronized Recipe remove(String id) {
+        Integer slot = slotsById.remove(id);
+        if (slot == null) {
+            return null;
+        }
+        long[] bits = recipeBits.get(slot);
+        for (int word = 0; word < bits.length; word++) {
+            for (long rest = bits[word]; rest != 0; rest &= rest - 1) {
+                recipesByName.get(word * 64 + Long.numberOfTrailingZeros(rest)).remove(slot);
+            }
+        }
+        Recipe recipe = recipes.get(slot);
+        recipes.set(slot, null);
+        recipeBits.set(slot, null);
+        freeSlots.push(slot);
+        return recipe;
+    }
+
+    /**
+     * Adds an ingredient in storage, or replaces one that changed. Only ingredients with an
+     * amount left count as being in storage.
+     * @param id {@link String} the ID of the ingredient
+     * @param ingredient {@link Ingredient} the ingredient
+     */
+    public synchronized void putIngredient(String id, Ingredient ingredient) {
+        removeIngredient(id);
+        if (ingredient.getName() == null || ingredient.getName().trim().isEmpty()
+                || ingredient.getAmount() == null || ingredient.getAmount() <= 0) {
+            return;
+        }
+        int nameId = idOf(ingredient.getName());
+        pantryNames.put(id, nameId);
+        if (nameId >= pantryCounts.length) {
+            pantryCounts = Arrays.copyOf(pantryCounts, Math.max(nameId + 1, pantryCounts.length * 2));
+        }
+        if (pantryCounts[nameId]++ == 0) {
+            setInPantry(nameId, true);
+        }
+    }
+
+    /**
+     * Removes an ingredient from storage
+     * @param id {@link String} the ID of the ingredient
+     */
+    public synchronized void removeIngredient(String id) {
+        Integer nameId = pantryNames.remove(id);
+        if (nameId != null && --pantryCounts[nameId] == 0) {
+            setInPantry(nameId, false);
+        }
+    }
+
+    /**
+     * Gets a view of storage, to keep it up to date from the ingredient collection
+     * @return {@link DocumentCollection} that adds and removes ingredients in storage
+     */
+    public DocumentCollection<Ingredient> pantry() {
+        return new DocumentCollection<Ingredient>() {
+            @Override
+            public void put(String id, Ingredient ingredient) {
+                putIngredient(id, ingredient);
+            }
+
+            @Override
+            public Ingredient remove(String id) {
+                removeIngredient(id);
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Adds a name to storage or removes it, and changes the count of every recipe that uses it
+     * @param nameId {@link int} the number of the name
+     * @param inPantry {@link boolean} true if the name is now in storage
+     */
+    private void setInPantry(int nameId, boolean inPantry) {
+        if (nameId / 64 >= pantryBits.length) {
+            pantryBits = Arrays.copyOf(pantryBits, Math.max(nameId / 64 + 1, pantryBits.length * 2));
+        }
+        if (inPantry) {
+            pantryBits[nameId / 64] |= 1L << nameId;
+        } else {
+            pantryBits[nameId / 64] &= ~(1L << nameId);
+        }
+        Posting posting = recipesByName.get(nameId);
+        for (int i = 0; i < posting.size; i++) {
+            covered[posting.slots[i]] += inPantry ? 1 : -1;
+        }
+    }
+
+    /**
+     * Removes every recipe and ingredient
+     */
+    public synchronized void clear() {
+        nameIds.clear();
+        recipesByName.clear();
+        slotsById.clear();
+        recipes.clear();
+        recipeBits.clear();
+        freeSlots.clear();
+        covered = new int[16];
+        totals = new int[16];
+        pantryNames.clear();
+        pantryCounts = new int[64];
+        pantryBits = new long[1];
+    }
+
+    /**
+     * Gets how many of the ingredients of a recipe are in storage
+     * @param id {@link String} the ID of the document of the recipe
+     * @return The number of its ingredient names in storage, or 0 if the recipe is not in the matcher
+     */
+    public synchronized int coveredOf(String id) {
+        Integer slot = slotsById.get(id);
+        return slot == null ? 0 : covered[slot];
+    }
+
+    /**
+     * Gets the recipes that have the most of their ingredients in storage. Recipes are ranked by
+     * the part of their ingredients in storage, then by the number of them, and recipes with none
+     * of their ingredients in storage are left out.
+     * @param limit {@link Integer} the most recipes to return
+     * @return {@link ArrayList} of the recipes, the one with the most in storage first
+     */
+    public synchronized ArrayList<Recipe> topRecipes(int limit) {
+        ArrayList<Recipe> found = new ArrayList<>();
+        if (limit <= 0) {
+            return found;
+        }
+        // keep the best recipes in a min-heap, so the worst of them is replaced first
+        PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1, (a, b) -> {
+            // compare covered[a] / totals[a] with covered[b] / totals[b] without dividing
+            int byPart = Long.compare((long) covered[a] * totals[b], (long) covered[b] * totals[a]);
+            if (byPart != 0) return byPart;
+            if (covered[a] != covered[b]) return Integer.compare(covered[a], covered[b]);
+            return Integer.compare(b, a);
+        });
+        for (int slot = 0; slot < recipes.size(); slot++) {
+            if (recipes.get(slot) == null || covered[slot] == 0) {
+                continue;
+            }
+            best.add(slot);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        while (!best.isEmpty()) {
+            found.add(recipes.get(best.poll()));
+        }
+        // the heap gives the worst recipe first
+        Collections.reverse(found);
+        return found;
+    }
+}
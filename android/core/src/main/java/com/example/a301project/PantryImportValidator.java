@@ -0,0 +1,147 @@
+package com.example.a301project;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * This class checks the rows of an imported file before they are added to the ingredient storage.
+ * A row needs a name, a positive amount and a best before date in the format "yyyy-MM-dd", and
+ * its unit, category and location must be one of the options the user can pick in the
+ * AddEditIngredientFragment. The options are matched ignoring case, and the ingredient takes the
+ * spelling of the option.
+ *
+ * Rows that are not valid are skipped, and the first few reasons are kept to show the user.
+ */
+public class PantryImportValidator {
+    /**
+     * The most reasons for skipped rows that are kept
+     */
+    public static final int MAX_ERRORS = 10;
+
+    private final Map<String, String> units;
+    private final Map<String, String> categories;
+    private final Map<String, String> locations;
+    private final ArrayList<String> errors = new ArrayList<>();
+    private int rejected;
+
+    /**
+     * Creates a validator for the options the user can pick
+     * @param units the names of the units
+     * @param categories the names of the categories
+     * @param locations the names of the locations
+     */
+    public PantryImportValidator(Iterable<? extends CharSequence> units,
+                                 Iterable<? extends CharSequence> categories,
+                                 Iterable<? extends CharSequence> locations) {
+        this.units = optionsOf(units);
+        this.categories = optionsOf(categories);
+        this.locations = optionsOf(locations);
+    }
+
+    /**
+     * Maps the case-folded key of each option to its spelling
+     * @param names the names of the options
+     * @return {@link Map} of each key to its option
+     */
+    private static Map<String, String> optionsOf(Iterable<? extends CharSequence> names) {
+        HashMap<String, String> options = new HashMap<>();
+        for (CharSequence name : names) {
+            String option = name.toString().trim();
+            options.putIfAbsent(option.toLowerCase(Locale.ROOT), option);
+        }
+        return options;
+    }
+
+    /**
+     * Makes an {@link Ingredient} from a row, if it is valid
+     * @param row {@link Map} of the column of each field to its value
+     * @param line {@link int} the line the row is on, for the reason it is skipped
+     * @return The {@link Ingredient}, or null if the row was skipped
+     */
+    public Ingredient validate(Map<String, String> row, int line) {
+        String name = valueOf(row, "name");
+        if (name.isEmpty()) {
+            return reject(line, "has no name");
+        }
+        double amount;
+        try {
+            amount = Double.parseDouble(valueOf(row, "amount"));
+        } catch (NumberFormatException e) {
+            return reject(line, "has no amount");
+        }
+        if (!(amount > 0) || Double.isInfinite(amount)) {
+            return reject(line, "has an amount that is not positive");
+        }
+        long bestBeforeDay = DateUtils.parseEpochDay(valueOf(row, "bestbeforedate"), Ingredient.NO_BEST_BEFORE);
+        if (bestBeforeDay == Ingredient.NO_BEST_BEFORE) {
+            return reject(line, "has no best before date in the format " + DateUtils.DATE_PATTERN);
+        }
+        String unit = optionOf(units, valueOf(row, "unit"));
+        if (unit == null) {
+            return reject(line, "has an unknown unit \"" + valueOf(row, "unit") + "\"");
+        }
+        String category = optionOf(categories, valueOf(row, "category"));
+        if (category == null) {
+            return reject(line, "has an unknown category \"" + valueOf(row, "category") + "\"");
+        }
+        String location = optionOf(locations, valueOf(row, "location"));
+        if (location == null) {
+            return reject(line, "has an unknown location \"" + valueOf(row, "location") + "\"");
+        }
+        return new Ingredient(name, amount, bestBeforeDay, location, unit, category);
+    }
+
+    /**
+     * Gets the trimmed value of a field
+     * @param row {@link Map} of the column of each field to its value
+     * @param column {@link String} the column of the field
+     * @return The value, which is empty if the field is missing
+     */
+    private static String valueOf(Map<String, String> row, String column) {
+        String value = row.get(column);
+        return value == null ? "" : value.trim();
+    }
+
+    /**
+     * Finds the option of a value, ignoring case
+     * @param options {@link Map} of each key to its option
+     * @param value {@link String} the value to find
+     * @return The option, or null if there is none
+     */
+    private static String optionOf(Map<String, String> options, String value) {
+        return options.get(value.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Skips a row
+     * @param line {@link int} the line the row is on
+     * @param reason {@link String} why the row is skipped
+     * @return null
+     */
+    private Ingredient reject(int line, String reason) {
+        rejected++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add("Line " + line + " " + reason);
+        }
+        return null;
+    }
+
+    /**
+     * Gets the number of rows that were skipped
+     * @return The number of skipped rows
+     */
+    public int getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Gets the reasons the first rows were skipped
+     * @return {@link List} of at most {@link #MAX_ERRORS} reasons
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.a301project;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * This class decides which pantry lots the meal plans use up, for one ingredient name in one base
+ * unit. Lots are used first-expiring-first-out: the meal plans that start first take the lots with
+ * the earliest best before date, and a lot can't be used by a meal plan that starts after it expires.
+ *
+ * The lots are kept by best before date and the needs by start date, in sorted maps that are
+ * changed as the storage and the meal plans change. An allocation walks both maps once, so nothing
+ * is sorted again when the shopping list is recalculated. Lots with the same best before date, and
+ * needs with the same start date, are added together, since it makes no difference which of them
+ * is used.
+ */
+public class PantryLotAllocator {
+    // the start of a need that is part of every day, such as a meal plan without dates
+    public static final long NO_START = Long.MIN_VALUE;
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * An amount of the lots with one best before date that is used
+     */
+    public static class LotUse {
+        private final long bestBeforeDay;
+        private final double amount;
+
+        LotUse(long bestBeforeDay, double amount) {
+            this.bestBeforeDay = bestBeforeDay;
+            this.amount = amount;
+        }
+
+        /**
+         * Gets the best before date of the lots that are used
+         * @return The best before date, as an epoch day
+         */
+        public long getBestBeforeDay() {return this.bestBeforeDay;}
+
+        /**
+         * Gets the amount of the lots that is used
+         * @return The amount used, in the base unit
+         */
+        public double getAmount() {return this.amount;}
+    }
+
+    /**
+     * What the meal plans that start on the same day take from the pantry, and what they still
+     * need after that
+     */
+    public static class Allocation {
+        private final long startDay;
+        private final ArrayList<LotUse> lotUses = new ArrayList<>();
+        private double shortfall;
+
+        Allocation(long startDay) {
+            this.startDay = startDay;
+        }
+
+        /**
+         * Gets the start date of the meal plans
+         * @return The start date, as an epoch day, or {@link #NO_START}
+         */
+        public long getStartDay() {return this.startDay;}
+
+        /**
+         * Gets the lots the meal plans use, in the order they are used
+         * @return {@link List} of {@link LotUse}
+         */
+        public List<LotUse> getLotUses() {return this.lotUses;}
+
+        /**
+         * Gets the amount the pantry does not have enough of for the meal plans
+         * @return The amount, in the base unit
+         */
+        public double getShortfall() {return this.shortfall;}
+    }
+
+    private final TreeMap<Long, Double> lots = new TreeMap<>();
+    private final TreeMap<Long, Double> needs = new TreeMap<>();
+
+    /**
+     * Adds an amount to the lots with a best before date
+     * @param bestBeforeDay {@link Long} the best before date, as an epoch day
+     * @param amount {@link Double} the amount, in the base unit, to add (or take out if negative)
+     */
+    void addLot(long bestBeforeDay, double amount) {
+        add(lots, bestBeforeDay, amount);
+    }
+
+    /**
+     * Adds an amount to what the meal plans that start on a day need
+     * @param startDay {@link Long} the start date, as an epoch day, or {@link #NO_START}
+     * @param amount {@link Double} the amount, in the base unit, to add (or take out if negative)
+     */
+    void addNeed(long startDay, double amount) {
+        add(needs, startDay, amount);
+    }
+
+    /**
+     * Removes every lot, once nothing is stored anymore
+     */
+    void clearLots() {
+        lots.clear();
+    }
+
+    /**
+     * Removes every need, once nothing is needed anymore
+     */
+    void clearNeeds() {
+        needs.clear();
+    }
+
+    /**
+     * Adds an amount to a day in a map, and removes the day once nothing is left of it
+     * @param days {@link TreeMap} the lots or the needs
+     * @param day {@link Long} the day, as an epoch day
+     * @param amount {@link Double} the amount to add
+     */
+    private static void add(TreeMap<Long, Double> days, long day, double amount) {
+        Double previous = days.get(day);
+        double total = (previous == null ? 0 : previous) + amount;
+        if (Math.abs(total) < EPSILON) {
+            days.remove(day);
+        } else {
+            days.put(day, total);
+        }
+    }
+
+    /**
+     * Decides which lots the needs use
+     * @return {@link ArrayList} of an {@link Allocation} for each start date, in order
+     */
+    public ArrayList<Allocation> allocate() {
+        return allocate(needs);
+    }
+
+    /**
+     * Decides which lots the needs use, together with the needs of amounts that were given
+     * without a unit, which are taken to be in the unit of the lots
+     * @param extra {@link PantryLotAllocator} that holds the other needs
+     * @param factor {@link Double} how many base units one of the other needs is
+     * @return {@link ArrayList} of an {@link Allocation} for each start date, in order
+     */
+    public ArrayList<Allocation> allocate(PantryLotAllocator extra, double factor) {
+        TreeMap<Long, Double> combined = new TreeMap<>(needs);
+        for (Map.Entry<Long, Double> need : extra.needs.entrySet()) {
+            add(combined, need.getKey(), need.getValue() * factor);
+        }
+        return allocate(combined);
+    }
+
+    /**
+     * Gets the amount the pantry does not have enough of for all the needs
+     * @param allocations {@link List} of {@link Allocation} from {@link #allocate()}
+     * @return The total shortfall, in the base unit
+     */
+    public static double shortfallOf(List<Allocation> allocations) {
+        double shortfall = 0;
+        for (Allocation allocation : allocations) {
+            shortfall += allocation.shortfall;
+        }
+        return shortfall;
+    }
+
+    /**
+     * Goes through the needs in order of start date and takes each from the lots that expire first.
+     * Lots that expire before a need starts are passed over, and since the needs only start later
+     * from there, they are not looked at again. The lots themselves are not changed.
+     * @param needs {@link TreeMap} of the start date of each need to its amount
+     * @return {@link ArrayList} of an {@link Allocation} for each start date, in order
+     */
+    private ArrayList<Allocation> allocate(TreeMap<Long, Double> needs) {
+        ArrayList<Allocation> allocations = new ArrayList<>(needs.size());
+        Iterator<Map.Entry<Long, Double>> lot = lots.entrySet().iterator();
+        Map.Entry<Long, Double> head = null;
+        double headRemaining = 0;
+
+        for (Map.Entry<Long, Double> need : needs.entrySet()) {
+            Allocation allocation = new Allocation(need.getKey());
+            double needed = need.getValue();
+            while (needed > EPSILON) {
+                if (head == null || headRemaining <= EPSILON || head.getKey() < need.getKey()) {
+                    // move on to the next lot that has something left and is still good on the start date
+                    head = null;
+                    while (lot.hasNext()) {
+                        Map.Entry<Long, Double> next = lot.next();
+                        if (next.getKey() >= need.getKey() && next.getValue() > EPSILON) {
+                            head = next;
+                            headRemaining = next.getValue();
+                            break;
+                        }
+                    }
+                    if (head == null) {
+                        break;
+                    }
+                }
+                double used = Math.min(needed, headRemaining);
+                allocation.lotUses.add(new LotUse(head.getKey(), used));
+                needed -= used;
+                headRemaining -= used;
+            }
+            allocation.shortfall = Math.max(0, needed);
+            allocations.add(allocation);
+        }
+        return allocations;
+    }
+}
@@ -0,0 +1,349 @@
+package com.example.a301project;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * This class is the summary of a user's ingredient storage, kept in a single Firebase document so
+ * the shopping list can read the storage without reading every {@link Ingredient} document.
+ *
+ * The summary only holds the total amount and the number of ingredients of each name and unit, and
+ * how much of the total is best before each date, so the document grows with the number of
+ * different ingredients and dates instead of with every ingredient.
+ * A summary is also used for the change an edit makes to the storage, which is added to the
+ * document with increments, so edits made at the same time on other devices add up.
+ *
+ * Only a summary made from every ingredient has the current {@link #CURRENT_VERSION}, so one that
+ * was started by increments, or was written in an older format, is made again from the ingredients.
+ */
+public class PantrySummary {
+    public static final String TOTALS = "Totals";
+    public static final String INGREDIENTS = "Ingredients";
+    public static final String NAME = "Name";
+    public static final String UNIT = "Unit";
+    public static final String CATEGORY = "Category";
+    public static final String AMOUNT = "Amount";
+    public static final String LOTS = "Lots";
+    public static final String DAYS = "Days";
+    public static final String VERSION = "Version";
+    public static final long CURRENT_VERSION = 3;
+    // a total that is left with no ingredients and less than this is gone, not a rounding error
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * The total amount of the ingredients with the same name and unit
+     */
+    private static class Total {
+        private final String name;
+        private final String unit;
+        private final String category;
+        private double amount;
+        private long lots;
+        private final TreeMap<Long, Double> days = new TreeMap<>();
+
+        Total(String name, String unit, String category) {
+            this.name = name;
+            this.unit = unit;
+            this.category = category;
+        }
+    }
+
+    /**
+     * Called with each total in the summary
+     */
+    public interface totalHandler {
+        void f(String key, ShoppingItem item, long lots, Map<Long, Double> days);
+    }
+
+    private final LinkedHashMap<String, Total> totals = new LinkedHashMap<>();
+    private long ingredients;
+    private long version = CURRENT_VERSION;
+
+    /**
+     * Gets the key that identifies the total of a name and unit, ignoring case
+     * @param name {@link String} the name of the ingredient
+     * @param unit {@link String} the unit of the ingredient, may be null
+     * @return The key of the total
+     */
+    public static String keyOf(String name, String unit) {
+        String unitKey = unit == null ? "" : unit.trim().toLowerCase(Locale.ROOT);
+        return ShoppingListReconciler.keyOf(name.trim()) + "|" + unitKey;
+    }
+
+    /**
+     * Makes the change an edit of an ingredient makes to the storage
+     * @param before {@link Ingredient} the ingredient before the edit, or null if it was added
+     * @param after {@link Ingredient} the ingredient after the edit, or null if it was removed
+     * @return The {@link PantrySummary} of the change, which is empty if the edit changed nothing
+     * the summary holds
+     */
+    public static PantrySummary changeOf(Ingredient before, Ingredient after) {
+        PantrySummary change = new PantrySummary();
+        if (before != null) {
+            change.subtract(before);
+        }
+        if (after != null) {
+            change.add(after);
+        }
+        return change;
+    }
+
+    /**
+     * Makes the change from one summary to another, such as between two reads of the summary
+     * document. The totals that are the same in both are left out.
+     * @param before {@link PantrySummary} the summary before
+     * @param after {@link PantrySummary} the summary after
+     * @return The {@link PantrySummary} that adds up to after when it is added to before
+     */
+    public static PantrySummary difference(PantrySummary before, PantrySummary after) {
+        PantrySummary change = before.inverse();
+        change.addAll(after);
+        return change;
+    }
+
+    /**
+     * Adds an ingredient to its total
+     * @param ingredient {@link Ingredient} the ingredient
+     */
+    public void add(Ingredient ingredient) {
+        change(ingredient, 1);
+    }
+
+    /**
+     * Takes an ingredient out of its total
+     * @param ingredient {@link Ingredient} the ingredient
+     */
+    public void subtract(Ingredient ingredient) {
+        change(ingredient, -1);
+    }
+
+    /**
+     * Adds an ingredient to its total, or takes it out
+     * @param ingredient {@link Ingredient} the ingredient
+     * @param sign {@link Integer} +1 to add the ingredient, -1 to take it out
+     */
+    private void change(Ingredient ingredient, int sign) {
+        ingredients += sign;
+        if (ingredient.getName() == null) {
+            return;
+        }
+        double amount = ingredient.getAmount() == null ? 0 : ingredient.getAmount();
+        addTotal(keyOf(ingredient.getName(), ingredient.getUnit()), ingredient.getName().trim(),
+                ingredient.getUnit(), ingredient.getCategory(), sign * amount, sign,
+                Collections.singletonMap(ingredient.bestBeforeDay(), sign * amount));
+    }
+
+    /**
+     * Adds the totals of another summary, such as the ingredients of an import
+     * @param other {@link PantrySummary} the summary to add
+     */
+    public void addAll(PantrySummary other) {
+        ingredients += other.ingredients;
+        for (Map.Entry<String, Total> entry : other.totals.entrySet()) {
+            Total total = entry.getValue();
+            addTotal(entry.getKey(), total.name, total.unit, total.category, total.amount, total.lots, total.days);
+        }
+    }
+
+    /**
+     * Changes the total of a name and unit
+     * @param key {@link String} the key of the total
+     * @param name {@link String} the name of the ingredients
+     * @param unit {@link String} the unit of the ingredients
+     * @param category {@link String} the category of the ingredients
+     * @param amount {@link Double} the amount to add (or take out if negative)
+     * @param lots {@link Long} the number of ingredients to add (or take out if negative)
+     * @param days {@link Map} of each best before date, as an epoch day, to the amount to add to it
+     */
+    private void addTotal(String key, String name, String unit, String category, double amount, long lots,
+                          Map<Long, Double> days) {
+        Total total = totals.get(key);
+        if (total == null) {
+            total = new Total(name, unit, category);
+            totals.put(key, total);
+        }
+        total.amount += amount;
+        total.lots += lots;
+        for (Map.Entry<Long, Double> day : days.entrySet()) {
+            Double previous = total.days.get(day.getKey());
+            double dayAmount = (previous == null ? 0 : previous) + day.getValue();
+            if (Math.abs(dayAmount) < EPSILON) {
+                total.days.remove(day.getKey());
+            } else {
+                total.days.put(day.getKey(), dayAmount);
+            }
+        }
+        // a change of only the best before date leaves the amount and count as they were
+        if (total.lots == 0 && Math.abs(total.amount) < EPSILON && total.days.isEmpty()) {
+            totals.remove(key);
+        }
+    }
+
+    /**
+     * Makes the change that undoes this one, such as for an edit that could not be written
+     * @return The {@link PantrySummary} with every total and count taken out instead of added
+     */
+    public PantrySummary inverse() {
+        PantrySummary inverse = new PantrySummary();
+        inverse.ingredients = -ingredients;
+        for (Map.Entry<String, Total> entry : totals.entrySet()) {
+            Total total = entry.getValue();
+            HashMap<Long, Double> days = new HashMap<>();
+            total.days.forEach((day, amount) -> days.put(day, -amount));
+            inverse.addTotal(entry.getKey(), total.name, total.unit, total.category, -total.amount, -total.lots, days);
+        }
+        return inverse;
+    }
+
+    /**
+     * Checks if the summary has no totals and no ingredients, such as the change of an edit that
+     * did not change the name, unit or amount of an ingredient
+     * @return true if the summary is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return ingredients == 0 && totals.isEmpty();
+    }
+
+    /**
+     * Checks if the summary can be trusted: it was made from every ingredient in the current
+     * format, and no total has been taken below nothing by increments that did not match
+     * @return true if the summary can be used, false if it has to be made again
+     */
+    public boolean isConsistent() {
+        if (version != CURRENT_VERSION || ingredients < 0) {
+            return false;
+        }
+        for (Total total : totals.values()) {
+            if (total.lots < 0 || total.amount < -EPSILON) {
+                return false;
+            }
+            for (double amount : total.days.values()) {
+                if (amount < -EPSILON) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the number of ingredients in the summary, including the ones without a name
+     * @return The number of ingredients
+     */
+    public long getIngredientCount() {
+        return ingredients;
+    }
+
+    /**
+     * Gets the total amount of each name and unit
+     * @return {@link ArrayList} of a {@link ShoppingItem} for each total
+     */
+    public ArrayList<ShoppingItem> getTotals() {
+        ArrayList<ShoppingItem> items = new ArrayList<>(totals.size());
+        forEachTotal((key, item, lots, days) -> items.add(item));
+        return items;
+    }
+
+    /**
+     * Calls a handler with every total in the summary
+     * @param handler {@link totalHandler} called with the key, the item, the number of
+     *                ingredients and the amount best before each date of each total
+     */
+    public void forEachTotal(totalHandler handler) {
+        for (Map.Entry<String, Total> entry : totals.entrySet()) {
+            Total total = entry.getValue();
+            handler.f(entry.getKey(), new ShoppingItem(total.name, total.amount, total.unit, total.category),
+                    total.lots, Collections.unmodifiableMap(total.days));
+        }
+    }
+
+    /**
+     * Converts the summary to the fields of its Firebase document
+     * @return {@link Map} of the fields of the document
+     */
+    public Map<String, Object> toMap() {
+        HashMap<String, Object> totalFields = new HashMap<>();
+        for (Map.Entry<String, Total> entry : totals.entrySet()) {
+            Total total = entry.getValue();
+            HashMap<String, Object> fields = new HashMap<>();
+            fields.put(NAME, total.name);
+            fields.put(UNIT, total.unit);
+            fields.put(CATEGORY, total.category);
+            fields.put(AMOUNT, total.amount);
+            fields.put(LOTS, total.lots);
+            fields.put(DAYS, daysToMap(total.days));
+            totalFields.put(entry.getKey(), fields);
+        }
+        HashMap<String, Object> data = new HashMap<>();
+        data.put(TOTALS, totalFields);
+        data.put(INGREDIENTS, ingredients);
+        data.put(VERSION, CURRENT_VERSION);
+        return data;
+    }
+
+    /**
+     * Makes a summary from the fields of its Firebase document. Totals that have no ingredients
+     * left are skipped, since increments leave them in the document. A document without a version
+     * gives a summary that is not {@link #isConsistent()}.
+     * @param data {@link Map} of the fields of the document, may be null
+     * @return The {@link PantrySummary}, which is empty if there are no fields
+     */
+    @SuppressWarnings("unchecked")
+    public static PantrySummary fromMap(Map<String, Object> data) {
+        PantrySummary summary = new PantrySummary();
+        if (data == null) {
+            return summary;
+        }
+        Map<String, Map<String, Object>> totalFields = (Map<String, Map<String, Object>>) data.get(TOTALS);
+        if (totalFields != null) {
+            for (Map.Entry<String, Map<String, Object>> entry : totalFields.entrySet()) {
+                Map<String, Object> fields = entry.getValue();
+                Total total = new Total((String) fields.get(NAME), (String) fields.get(UNIT), (String) fields.get(CATEGORY));
+                total.amount = numberOf(fields.get(AMOUNT)).doubleValue();
+                total.lots = numberOf(fields.get(LOTS)).longValue();
+                Map<String, Object> days = (Map<String, Object>) fields.get(DAYS);
+                if (days != null) {
+                    for (Map.Entry<String, Object> day : days.entrySet()) {
+                        double amount = numberOf(day.getValue()).doubleValue();
+                        // increments leave the dates that were used up behind in the document
+                        if (Math.abs(amount) >= EPSILON) {
+                            total.days.put(Long.parseLong(day.getKey()), amount);
+                        }
+                    }
+                }
+                if (total.lots != 0) {
+                    summary.totals.put(entry.getKey(), total);
+                }
+            }
+        }
+        summary.ingredients = numberOf(data.get(INGREDIENTS)).longValue();
+        summary.version = numberOf(data.get(VERSION)).longValue();
+        return summary;
+    }
+
+    /**
+     * Converts the amounts best before each date to the map field of a total. Firebase only has
+     * map fields with text keys, so each date is written as its epoch day.
+     * @param days {@link Map} of each best before date, as an epoch day, to an amount
+     * @return {@link Map} of each epoch day as text to its amount
+     */
+    public static <T> Map<String, T> daysToMap(Map<Long, T> days) {
+        HashMap<String, T> fields = new HashMap<>();
+        days.forEach((day, amount) -> fields.put(Long.toString(day), amount));
+        return fields;
+    }
+
+    /**
+     * Gets a number field of the document, which is missing if it was never set
+     * @param value {@link Object} the value of the field, may be null
+     * @return The {@link Number}, or 0 if the field is missing
+     */
+    private static Number numberOf(Object value) {
+        return value instanceof Number ? (Number) value : 0;
+    }
+}
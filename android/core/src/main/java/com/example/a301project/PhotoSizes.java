@@ -0,0 +1,48 @@
+package com.example.a301project;
+
+/**
+ * This class works out the sizes a recipe photo is decoded and stored at. A photo is decoded at a
+ * fraction of its size that still covers the largest version that is stored, so a photo from a
+ * camera is never held in memory at full size, and each version is scaled to fit a longest edge.
+ */
+public class PhotoSizes {
+
+    private PhotoSizes() {}
+
+    /**
+     * Gets the largest power of two a photo can be sampled down by, so its longest edge is still
+     * at least a given size
+     * @param width {@link int} the width of the photo
+     * @param height {@link int} the height of the photo
+     * @param longestEdge {@link int} the smallest the longest edge can be after sampling
+     * @return The sample size, which is 1 for a photo that is already small enough
+     */
+    public static int sampleSizeOf(int width, int height, int longestEdge) {
+        int edge = Math.max(width, height);
+        int sampleSize = 1;
+        while (edge / (sampleSize * 2) >= longestEdge) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * Gets the size of a photo scaled to fit a longest edge, keeping its shape. Photos that
+     * already fit are not made larger.
+     * @param width {@link int} the width of the photo
+     * @param height {@link int} the height of the photo
+     * @param longestEdge {@link int} the longest the longest edge can be
+     * @return An array of the width and the height
+     */
+    public static int[] fit(int width, int height, int longestEdge) {
+        int edge = Math.max(width, height);
+        if (edge <= longestEdge) {
+            return new int[]{width, height};
+        }
+        double scale = (double) longestEdge / edge;
+        return new int[]{
+                Math.max(1, (int) Math.round(width * scale)),
+                Math.max(1, (int) Math.round(height * scale))
+        };
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.a301project;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class converts the amounts of ingredients to a canonical base unit, so amounts in
+ * different units of the same kind can be added and subtracted. Mass is converted to grams,
+ * volume to millilitres, and every count unit (such as Pieces or Slices) is kept as its own unit.
+ *
+ * The known units and their spellings are held in a table that is built once. Units that are not
+ * in the table, such as custom units added to the IngredientCustomization document, are resolved
+ * the first time they are seen and cached as count units.
+ */
+public class QuantityConverter {
+
+    /**
+     * The kinds of quantity that a unit can measure
+     */
+    public enum Dimension {MASS, VOLUME, COUNT, NONE}
+
+    /**
+     * A unit that an amount can be given in
+     */
+    public static class Unit {
+        private final String key;
+        private final Dimension dimension;
+        private final double factor;
+
+        Unit(String key, Dimension dimension, double factor) {
+            this.key = key;
+            this.dimension = dimension;
+            this.factor = factor;
+        }
+
+        /**
+         * Gets the key that is shared by all the units that can be converted to each other
+         * @return The key of the base unit
+         */
+        public String getKey() {return this.key;}
+
+        /**
+         * Gets the {@link Dimension} the unit measures
+         * @return The {@link Dimension} of the unit
+         */
+        public Dimension getDimension() {return this.dimension;}
+
+        /**
+         * Gets how many base units make up one of this unit
+         * @return The conversion factor to the base unit
+         */
+        public double getFactor() {return this.factor;}
+    }
+
+    /**
+     * The {@link Unit} of an amount that was given without a unit
+     */
+    public static final Unit NO_UNIT = new Unit("", Dimension.NONE, 1);
+
+    private static final Map<String, Unit> KNOWN_UNITS = new HashMap<>();
+    private static final Map<String, Unit> resolvedUnits = new ConcurrentHashMap<>();
+
+    static {
+        Unit gram = new Unit("g", Dimension.MASS, 1);
+        put(gram, "g", "gram", "grams", "gs");
+        put(new Unit("g", Dimension.MASS, 0.001), "mg", "milligram", "milligrams");
+        put(new Unit("g", Dimension.MASS, 1000), "kg", "kgs", "kilo", "kilos", "kilogram", "kilograms");
+        put(new Unit("g", Dimension.MASS, 453.59237), "lb", "lbs", "pound", "pounds");
+        put(new Unit("g", Dimension.MASS, 28.349523125), "oz", "ounce", "ounces");
+
+        put(new Unit("ml", Dimension.VOLUME, 1), "ml", "mls", "millilitre", "millilitres", "milliliter", "milliliters");
+        put(new Unit("ml", Dimension.VOLUME, 1000), "l", "litre", "litres", "liter", "liters");
+        put(new Unit("ml", Dimension.VOLUME, 236.5882365), "cup", "cups");
+        put(new Unit("ml", Dimension.VOLUME, 14.78676478125), "tbsp", "tablespoon", "tablespoons");
+        put(new Unit("ml", Dimension.VOLUME, 4.92892159375), "tsp", "teaspoon", "teaspoons");
+
+        put(new Unit("pieces", Dimension.COUNT, 1), "piece", "pieces", "pc", "pcs");
+        put(new Unit("slices", Dimension.COUNT, 1), "slice", "slices");
+    }
+
+    private QuantityConverter() {}
+
+    /**
+     * Adds a {@link Unit} to the table under all its spellings
+     * @param unit {@link Unit} the unit to add
+     * @param names {@link String} the spellings of the unit
+     */
+    private static void put(Unit unit, String... names) {
+        for (String name : names) {
+            KNOWN_UNITS.put(name, unit);
+        }
+    }
+
+    /**
+     * Finds the {@link Unit} for the name of a unit. Names that are missing, empty or "null" give
+     * {@link #NO_UNIT}, and names that are not known give a count unit of their own.
+     * @param name {@link String} the name of the unit, as entered by the user
+     * @return The {@link Unit} for the name
+     */
+    public static Unit unitOf(String name) {
+        if (name == null) {
+            return NO_UNIT;
+        }
+        Unit unit = resolvedUnits.get(name);
+        if (unit == null) {
+            String key = name.trim().toLowerCase(Locale.ROOT);
+            if (key.isEmpty() || key.equals("null")) {
+                unit = NO_UNIT;
+            } else {
+                unit = KNOWN_UNITS.get(key);
+                if (unit == null) {
+                    unit = new Unit(key, Dimension.COUNT, 1);
+                }
+            }
+            resolvedUnits.put(name, unit);
+        }
+        return unit;
+    }
+
+    /**
+     * Resolves a list of unit names ahead of time, such as the units held in the
+     * IngredientCustomization document, so they are already in the table when amounts are added up
+     * @param names the names of the units
+     */
+    public static void registerUnits(Iterable<? extends CharSequence> names) {
+        for (CharSequence name : names) {
+            unitOf(name.toString());
+        }
+    }
+
+    /**
+     * Converts an amount to the base unit of its {@link Unit}
+     * @param amount {@link Double} the amount in the given unit
+     * @param unit {@link Unit} the unit of the amount
+     * @return The amount in the base unit
+     */
+    public static double toBase(double amount, Unit unit) {
+        return amount * unit.factor;
+    }
+
+    /**
+     * Converts an amount in a base unit to one of the units that share that base
+     * @param amount {@link Double} the amount in the base unit
+     * @param unit {@link Unit} the unit to convert to
+     * @return The amount in the given unit
+     */
+    public static double fromBase(double amount, Unit unit) {
+        return amount / unit.factor;
+    }
+}
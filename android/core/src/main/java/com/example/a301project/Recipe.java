@@ -1,6 +1,7 @@
 package com.example.a301project;
 
 import java.io.Serializable;
+import java.text.CollationKey;
 import java.util.ArrayList;
 
 /**
@@ -12,10 +13,15 @@ public class Recipe implements Serializable {
     private String category;
     private String comments;
     private String photo;
+    private String photoThumbnail;
+    private String photoDetail;
     private Long prepTime;
     private Long servings;
     private ArrayList<Ingredient> ingredients;
     private String id = null;
+    // the sort keys are made when they are first needed after a change, and are not saved
+    private transient CollationKey titleKey;
+    private transient CollationKey categoryKey;
 
     /**
      * Constructor for a {@link Recipe} object with its parameters
@@ -56,6 +62,7 @@ public class Recipe implements Serializable {
      */
     public void setTitle(String title) {
         this.title = title;
+        this.titleKey = null;
     }
 
     /**
@@ -72,6 +79,7 @@ public class Recipe implements Serializable {
      */
     public void setCategory(String category) {
         this.category = category;
+        this.categoryKey = null;
     }
 
     /**
@@ -106,6 +114,38 @@ public class Recipe implements Serializable {
         this.photo = photo;
     }
 
+    /**
+     * gets the URL of the small version of the photo of {@link Recipe} object, shown in lists
+     * @return {@link String} URL of the thumbnail, or null if there is none
+     */
+    public String getPhotoThumbnail() {
+        return photoThumbnail;
+    }
+
+    /**
+     * Sets the URL of the small version of the {@link Recipe} photo
+     * @param photoThumbnail {@link String} URL address of the thumbnail of recipe
+     */
+    public void setPhotoThumbnail(String photoThumbnail) {
+        this.photoThumbnail = photoThumbnail;
+    }
+
+    /**
+     * gets the URL of the version of the photo of {@link Recipe} object shown in the recipe editor
+     * @return {@link String} URL of the detail photo, or null if there is none
+     */
+    public String getPhotoDetail() {
+        return photoDetail;
+    }
+
+    /**
+     * Sets the URL of the version of the {@link Recipe} photo shown in the recipe editor
+     * @param photoDetail {@link String} URL address of the detail photo of recipe
+     */
+    public void setPhotoDetail(String photoDetail) {
+        this.photoDetail = photoDetail;
+    }
+
     /**
      * gets the prep time of {@link Recipe} object
      * @return {@link Long} prep time of photo of Recipe
@@ -168,4 +208,26 @@ public class Recipe implements Serializable {
     public String getId() {
         return this.id;
     }
+
+    /**
+     * Gets the key the {@link Recipe} object is sorted by title with
+     * @return The {@link CollationKey} of the title
+     */
+    CollationKey titleKey() {
+        if (titleKey == null) {
+            titleKey = CollationKeys.of(title);
+        }
+        return titleKey;
+    }
+
+    /**
+     * Gets the key the {@link Recipe} object is sorted by category with
+     * @return The {@link CollationKey} of the category
+     */
+    CollationKey categoryKey() {
+        if (categoryKey == null) {
+            categoryKey = CollationKeys.of(category);
+        }
+        return categoryKey;
+    }
 }
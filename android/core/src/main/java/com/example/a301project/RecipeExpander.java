@@ -0,0 +1,30 @@
+package com.example.a301project;
+
+import java.util.List;
+
+/**
+ * This class expands the recipes in the meal plans into the {@link ShoppingItem} objects they
+ * need, by matching each meal plan recipe with the user's recipes of the same title.
+ */
+public class RecipeExpander {
+
+    private RecipeExpander() {}
+
+    /**
+     * Goes through the recipes in the meal plans and finds every recipe with the same title (ignoring
+     * case). Each ingredient of a matching recipe is added to the needed items, multiplied by the
+     * servings in the meal plans. This builds a {@link RecipeExpansionIndex} for the given recipes,
+     * so callers that expand the same recipes more than once should keep an index instead.
+     * @param mealPlanRecipes {@link List} the {@link Recipe} in the meal plans, with their servings
+     * @param recipes {@link List} the {@link Recipe} the user has, with their ingredients per serving
+     * @param neededItems {@link List} the {@link ShoppingItem} list the ingredients are added to
+     */
+    public static void expand(List<Recipe> mealPlanRecipes, List<Recipe> recipes, List<ShoppingItem> neededItems) {
+        if (mealPlanRecipes == null || recipes == null) {
+            return;
+        }
+        RecipeExpansionIndex index = new RecipeExpansionIndex();
+        index.setRecipes(recipes);
+        index.expand(mealPlanRecipes, neededItems);
+    }
+}
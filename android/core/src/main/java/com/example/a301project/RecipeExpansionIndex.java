@@ -0,0 +1,207 @@
+package com.example.a301project;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class expands the recipes in the meal plans into the {@link ShoppingItem} objects they
+ * need. The ingredients of all the recipes with the same title (ignoring case) are flattened into
+ * one vector for a single serving the first time the title is expanded, and reused until one of
+ * those recipes is added, edited or removed.
+ *
+ * Meal plan recipes are grouped by title before they are expanded, so a recipe that is used many
+ * times only has its vector scaled once, by the total servings. The shared instance returned by
+ * {@link #getInstance()} is kept up to date by the RecipeController.
+ */
+public class RecipeExpansionIndex {
+    private static RecipeExpansionIndex instance;
+
+    /**
+     * The ingredients needed for a single serving of every recipe with the same title
+     */
+    private static class Expansion {
+        private final String[] names;
+        private final double[] amounts;
+        private final String[] units;
+        private final String[] categories;
+
+        Expansion(int size) {
+            this.names = new String[size];
+            this.amounts = new double[size];
+            this.units = new String[size];
+            this.categories = new String[size];
+        }
+    }
+
+    private final HashMap<String, ArrayList<Recipe>> recipesByTitle = new HashMap<>();
+    private final HashMap<String, String> titleKeysById = new HashMap<>();
+    private final HashMap<String, Expansion> expansions = new HashMap<>();
+
+    /**
+     * Gets the shared {@link RecipeExpansionIndex} that the controllers report their changes to
+     * @return The shared {@link RecipeExpansionIndex}
+     */
+    public static synchronized RecipeExpansionIndex getInstance() {
+        if (instance == null) {
+            instance = new RecipeExpansionIndex();
+        }
+        return instance;
+    }
+
+    /**
+     * Replaces every recipe in the index
+     * @param recipes {@link List} the {@link Recipe} the user has
+     */
+    public synchronized void setRecipes(List<Recipe> recipes) {
+        clear();
+        if (recipes != null) {
+            for (Recipe recipe : recipes) {
+                putRecipe(recipe);
+            }
+        }
+    }
+
+    /**
+     * Removes every recipe from the index
+     */
+    public synchronized void clear() {
+        recipesByTitle.clear();
+        titleKeysById.clear();
+        expansions.clear();
+    }
+
+    /**
+     * Adds or replaces a recipe, which discards the cached ingredients of its title
+     * @param recipe {@link Recipe} the recipe that was added or edited
+     */
+    public synchronized void putRecipe(Recipe recipe) {
+        if (recipe.getId() != null) {
+            removeRecipe(recipe.getId());
+        }
+        if (recipe.getTitle() == null) {
+            return;
+        }
+        String titleKey = ShoppingListReconciler.keyOf(recipe.getTitle());
+        ArrayList<Recipe> recipes = recipesByTitle.get(titleKey);
+        if (recipes == null) {
+            recipes = new ArrayList<>(1);
+            recipesByTitle.put(titleKey, recipes);
+        }
+        recipes.add(recipe);
+        if (recipe.getId() != null) {
+            titleKeysById.put(recipe.getId(), titleKey);
+        }
+        expansions.remove(titleKey);
+    }
+
+    /**
+     * Removes a recipe, which discards the cached ingredients of its title
+     * @param id {@link String} the ID of the {@link Recipe} in Firebase
+     */
+    public synchronized void removeRecipe(String id) {
+        String titleKey = titleKeysById.remove(id);
+        if (titleKey == null) {
+            return;
+        }
+        ArrayList<Recipe> recipes = recipesByTitle.get(titleKey);
+        for (int i = 0; i < recipes.size(); i++) {
+            if (id.equals(recipes.get(i).getId())) {
+                recipes.remove(i);
+                break;
+            }
+        }
+        if (recipes.isEmpty()) {
+            recipesByTitle.remove(titleKey);
+        }
+        expansions.remove(titleKey);
+    }
+
+    /**
+     * Adds the ingredients needed by the meal plan recipes to a list. Each ingredient of every
+     * recipe with a matching title is added once per title, multiplied by the total servings of
+     * that title in the meal plans.
+     * @param mealPlanRecipes {@link List} the {@link Recipe} in the meal plans, with their servings
+     * @param neededItems {@link List} the {@link ShoppingItem} list the ingredients are added to
+     */
+    public synchronized void expand(List<Recipe> mealPlanRecipes, List<ShoppingItem> neededItems) {
+        if (mealPlanRecipes == null) {
+            return;
+        }
+
+        // total the servings of each title, in the order the titles first appear
+        LinkedHashMap<String, double[]> servingsByTitle = new LinkedHashMap<>();
+        for (int i = 0; i < mealPlanRecipes.size(); i++) {
+            Recipe recipe = mealPlanRecipes.get(i);
+            if (recipe.getTitle() == null || recipe.getServings() == null) {
+                continue;
+            }
+            String titleKey = ShoppingListReconciler.keyOf(recipe.getTitle());
+            double[] servings = servingsByTitle.get(titleKey);
+            if (servings == null) {
+                servings = new double[1];
+                servingsByTitle.put(titleKey, servings);
+            }
+            servings[0] += recipe.getServings().doubleValue();
+        }
+
+        // scale the ingredients for one serving of each title by its total servings
+        for (Map.Entry<String, double[]> entry : servingsByTitle.entrySet()) {
+            Expansion expansion = getExpansion(entry.getKey());
+            if (expansion == null) {
+                continue;
+            }
+            double servings = entry.getValue()[0];
+            for (int i = 0; i < expansion.names.length; i++) {
+                neededItems.add(new ShoppingItem(
+                        expansion.names[i],
+                        expansion.amounts[i] * servings,
+                        expansion.units[i],
+                        expansion.categories[i]
+                ));
+            }
+        }
+    }
+
+    /**
+     * Gets the ingredients for a single serving of every recipe with a title, flattening them the
+     * first time they are needed
+     * @param titleKey {@link String} the key of the recipe title
+     * @return The {@link Expansion} of the title, or null if no recipe has the title
+     */
+    private Expansion getExpansion(String titleKey) {
+        Expansion expansion = expansions.get(titleKey);
+        if (expansion != null) {
+            return expansion;
+        }
+        ArrayList<Recipe> recipes = recipesByTitle.get(titleKey);
+        if (recipes == null) {
+            return null;
+        }
+
+        int size = 0;
+        for (Recipe recipe : recipes) {
+            if (recipe.getIngredients() != null) {
+                size += recipe.getIngredients().size();
+            }
+        }
+        expansion = new Expansion(size);
+        int i = 0;
+        for (Recipe recipe : recipes) {
+            if (recipe.getIngredients() == null) {
+                continue;
+            }
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                expansion.names[i] = ingredient.getName();
+                expansion.amounts[i] = ingredient.getAmount();
+                expansion.units[i] = ingredient.getUnit();
+                expansion.categories[i] = ingredient.getCategory();
+                i++;
+            }
+        }
+        expansions.put(titleKey, expansion);
+        return expansion;
+    }
+}
@@ -0,0 +1,309 @@
+package com.example.a301project;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * This class finds recipes by the words in their title, category, comments and ingredient names.
+ * It is an inverted index: each word keeps the recipes it appears in, so a search only looks at the
+ * recipes that contain its words instead of every recipe.
+ *
+ * The recipes that contain every word of a search are ranked with BM25. A word counts for more if
+ * few recipes contain it, if it appears more often, and if the recipe has fewer words in all. A word
+ * in the title counts for more than one in the comments. The last word of a search, and any word
+ * ending in "*", also finds the words that start with it, so recipes are found while they are typed.
+ *
+ * The index is kept up to date one document at a time, like the list it is searched from.
+ */
+public class RecipeSearchIndex implements DocumentCollection<Recipe> {
+    static final float TITLE_WEIGHT = 3;
+    static final float CATEGORY_WEIGHT = 2;
+    static final float INGREDIENT_WEIGHT = 2;
+    static final float COMMENTS_WEIGHT = 1;
+    // how quickly more of a word stops counting for more, and how much longer recipes are discounted
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // the most words a prefix finds, so one letter does not look at every word
+    static final int MAX_PREFIX_TERMS = 64;
+
+    /**
+     * The recipes a word appears in, with how much it appears in each
+     */
+    private static final class Posting {
+        private int[] slots = new int[4];
+        private float[] weights = new float[4];
+        private int size;
+
+        void add(int slot, float weight) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            slots[size] = slot;
+            weights[size++] = weight;
+        }
+
+        void remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    // the order does not matter, so the last recipe takes its place
+                    size--;
+                    slots[i] = slots[size];
+                    weights[i] = weights[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    private final TreeMap<String, Posting> postings = new TreeMap<>();
+    private final HashMap<String, Integer> slotsById = new HashMap<>();
+    private final ArrayList<Recipe> recipes = new ArrayList<>();
+    private final ArrayList<String[]> termsBySlot = new ArrayList<>();
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private float[] lengths = new float[16];
+    private double totalLength;
+    private int count;
+
+    /**
+     * Adds the recipe of a document, or replaces the recipe of a document that changed
+     * @param id {@link String} the ID of the document
+     * @param recipe {@link Recipe} the recipe made from the document
+     */
+    @Override
+    public synchronized void put(String id, Recipe recipe) {
+        remove(id);
+
+        LinkedHashMap<String, Float> weights = new LinkedHashMap<>();
+        float length = addTerms(weights, recipe.getTitle(), TITLE_WEIGHT)
+                + addTerms(weights, recipe.getCategory(), CATEGORY_WEIGHT)
+                + addTerms(weights, recipe.getComments(), COMMENTS_WEIGHT);
+        if (recipe.getIngredients() != null) {
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                length += addTerms(weights, ingredient.getName(), INGREDIENT_WEIGHT);
+            }
+        }
+
+        int slot;
+        if (freeSlots.isEmpty()) {
+            slot = recipes.size();
+            recipes.add(recipe);
+            termsBySlot.add(null);
+            if (slot == lengths.length) {
+                lengths = Arrays.copyOf(lengths, slot * 2);
+            }
+        } else {
+            slot = freeSlots.pop();
+            recipes.set(slot, recipe);
+        }
+        slotsById.put(id, slot);
+        termsBySlot.set(slot, weights.keySet().toArray(new String[0]));
+        lengths[slot] = length;
+        totalLength += length;
+        count++;
+        for (Map.Entry<String, Float> entry : weights.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), t -> new Posting()).add(slot, entry.getValue());
+        }
+    }
+
+    /**
+     * Removes the recipe of a document that was removed
+     * @param id {@link String} the ID of the document
+     * @return The {@link Recipe} that was removed, or null if there was none
+     */
+    @Override
+    public synchronized Recipe remove(String id) {
+        Integer slot = slotsById.remove(id);
+        if (slot == null) {
+            return null;
+        }
+        for (String term : termsBySlot.get(slot)) {
+            Posting posting = postings.get(term);
+            posting.remove(slot);
+            if (posting.size == 0) {
+                postings.remove(term);
+            }
+        }
+        Recipe recipe = recipes.get(slot);
+        recipes.set(slot, null);
+        termsBySlot.set(slot, null);
+        totalLength -= lengths[slot];
+        count--;
+        freeSlots.push(slot);
+        return recipe;
+    }
+
+    /**
+     * Removes every recipe
+     */
+    public synchronized void clear() {
+        postings.clear();
+        slotsById.clear();
+        recipes.clear();
+        termsBySlot.clear();
+        freeSlots.clear();
+        lengths = new float[16];
+        totalLength = 0;
+        count = 0;
+    }
+
+    /**
+     * Gets the number of recipes in the index
+     * @return The number of recipes
+     */
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Finds the recipes that contain every word of a search, the best match first
+     * @param query {@link String} what the user typed
+     * @param limit {@link Integer} the most recipes to return
+     * @return {@link ArrayList} of the recipes found
+     */
+    public synchronized ArrayList<Recipe> search(String query, int limit) {
+        ArrayList<Recipe> found = new ArrayList<>();
+        if (query == null || limit <= 0 || count == 0) {
+            return found;
+        }
+
+        // each word of the search keeps the score of every recipe that contains it
+        HashMap<Integer, Double> scores = null;
+        String[] pieces = query.trim().split("\\s+");
+        boolean typing = !query.isEmpty() && !Character.isWhitespace(query.charAt(query.length() - 1));
+        for (int p = 0; p < pieces.length; p++) {
+            boolean prefix = pieces[p].endsWith("*") || (typing && p == pieces.length - 1);
+            List<String> terms = tokenize(pieces[p]);
+            for (int t = 0; t < terms.size(); t++) {
+                HashMap<Integer, Double> termScores = score(terms.get(t), prefix && t == terms.size() - 1);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    // only the recipes that contain every word so far are kept
+                    HashMap<Integer, Double> both = new HashMap<>();
+                    for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+                        Double termScore = termScores.get(entry.getKey());
+                        if (termScore != null) {
+                            both.put(entry.getKey(), entry.getValue() + termScore);
+                        }
+                    }
+                    scores = both;
+                }
+                if (scores.isEmpty()) {
+                    return found;
+                }
+            }
+        }
+        if (scores == null) {
+            return found;
+        }
+
+        // keep the best recipes in a min-heap, so the worst of them is replaced first
+        PriorityQueue<double[]> best = new PriorityQueue<>(limit + 1, (a, b) ->
+                a[0] != b[0] ? Double.compare(a[0], b[0]) : Double.compare(b[1], a[1]));
+        for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+            best.add(new double[]{entry.getValue(), entry.getKey()});
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        while (!best.isEmpty()) {
+            found.add(recipes.get((int) best.poll()[1]));
+        }
+        // the heap gives the worst recipe first
+        Collections.reverse(found);
+        return found;
+    }
+
+    /**
+     * Scores the recipes that contain a word with BM25. A prefix scores each recipe by the best of
+     * the words it finds.
+     * @param term {@link String} the word
+     * @param prefix {@link Boolean} true to also find the words that start with it
+     * @return {@link HashMap} of the score of each recipe, by its slot
+     */
+    private HashMap<Integer, Double> score(String term, boolean prefix) {
+        HashMap<Integer, Double> scores = new HashMap<>();
+        Map<String, Posting> matches;
+        if (prefix) {
+            SortedMap<String, Posting> tail = postings.tailMap(term);
+            matches = new LinkedHashMap<>();
+            for (Map.Entry<String, Posting> entry : tail.entrySet()) {
+                if (!entry.getKey().startsWith(term) || matches.size() == MAX_PREFIX_TERMS) {
+                    break;
+                }
+                matches.put(entry.getKey(), entry.getValue());
+            }
+        } else {
+            Posting posting = postings.get(term);
+            matches = posting == null ? Collections.emptyMap() : Collections.singletonMap(term, posting);
+        }
+
+        double averageLength = totalLength / count;
+        for (Posting posting : matches.values()) {
+            double idf = Math.log(1 + (count - posting.size + 0.5) / (posting.size + 0.5));
+            for (int i = 0; i < posting.size; i++) {
+                int slot = posting.slots[i];
+                double tf = posting.weights[i];
+                double norm = K1 * (1 - B + B * lengths[slot] / averageLength);
+                double score = idf * tf * (K1 + 1) / (tf + norm);
+                scores.merge(slot, score, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Adds the words of a field of a recipe, each counted as often as it appears times the weight
+     * of the field
+     * @param weights {@link Map} of how much each word of the recipe counts
+     * @param text {@link String} the field, may be null
+     * @param weight {@link Float} how much a word of the field counts
+     * @return How much the field adds to the length of the recipe
+     */
+    private static float addTerms(Map<String, Float> weights, String text, float weight) {
+        if (text == null) {
+            return 0;
+        }
+        List<String> terms = tokenize(text);
+        for (String term : terms) {
+            weights.merge(term, weight, Float::sum);
+        }
+        return terms.size() * weight;
+    }
+
+    /**
+     * Splits text into the words it is searched by. Words are made of letters and digits, and are
+     * compared in lower case without accents, so a word written with an accent is found without one.
+     * @param text {@link String} the text
+     * @return {@link List} of the words, in order
+     */
+    static List<String> tokenize(String text) {
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+        ArrayList<String> terms = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean letter = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                terms.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.a301project;
 
+import java.text.CollationKey;
+
 /**
  * This is a class that holds the data which makes up a Shopping. This class consists mostly of
  *  getters and setters to make retrieving its parameters easier.
@@ -11,6 +13,9 @@ public class ShoppingItem{
     private double amount;
     private String unit;
     private String category;
+    // the sort keys are made when they are first needed after a change
+    private CollationKey nameKey;
+    private CollationKey categoryKey;
 
     /**
      * Makes an {@link ShoppingItem} object from the given parameters
@@ -59,6 +64,7 @@ public class ShoppingItem{
      */
     public void setName(String name) {
         this.name = name;
+        this.nameKey = null;
     }
 
     /**
@@ -83,6 +89,28 @@ public class ShoppingItem{
      */
     public void setCategory(String category) {
         this.category = category;
+        this.categoryKey = null;
+    }
+
+    /**
+     * Gets the key the {@link ShoppingItem} object is sorted by name with
+     * @return The {@link CollationKey} of the name
+     */
+    CollationKey nameKey() {
+        if (nameKey == null) {
+            nameKey = CollationKeys.of(name);
+        }
+        return nameKey;
     }
 
+    /**
+     * Gets the key the {@link ShoppingItem} object is sorted by category with
+     * @return The {@link CollationKey} of the category
+     */
+    CollationKey categoryKey() {
+        if (categoryKey == null) {
+            categoryKey = CollationKeys.of(category);
+        }
+        return categoryKey;
+    }
 }
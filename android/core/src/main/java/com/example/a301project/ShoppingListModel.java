@@ -0,0 +1,573 @@
+package com.example.a301project;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class keeps the shopping list up to date as the ingredient storage, the recipes and the
+ * meal plans change, so the shopping list screen does not have to read and reconcile
+ * everything again each time it is shown.
+ *
+ * Every change is applied as a delta to the totals of the names it touches, and only those rows
+ * are recalculated the next time the shopping list is requested. The shared instance returned by
+ * {@link #getInstance()} is kept up to date by listeners on the user's documents, which only pass
+ * on the documents that changed.
+ *
+ * The storage is kept by best before date and the demand by the start date of the meal plans, so
+ * the meal plans that start first use the ingredients that expire first, and an ingredient that
+ * expires before a meal plan starts is bought again. The shopping list can be limited to a
+ * horizon, a range of days. Only the meal plans that overlap
+ * the horizon add to the demand, and they are found with a {@link MealPlanIntervalIndex}.
+ */
+public class ShoppingListModel {
+    private static ShoppingListModel instance;
+
+    /**
+     * The demand placed on the recipes with the same title by all the meal plans
+     */
+    private static class TitleDemand {
+        // the servings of the meal plans that start on each day
+        private final HashMap<Long, Double> servings = new HashMap<>();
+        private int references;
+    }
+
+    /**
+     * What a single meal plan contributes to the shopping list
+     */
+    private static class MealPlanDemand {
+        private final List<ShoppingItem> ingredients;
+        private final Map<String, Double> servings;
+        private final long startDay;
+        private final long endDay;
+
+        MealPlanDemand(List<ShoppingItem> ingredients, Map<String, Double> servings, long startDay, long endDay) {
+            this.ingredients = ingredients;
+            this.servings = servings;
+            this.startDay = startDay;
+            this.endDay = endDay;
+        }
+    }
+
+    /**
+     * The ingredients of a single recipe, for one serving
+     */
+    private static class RecipeEntry {
+        private final String titleKey;
+        private final List<ShoppingItem> ingredients;
+
+        RecipeEntry(String titleKey, List<ShoppingItem> ingredients) {
+            this.titleKey = titleKey;
+            this.ingredients = ingredients;
+        }
+    }
+
+    private final HashMap<String, ShoppingRow> rows = new HashMap<>();
+    private final HashMap<String, ShoppingItem> storageItems = new HashMap<>();
+    private final HashMap<String, MealPlanDemand> mealPlans = new HashMap<>();
+    private final MealPlanIntervalIndex<String> mealPlanDates = new MealPlanIntervalIndex<>();
+    private HashSet<String> activeMealPlans = new HashSet<>();
+    private long horizonStart = Long.MIN_VALUE;
+    private long horizonEnd = Long.MAX_VALUE;
+    private final HashMap<String, RecipeEntry> recipes = new HashMap<>();
+    private final HashMap<String, HashSet<String>> recipeIdsByTitle = new HashMap<>();
+    private final HashMap<String, TitleDemand> titleDemands = new HashMap<>();
+    private final HashSet<String> changedKeys = new HashSet<>();
+    private final LinkedHashMap<String, ArrayList<ShoppingItem>> shoppingItems = new LinkedHashMap<>();
+    private PantrySummary storageSummary = new PantrySummary();
+    private boolean loaded;
+    // counts the complete reads, so a read that was replaced or gave up can't change the model
+    private long loadGeneration;
+
+    /**
+     * Gets the shared {@link ShoppingListModel} that the listeners keep up to date
+     * @return The shared {@link ShoppingListModel}
+     */
+    public static synchronized ShoppingListModel getInstance() {
+        if (instance == null) {
+            instance = new ShoppingListModel();
+        }
+        return instance;
+    }
+
+    /**
+     * Checks if the model has been filled with a complete read of the user's data
+     * @return true if the shopping list can be taken from the model, false otherwise
+     */
+    public synchronized boolean isLoaded() {return this.loaded;}
+
+    /**
+     * Marks the model as filled with a complete read of the user's data
+     * @param loaded {@link Boolean} whether the model holds all of the user's data
+     */
+    public synchronized void setLoaded(boolean loaded) {this.loaded = loaded;}
+
+    /**
+     * Empties the model before it is filled by a complete read of the user's data, such as when
+     * another user signs in. A read that was started before this one can no longer change the model.
+     * @return The generation of the read, to check with {@link #isCurrentLoad(long)}
+     */
+    public synchronized long startLoad() {
+        clear();
+        return loadGeneration;
+    }
+
+    /**
+     * Checks if a complete read is still the one filling the model. Code that reads into the
+     * model can hold the model's lock while it checks, so a new read can't start halfway through.
+     * @param generation {@link Long} the generation returned by {@link #startLoad()}
+     * @return true if the read can still change the model, false if it was replaced or cancelled
+     */
+    public synchronized boolean isCurrentLoad(long generation) {
+        return generation == loadGeneration;
+    }
+
+    /**
+     * Marks the model as loaded once a complete read is done, unless it is no longer current
+     * @param generation {@link Long} the generation returned by {@link #startLoad()}
+     * @return true if the model was marked as loaded, false otherwise
+     */
+    public synchronized boolean finishLoad(long generation) {
+        if (generation != loadGeneration) {
+            return false;
+        }
+        loaded = true;
+        return true;
+    }
+
+    /**
+     * Removes everything from the model, before it is filled again. A complete read that was
+     * still filling the model can no longer change it.
+     */
+    public synchronized void clear() {
+        loadGeneration++;
+        rows.clear();
+        storageItems.clear();
+        mealPlans.clear();
+        mealPlanDates.clear();
+        activeMealPlans.clear();
+        recipes.clear();
+        recipeIdsByTitle.clear();
+        titleDemands.clear();
+        changedKeys.clear();
+        shoppingItems.clear();
+        storageSummary = new PantrySummary();
+        loaded = false;
+    }
+
+    /**
+     * Adds or replaces an item in the ingredient storage
+     * @param id {@link String} the ID of the {@link Ingredient} in Firebase
+     * @param item {@link ShoppingItem} the name, amount, unit and category of the {@link Ingredient}
+     */
+    public synchronized void putStorageItem(String id, ShoppingItem item) {
+        if (id == null) {
+            return;
+        }
+        removeStorageItem(id);
+        if (item.getName() == null) {
+            return;
+        }
+        getRow(item.getName()).addSupply(item, item.getAmount(), 1);
+        storageItems.put(id, new ShoppingItem(item.getName(), item.getAmount(), item.getUnit(), item.getCategory()));
+        changedKeys.add(ShoppingListReconciler.keyOf(item.getName()));
+    }
+
+    /**
+     * Replaces the ingredient storage with the latest read of the user's {@link PantrySummary}.
+     * Only the totals that are different from the last read change their rows.
+     * @param summary {@link PantrySummary} the summary read from Firebase
+     */
+    public synchronized void setStorage(PantrySummary summary) {
+        addStorage(PantrySummary.difference(storageSummary, summary));
+        storageSummary = summary;
+    }
+
+    /**
+     * Adds the totals of a {@link PantrySummary} to the ingredient storage
+     * @param change {@link PantrySummary} the totals to add, which take out what the storage had
+     *               before if they are negative
+     */
+    private void addStorage(PantrySummary change) {
+        change.forEachTotal((key, item, lots, days) -> {
+            getRow(item.getName()).addSupply(item, (int) lots, days);
+            changedKeys.add(ShoppingListReconciler.keyOf(item.getName()));
+        });
+    }
+
+    /**
+     * Adds or replaces an {@link Ingredient} in the ingredient storage
+     * @param ingredient {@link Ingredient} the ingredient, which must have its Firebase ID set
+     */
+    public synchronized void putIngredient(Ingredient ingredient) {
+        putStorageItem(ingredient.getId(), new ShoppingItem(
+                ingredient.getName(),
+                ingredient.getAmount(),
+                ingredient.getUnit(),
+                ingredient.getCategory()
+        ));
+    }
+
+    /**
+     * Removes an item from the ingredient storage
+     * @param id {@link String} the ID of the {@link Ingredient} in Firebase
+     */
+    public synchronized void removeStorageItem(String id) {
+        ShoppingItem old = storageItems.remove(id);
+        if (old == null) {
+            return;
+        }
+        getRow(old.getName()).addSupply(old, -old.getAmount(), -1);
+        changedKeys.add(ShoppingListReconciler.keyOf(old.getName()));
+    }
+
+    /**
+     * Adds or replaces the ingredients and recipe servings of a meal plan that has no dates, so it
+     * is part of every horizon
+     * @param id {@link String} the ID of the {@link MealPlan} in Firebase
+     * @param ingredients {@link List} the {@link ShoppingItem} for each ingredient in the meal plan
+     * @param recipes {@link List} the {@link Recipe} in the meal plan, with their servings
+     */
+    public synchronized void putMealPlan(String id, List<ShoppingItem> ingredients, List<Recipe> recipes) {
+        putMealPlan(id, ingredients, recipes, null, null);
+    }
+
+    /**
+     * Adds or replaces the ingredients and recipe servings of a meal plan
+     * @param id {@link String} the ID of the {@link MealPlan} in Firebase
+     * @param ingredients {@link List} the {@link ShoppingItem} for each ingredient in the meal plan
+     * @param recipes {@link List} the {@link Recipe} in the meal plan, with their servings
+     * @param startDate {@link String} the start date of the meal plan, in the format "yyyy-MM-dd"
+     * @param endDate {@link String} the end date of the meal plan, in the format "yyyy-MM-dd"
+     */
+    public synchronized void putMealPlan(String id, List<ShoppingItem> ingredients, List<Recipe> recipes,
+                                         String startDate, String endDate) {
+        if (id == null) {
+            return;
+        }
+        removeMealPlan(id);
+
+        HashMap<String, Double> servings = new HashMap<>();
+        if (recipes != null) {
+            for (Recipe recipe : recipes) {
+                if (recipe.getTitle() == null || recipe.getServings() == null) {
+                    continue;
+                }
+                String titleKey = ShoppingListReconciler.keyOf(recipe.getTitle());
+                Double previous = servings.get(titleKey);
+                servings.put(titleKey, (previous == null ? 0 : previous) + recipe.getServings().doubleValue());
+            }
+        }
+        List<ShoppingItem> items = ingredients == null ? new ArrayList<>() : new ArrayList<>(ingredients);
+
+        // a missing date leaves that end of the meal plan open
+        MealPlanDemand demand = new MealPlanDemand(items, servings,
+                DateUtils.parseEpochDay(startDate, Long.MIN_VALUE),
+                DateUtils.parseEpochDay(endDate, Long.MAX_VALUE));
+        mealPlans.put(id, demand);
+        mealPlanDates.put(id, demand.startDay, demand.endDay, id);
+        if (demand.startDay <= horizonEnd && Math.max(demand.startDay, demand.endDay) >= horizonStart) {
+            activeMealPlans.add(id);
+            addMealPlanDemand(demand, 1);
+        }
+    }
+
+    /**
+     * Adds or replaces a {@link MealPlan}
+     * @param mealPlan {@link MealPlan} the meal plan, which must have its Firebase ID set
+     */
+    public synchronized void putMealPlan(MealPlan mealPlan) {
+        ArrayList<ShoppingItem> items = new ArrayList<>();
+        if (mealPlan.getIngredients() != null) {
+            for (Ingredient ingredient : mealPlan.getIngredients()) {
+                items.add(new ShoppingItem(
+                        ingredient.getName(),
+                        ingredient.getAmount(),
+                        ingredient.getUnit(),
+                        ingredient.getCategory()
+                ));
+            }
+        }
+        putMealPlan(mealPlan.getId(), items, mealPlan.getRecipes(), mealPlan.getStartDate(), mealPlan.getEndDate());
+    }
+
+    /**
+     * Gets a view of the meal plans, to keep them up to date from the meal plan collection
+     * @return {@link DocumentCollection} that adds and removes meal plans
+     */
+    public DocumentCollection<MealPlan> mealPlans() {
+        return new DocumentCollection<MealPlan>() {
+            @Override
+            public void put(String id, MealPlan mealPlan) {
+                mealPlan.setId(id);
+                putMealPlan(mealPlan);
+            }
+
+            @Override
+            public MealPlan remove(String id) {
+                removeMealPlan(id);
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Removes a meal plan and everything it needed
+     * @param id {@link String} the ID of the {@link MealPlan} in Firebase
+     */
+    public synchronized void removeMealPlan(String id) {
+        MealPlanDemand old = mealPlans.remove(id);
+        if (old == null) {
+            return;
+        }
+        mealPlanDates.remove(id);
+        if (activeMealPlans.remove(id)) {
+            addMealPlanDemand(old, -1);
+        }
+    }
+
+    /**
+     * Limits the shopping list to the meal plans that share at least one day with a range. Only
+     * the meal plans that enter or leave the range have their demand changed.
+     * @param startDay {@link Long} the first day of the range, as an epoch day
+     * @param endDay {@link Long} the last day of the range, as an epoch day
+     */
+    public synchronized void setHorizon(long startDay, long endDay) {
+        if (startDay == horizonStart && endDay == horizonEnd) {
+            return;
+        }
+        horizonStart = startDay;
+        horizonEnd = endDay;
+
+        HashSet<String> active = new HashSet<>(mealPlanDates.query(startDay, endDay));
+        for (String id : activeMealPlans) {
+            if (!active.contains(id)) {
+                addMealPlanDemand(mealPlans.get(id), -1);
+            }
+        }
+        for (String id : active) {
+            if (!activeMealPlans.contains(id)) {
+                addMealPlanDemand(mealPlans.get(id), 1);
+            }
+        }
+        activeMealPlans = active;
+    }
+
+    /**
+     * Checks if the shopping list is limited to a horizon
+     * @return true if only some meal plans may be part of the shopping list, false otherwise
+     */
+    public synchronized boolean hasHorizon() {
+        return horizonStart != Long.MIN_VALUE || horizonEnd != Long.MAX_VALUE;
+    }
+
+    /**
+     * Removes the horizon, so every meal plan is part of the shopping list
+     */
+    public synchronized void clearHorizon() {
+        setHorizon(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Adds or replaces a recipe, so the meal plans that use its title need its ingredients
+     * @param recipe {@link Recipe} the recipe, which must have its Firebase ID set
+     */
+    public synchronized void putRecipe(Recipe recipe) {
+        if (recipe.getId() == null) {
+            return;
+        }
+        removeRecipe(recipe.getId());
+        if (recipe.getTitle() == null) {
+            return;
+        }
+
+        ArrayList<ShoppingItem> items = new ArrayList<>();
+        if (recipe.getIngredients() != null) {
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                items.add(new ShoppingItem(
+                        ingredient.getName(),
+                        ingredient.getAmount(),
+                        ingredient.getUnit(),
+                        ingredient.getCategory()
+                ));
+            }
+        }
+        RecipeEntry entry = new RecipeEntry(ShoppingListReconciler.keyOf(recipe.getTitle()), items);
+        recipes.put(recipe.getId(), entry);
+        HashSet<String> ids = recipeIdsByTitle.get(entry.titleKey);
+        if (ids == null) {
+            ids = new HashSet<>();
+            recipeIdsByTitle.put(entry.titleKey, ids);
+        }
+        ids.add(recipe.getId());
+        addRecipeDemand(entry, 1);
+    }
+
+    /**
+     * Removes a recipe, so the meal plans that use its title no longer need its ingredients
+     * @param id {@link String} the ID of the {@link Recipe} in Firebase
+     */
+    public synchronized void removeRecipe(String id) {
+        RecipeEntry old = recipes.remove(id);
+        if (old == null) {
+            return;
+        }
+        HashSet<String> ids = recipeIdsByTitle.get(old.titleKey);
+        ids.remove(id);
+        if (ids.isEmpty()) {
+            recipeIdsByTitle.remove(old.titleKey);
+        }
+        addRecipeDemand(old, -1);
+    }
+
+    /**
+     * Gets a view of the recipes, to keep them up to date from the recipe collection
+     * @return {@link DocumentCollection} that adds and removes recipes
+     */
+    public DocumentCollection<Recipe> recipes() {
+        return new DocumentCollection<Recipe>() {
+            @Override
+            public void put(String id, Recipe recipe) {
+                recipe.setId(id);
+                putRecipe(recipe);
+            }
+
+            @Override
+            public Recipe remove(String id) {
+                removeRecipe(id);
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Gets the items that need to be purchased. Only the rows that changed since the last call
+     * are recalculated.
+     * @return {@link ArrayList} of {@link ShoppingItem} that need to be purchased
+     */
+    public synchronized ArrayList<ShoppingItem> getShoppingItems() {
+        for (String key : changedKeys) {
+            ShoppingRow row = rows.get(key);
+            if (row == null) {
+                continue;
+            }
+            ArrayList<ShoppingItem> items = new ArrayList<>(1);
+            row.collectShoppingItems(items);
+            if (items.isEmpty()) {
+                shoppingItems.remove(key);
+            } else {
+                shoppingItems.put(key, items);
+            }
+            if (row.isEmpty()) {
+                rows.remove(key);
+            }
+        }
+        changedKeys.clear();
+
+        ArrayList<ShoppingItem> result = new ArrayList<>(shoppingItems.size());
+        for (ArrayList<ShoppingItem> items : shoppingItems.values()) {
+            for (ShoppingItem item : items) {
+                result.add(new ShoppingItem(item.getName(), item.getAmount(), item.getUnit(), item.getCategory()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the {@link ShoppingRow} for a name, creating it if it doesn't exist yet
+     * @param name {@link String} the name of the item
+     * @return The {@link ShoppingRow} for the name
+     */
+    private ShoppingRow getRow(String name) {
+        String key = ShoppingListReconciler.keyOf(name);
+        ShoppingRow row = rows.get(key);
+        if (row == null) {
+            row = new ShoppingRow();
+            rows.put(key, row);
+        }
+        return row;
+    }
+
+    /**
+     * Changes the demand of the row for an item
+     * @param item {@link ShoppingItem} the item that is needed
+     * @param count {@link Integer} +1 if the item starts being needed, -1 if it stops, 0 otherwise
+     * @param amounts {@link Map} of the start date of the meal plans that need the item to the
+     *                amount to add to (or remove from) the demand
+     */
+    private void addDemand(ShoppingItem item, int count, Map<Long, Double> amounts) {
+        if (item.getName() == null) {
+            return;
+        }
+        getRow(item.getName()).addDemand(item, count, amounts);
+        changedKeys.add(ShoppingListReconciler.keyOf(item.getName()));
+    }
+
+    /**
+     * Adds (or removes) everything a meal plan needs
+     * @param demand {@link MealPlanDemand} the meal plan
+     * @param sign {@link Integer} +1 to add the demand, -1 to remove it
+     */
+    private void addMealPlanDemand(MealPlanDemand demand, int sign) {
+        for (ShoppingItem item : demand.ingredients) {
+            addDemand(item, sign, Collections.singletonMap(demand.startDay, sign * item.getAmount()));
+        }
+        for (Map.Entry<String, Double> entry : demand.servings.entrySet()) {
+            changeServings(entry.getKey(), demand.startDay, sign * entry.getValue(), sign);
+        }
+    }
+
+    /**
+     * Changes the servings the meal plans need of every recipe with a title
+     * @param titleKey {@link String} the key of the recipe title
+     * @param startDay {@link Long} the start date of the meal plan, as an epoch day
+     * @param servings {@link Double} the servings to add to (or remove from) the total
+     * @param references {@link Integer} +1 if a meal plan starts using the title, -1 if it stops
+     */
+    private void changeServings(String titleKey, long startDay, double servings, int references) {
+        TitleDemand titleDemand = titleDemands.get(titleKey);
+        if (titleDemand == null) {
+            titleDemand = new TitleDemand();
+            titleDemands.put(titleKey, titleDemand);
+        }
+        boolean wasUsed = titleDemand.references > 0;
+        Double previous = titleDemand.servings.get(startDay);
+        titleDemand.servings.put(startDay, (previous == null ? 0 : previous) + servings);
+        titleDemand.references += references;
+        boolean isUsed = titleDemand.references > 0;
+        int count = isUsed == wasUsed ? 0 : (isUsed ? 1 : -1);
+
+        HashSet<String> ids = recipeIdsByTitle.get(titleKey);
+        if (ids != null) {
+            for (String id : ids) {
+                for (ShoppingItem item : recipes.get(id).ingredients) {
+                    addDemand(item, count, Collections.singletonMap(startDay, item.getAmount() * servings));
+                }
+            }
+        }
+        if (!isUsed) {
+            titleDemands.remove(titleKey);
+        }
+    }
+
+    /**
+     * Adds (or removes) the demand that the meal plans place on a recipe
+     * @param entry {@link RecipeEntry} the recipe
+     * @param sign {@link Integer} +1 to add the demand, -1 to remove it
+     */
+    private void addRecipeDemand(RecipeEntry entry, int sign) {
+        TitleDemand titleDemand = titleDemands.get(entry.titleKey);
+        if (titleDemand == null) {
+            return;
+        }
+        for (ShoppingItem item : entry.ingredients) {
+            HashMap<Long, Double> amounts = new HashMap<>();
+            titleDemand.servings.forEach((startDay, servings) -> amounts.put(startDay, sign * item.getAmount() * servings));
+            addDemand(item, sign, amounts);
+        }
+    }
+}
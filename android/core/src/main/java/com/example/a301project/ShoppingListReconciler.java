@@ -0,0 +1,87 @@
+package com.example.a301project;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * This class calculates the {@link ShoppingItem} objects the user needs to purchase from the
+ * demand of their meal plans and the supply in their ingredient storage.
+ *
+ * Items are grouped by a case-folded key of their name, so the demand is aggregated in one pass
+ * and the storage is subtracted in another, instead of comparing every meal plan item against
+ * every storage item. The totals for each name are kept in a {@link ShoppingRow}.
+ */
+public class ShoppingListReconciler {
+
+    private ShoppingListReconciler() {}
+
+    /**
+     * Gets the key that identifies an ingredient by name, ignoring case
+     * @param name {@link String} the name of the ingredient
+     * @return The case-folded key of the name
+     */
+    public static String keyOf(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Calculates the items that need to be purchased. For every name, the total amount needed by
+     * the meal plans has the total amount in storage subtracted from it, after both are converted
+     * to the same base unit by the {@link QuantityConverter}. Items that are not in storage at all
+     * are always listed, and items that are in storage take its unit and category.
+     * The given lists are not modified.
+     * @param mealPlanItems {@link List} the {@link ShoppingItem} needed by the meal plans
+     * @param storageItems {@link List} the {@link ShoppingItem} in the ingredient storage
+     * @return {@link ArrayList} of {@link ShoppingItem}, in the order they were first needed
+     */
+    public static ArrayList<ShoppingItem> reconcile(List<ShoppingItem> mealPlanItems, List<ShoppingItem> storageItems) {
+        HashMap<String, ShoppingRow> rows = new HashMap<>();
+        ArrayList<ShoppingRow> order = new ArrayList<>();
+
+        // aggregate the supply from the ingredient storage
+        if (storageItems != null) {
+            for (int i = 0; i < storageItems.size(); i++) {
+                ShoppingItem item = storageItems.get(i);
+                if (item.getName() == null) {
+                    continue;
+                }
+                String key = keyOf(item.getName());
+                ShoppingRow row = rows.get(key);
+                if (row == null) {
+                    row = new ShoppingRow();
+                    rows.put(key, row);
+                }
+                row.addSupply(item, item.getAmount(), 1);
+            }
+        }
+
+        // aggregate the demand from the meal plans, remembering when each name is first needed
+        if (mealPlanItems != null) {
+            for (int i = 0; i < mealPlanItems.size(); i++) {
+                ShoppingItem item = mealPlanItems.get(i);
+                if (item.getName() == null) {
+                    continue;
+                }
+                String key = keyOf(item.getName());
+                ShoppingRow row = rows.get(key);
+                if (row == null) {
+                    row = new ShoppingRow();
+                    rows.put(key, row);
+                }
+                if (!row.hasDemand()) {
+                    order.add(row);
+                }
+                row.addDemand(item, item.getAmount(), 1);
+            }
+        }
+
+        // subtract the supply from the demand for every name that is needed
+        ArrayList<ShoppingItem> shoppingItems = new ArrayList<>(order.size());
+        for (ShoppingRow row : order) {
+            row.collectShoppingItems(shoppingItems);
+        }
+        return shoppingItems;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.a301project;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * This class holds a shopping list once it has been calculated. It keeps its own copies of the
+ * {@link ShoppingItem} objects and never changes them, so it can be handed from the thread that
+ * calculated it to the thread that shows it.
+ */
+public final class ShoppingListResult {
+    private final ShoppingItem[] items;
+
+    /**
+     * Creates a result from the calculated items
+     * @param items {@link List} the {@link ShoppingItem} that need to be purchased
+     */
+    public ShoppingListResult(List<ShoppingItem> items) {
+        this.items = new ShoppingItem[items.size()];
+        for (int i = 0; i < this.items.length; i++) {
+            ShoppingItem item = items.get(i);
+            this.items[i] = new ShoppingItem(item.getName(), item.getAmount(), item.getUnit(), item.getCategory());
+        }
+    }
+
+    /**
+     * Gets the number of items in the shopping list
+     * @return The number of items
+     */
+    public int size() {
+        return items.length;
+    }
+
+    /**
+     * Checks if there is nothing to purchase
+     * @return true if the shopping list is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return items.length == 0;
+    }
+
+    /**
+     * Gets a copy of the items in the shopping list, which the caller is free to change
+     * @return {@link ArrayList} of {@link ShoppingItem}
+     */
+    public ArrayList<ShoppingItem> copyItems() {
+        ArrayList<ShoppingItem> copy = new ArrayList<>(items.length);
+        for (ShoppingItem item : items) {
+            copy.add(new ShoppingItem(item.getName(), item.getAmount(), item.getUnit(), item.getCategory()));
+        }
+        return copy;
+    }
+
+    /**
+     * Gets one of the items, which must not be changed
+     * @param index {@link Integer} the position of the item
+     * @return The {@link ShoppingItem} at the position
+     */
+    ShoppingItem itemAt(int index) {
+        return items[index];
+    }
+
+    /**
+     * Checks if another result holds the same items, in the same order
+     * @param o {@link Object} the object to compare with
+     * @return true if both results list the same items, false otherwise
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ShoppingListResult)) {
+            return false;
+        }
+        ShoppingItem[] other = ((ShoppingListResult) o).items;
+        if (other.length != items.length) {
+            return false;
+        }
+        for (int i = 0; i < items.length; i++) {
+            if (!Objects.equals(items[i].getName(), other[i].getName())
+                    || !Objects.equals(items[i].getAmount(), other[i].getAmount())
+                    || !Objects.equals(items[i].getUnit(), other[i].getUnit())
+                    || !Objects.equals(items[i].getCategory(), other[i].getCategory())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (ShoppingItem item : items) {
+            hash = 31 * hash + Objects.hash(item.getName(), item.getAmount(), item.getUnit(), item.getCategory());
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.a301project;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * This class saves the last calculated shopping list of a user to a small binary file, so it can
+ * be shown straight away the next time the shopping list is opened, while the up to date list is
+ * read from Firebase.
+ *
+ * The file starts with the data version and the user it belongs to. A file written for another
+ * user, or by a version of the app that calculated the shopping list differently, is ignored.
+ */
+public class ShoppingListSnapshotStore {
+    /**
+     * The version of the saved data. This must be increased whenever the file format or the way
+     * the shopping list is calculated changes, so older snapshots are no longer shown.
+     */
+    public static final int DATA_VERSION = 1;
+    private static final int MAGIC = 0x53484f50;
+
+    private final File file;
+    private final String user;
+
+    /**
+     * Creates a store for the snapshot of a user
+     * @param directory {@link File} the directory the snapshot is saved in
+     * @param name {@link String} the name the snapshot files start with
+     * @param user {@link String} the email of the user the snapshot belongs to
+     */
+    public ShoppingListSnapshotStore(File directory, String name, String user) {
+        this.file = new File(directory, name + "-" + Integer.toHexString(user.hashCode()) + "-v" + DATA_VERSION + ".snapshot");
+        this.user = user;
+    }
+
+    /**
+     * Reads the saved shopping list
+     * @return The saved {@link ShoppingListResult}, or null if there is no usable snapshot
+     */
+    public ShoppingListResult read() {
+        if (!file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != DATA_VERSION || !user.equals(in.readUTF())) {
+                return null;
+            }
+            int size = in.readInt();
+            ArrayList<ShoppingItem> items = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                String name = readString(in);
+                double amount = in.readDouble();
+                String unit = readString(in);
+                String category = readString(in);
+                items.add(new ShoppingItem(name, amount, unit, category));
+            }
+            return new ShoppingListResult(items);
+        } catch (IOException e) {
+            // a damaged snapshot is treated like a missing one
+            return null;
+        }
+    }
+
+    /**
+     * Saves a shopping list, replacing the previous snapshot. The file is written next to the
+     * snapshot and then renamed over it, so a snapshot is never left half written.
+     * @param result {@link ShoppingListResult} the shopping list to save
+     * @throws IOException if the snapshot could not be written
+     */
+    public void write(ShoppingListResult result) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(DATA_VERSION);
+            out.writeUTF(user);
+            out.writeInt(result.size());
+            for (int i = 0; i < result.size(); i++) {
+                ShoppingItem item = result.itemAt(i);
+                writeString(out, item.getName());
+                out.writeDouble(item.getAmount());
+                writeString(out, item.getUnit());
+                writeString(out, item.getCategory());
+            }
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Could not replace " + file);
+        }
+    }
+
+    /**
+     * Deletes the saved shopping list
+     */
+    public void delete() {
+        file.delete();
+    }
+
+    /**
+     * Writes a {@link String} that may be null
+     * @param out {@link DataOutputStream} the stream to write to
+     * @param value {@link String} the value to write
+     * @throws IOException if the value could not be written
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    /**
+     * Reads a {@link String} written by {@link #writeString(DataOutputStream, String)}
+     * @param in {@link DataInputStream} the stream to read from
+     * @return The value, which may be null
+     * @throws IOException if the value could not be read
+     */
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
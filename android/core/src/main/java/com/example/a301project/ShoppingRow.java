@@ -0,0 +1,215 @@
+package com.example.a301project;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class holds the running totals of everything that is needed and stored under one
+ * ingredient name. It is shared by the {@link ShoppingListReconciler} and the
+ * {@link ShoppingListModel}.
+ *
+ * Amounts are converted to the base unit of their {@link QuantityConverter.Unit} as they are
+ * added, and kept separately for each base unit, so 500 Grams are taken from 2 kg but never from
+ * 2 Cups. Amounts that were given without a unit are taken to be in the unit of the stored
+ * ingredient, which is how the shopping list has always treated them.
+ *
+ * The amounts that are stored are kept by best before date, and the amounts that are needed by the
+ * start date of the meal plans, in a {@link PantryLotAllocator} for each base unit. Stored amounts
+ * are used first-expiring-first-out, and only count for the meal plans that start before they expire.
+ */
+class ShoppingRow {
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * The totals for the amounts that share a base unit
+     */
+    private static class Quantity {
+        private double demand;
+        private int demandCount;
+        private String demandUnit;
+        private int supplyCount;
+        private String storageUnit;
+        private final PantryLotAllocator lots = new PantryLotAllocator();
+    }
+
+    private final LinkedHashMap<String, Quantity> quantities = new LinkedHashMap<>(2);
+    private String name;
+    private String category;
+    private String storageCategory;
+    private String storageUnitKey;
+    private int demandCount;
+    private int supplyCount;
+
+    /**
+     * Gets the {@link Quantity} for a base unit, creating it if it doesn't exist yet
+     * @param key {@link String} the key of the base unit
+     * @return The {@link Quantity} for the base unit
+     */
+    private Quantity getQuantity(String key) {
+        Quantity quantity = quantities.get(key);
+        if (quantity == null) {
+            quantity = new Quantity();
+            quantities.put(key, quantity);
+        }
+        return quantity;
+    }
+
+    /**
+     * Changes the amount that is needed by meal plans without a start date
+     * @param item {@link ShoppingItem} the item that is needed
+     * @param amount {@link Double} the amount, in the unit of the item, to add (or remove if negative)
+     * @param count {@link Integer} +1 if the item starts being needed, -1 if it stops, 0 otherwise
+     */
+    void addDemand(ShoppingItem item, double amount, int count) {
+        addDemand(item, count, Collections.singletonMap(PantryLotAllocator.NO_START, amount));
+    }
+
+    /**
+     * Changes the amount that is needed by the meal plans that start on some days
+     * @param item {@link ShoppingItem} the item that is needed
+     * @param count {@link Integer} +1 if the item starts being needed, -1 if it stops, 0 otherwise
+     * @param amounts {@link Map} of each start date, as an epoch day, to the amount in the unit of
+     *                the item to add (or remove if negative)
+     */
+    void addDemand(ShoppingItem item, int count, Map<Long, Double> amounts) {
+        QuantityConverter.Unit unit = QuantityConverter.unitOf(item.getUnit());
+        Quantity quantity = getQuantity(unit.getKey());
+        if (demandCount == 0 && count > 0) {
+            name = item.getName();
+            category = item.getCategory();
+        }
+        if (quantity.demandCount == 0 && count > 0) {
+            quantity.demandUnit = item.getUnit();
+        }
+        for (Map.Entry<Long, Double> amount : amounts.entrySet()) {
+            double base = QuantityConverter.toBase(amount.getValue(), unit);
+            quantity.demand += base;
+            quantity.lots.addNeed(amount.getKey(), base);
+        }
+        quantity.demandCount += count;
+        demandCount += count;
+        if (quantity.demandCount == 0) {
+            quantity.demand = 0;
+            quantity.lots.clearNeeds();
+        }
+    }
+
+    /**
+     * Changes the amount that is in the ingredient storage without a best before date
+     * @param item {@link ShoppingItem} the item that is stored
+     * @param amount {@link Double} the amount, in the unit of the item, to add (or remove if negative)
+     * @param count {@link Integer} +1 if the item was put in storage, -1 if it was taken out
+     */
+    void addSupply(ShoppingItem item, double amount, int count) {
+        addSupply(item, count, Collections.singletonMap(Ingredient.NO_BEST_BEFORE, amount));
+    }
+
+    /**
+     * Changes the amounts that are in the ingredient storage with some best before dates
+     * @param item {@link ShoppingItem} the item that is stored
+     * @param count {@link Integer} the number of items put in storage, or taken out if negative
+     * @param amounts {@link Map} of each best before date, as an epoch day, to the amount in the
+     *                unit of the item to add (or remove if negative)
+     */
+    void addSupply(ShoppingItem item, int count, Map<Long, Double> amounts) {
+        QuantityConverter.Unit unit = QuantityConverter.unitOf(item.getUnit());
+        Quantity quantity = getQuantity(unit.getKey());
+        if (count > 0) {
+            // the latest stored item decides how the shopping item is displayed
+            quantity.storageUnit = item.getUnit();
+            storageUnitKey = unit.getKey();
+            storageCategory = item.getCategory();
+        }
+        for (Map.Entry<Long, Double> amount : amounts.entrySet()) {
+            quantity.lots.addLot(amount.getKey(), QuantityConverter.toBase(amount.getValue(), unit));
+        }
+        quantity.supplyCount += count;
+        supplyCount += count;
+        if (quantity.supplyCount == 0) {
+            quantity.lots.clearLots();
+        }
+    }
+
+    /**
+     * Checks if nothing is needed or stored under this name anymore
+     * @return true if the row can be discarded, false otherwise
+     */
+    boolean isEmpty() {
+        return demandCount == 0 && supplyCount == 0;
+    }
+
+    /**
+     * Checks if anything is needed under this name
+     * @return true if anything is needed, false otherwise
+     */
+    boolean hasDemand() {
+        return demandCount > 0;
+    }
+
+    /**
+     * Adds a {@link ShoppingItem} to the list for each base unit that there isn't enough of
+     * @param shoppingItems {@link List} the list to add the items to
+     */
+    void collectShoppingItems(List<ShoppingItem> shoppingItems) {
+        if (demandCount == 0) {
+            return;
+        }
+
+        // amounts without a unit are needed in the unit of the stored ingredient
+        Quantity stored = null;
+        if (supplyCount > 0) {
+            stored = quantities.get(storageUnitKey);
+            if (stored == null || stored.supplyCount == 0) {
+                stored = null;
+                for (Quantity quantity : quantities.values()) {
+                    if (quantity.supplyCount > 0) {
+                        stored = quantity;
+                        break;
+                    }
+                }
+            }
+        }
+        Quantity unitless = quantities.get(QuantityConverter.NO_UNIT.getKey());
+        double unitlessDemand = 0;
+        double unitlessFactor = 0;
+        int unitlessCount = 0;
+        if (stored != null && unitless != null && unitless != stored) {
+            unitlessFactor = QuantityConverter.unitOf(stored.storageUnit).getFactor();
+            unitlessDemand = unitless.demand * unitlessFactor;
+            unitlessCount = unitless.demandCount;
+        }
+
+        for (Quantity quantity : quantities.values()) {
+            double demand = quantity.demand;
+            int count = quantity.demandCount;
+            if (quantity == stored) {
+                demand += unitlessDemand;
+                count += unitlessCount;
+            } else if (unitlessCount > 0 && quantity == unitless) {
+                continue;
+            }
+            if (count == 0) {
+                continue;
+            }
+
+            if (quantity.supplyCount == 0) {
+                // nothing is stored in this unit, so everything that is needed is bought
+                String unitName = quantity.demandUnit != null ? quantity.demandUnit : stored == null ? null : stored.storageUnit;
+                QuantityConverter.Unit unit = QuantityConverter.unitOf(unitName);
+                shoppingItems.add(new ShoppingItem(name, QuantityConverter.fromBase(demand, unit), unitName, category));
+            } else {
+                // whatever the stored lots can't cover before they expire is bought in the storage unit
+                double shortfall = PantryLotAllocator.shortfallOf(quantity == stored && unitlessCount > 0
+                        ? quantity.lots.allocate(unitless.lots, unitlessFactor)
+                        : quantity.lots.allocate());
+                if (shortfall > EPSILON) {
+                    QuantityConverter.Unit unit = QuantityConverter.unitOf(quantity.storageUnit);
+                    shoppingItems.add(new ShoppingItem(name, QuantityConverter.fromBase(shortfall, unit),
+                            quantity.storageUnit, storageCategory));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.a301project;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * This class suggests names as the user types them, such as the ingredients in storage and the
+ * recipe titles. Each name is split into trigrams, the groups of three letters in a row, and the
+ * index keeps the names that contain each trigram. A name is suggested if it shares enough
+ * trigrams with what was typed, so names with a typo in them are still found, and the names that
+ * share the most trigrams come first.
+ *
+ * Names are compared ignoring case, and adding a name that is already in the index does nothing,
+ * so the index can be updated every time a name is saved.
+ */
+public class TrigramIndex {
+    private static TrigramIndex ingredientNames;
+    private static TrigramIndex recipeTitles;
+
+    /**
+     * The least part of the typed trigrams a name must share to be suggested
+     */
+    private static final double MIN_SIMILARITY = 0.3;
+
+    /**
+     * The IDs of the names that contain a trigram
+     */
+    private static final class Posting {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+
+    private final HashMap<String, Integer> idsByKey = new HashMap<>();
+    private final ArrayList<String> names = new ArrayList<>();
+    private final ArrayList<String> keys = new ArrayList<>();
+    private final HashMap<Long, Posting> postings = new HashMap<>();
+    private int[] trigramCounts = new int[16];
+    private boolean[] removed = new boolean[16];
+    private int[] shared = new int[16];
+    private int[] touched = new int[16];
+    private boolean loaded;
+
+    /**
+     * Gets the index of the names of the ingredients in storage, shared by the whole app
+     * @return The shared {@link TrigramIndex} of ingredient names
+     */
+    public static synchronized TrigramIndex ingredientNames() {
+        if (ingredientNames == null) {
+            ingredientNames = new TrigramIndex();
+        }
+        return ingredientNames;
+    }
+
+    /**
+     * Gets the index of the recipe titles, shared by the whole app
+     * @return The shared {@link TrigramIndex} of recipe titles
+     */
+    public static synchronized TrigramIndex recipeTitles() {
+        if (recipeTitles == null) {
+            recipeTitles = new TrigramIndex();
+        }
+        return recipeTitles;
+    }
+
+    /**
+     * Checks if every name has been read from Firebase
+     * @return true if the index has been filled, false otherwise
+     */
+    public synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Sets if every name has been read from Firebase
+     * @param loaded {@link Boolean} true once the index has been filled
+     */
+    public synchronized void setLoaded(boolean loaded) {
+        this.loaded = loaded;
+    }
+
+    /**
+     * Adds a name, unless it is already in the index
+     * @param name {@link String} the name to add
+     */
+    public synchronized void add(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return;
+        }
+        String key = keyOf(name);
+        Integer existing = idsByKey.get(key);
+        if (existing != null) {
+            removed[existing] = false;
+            return;
+        }
+        int id = names.size();
+        idsByKey.put(key, id);
+        names.add(name.trim());
+        keys.add(key);
+        if (id == removed.length) {
+            trigramCounts = Arrays.copyOf(trigramCounts, id * 2);
+            removed = Arrays.copyOf(removed, id * 2);
+            shared = Arrays.copyOf(shared, id * 2);
+            touched = new int[id * 2];
+        }
+        long[] trigrams = trigrams(key);
+        trigramCounts[id] = trigrams.length;
+        for (long trigram : trigrams) {
+            postings.computeIfAbsent(trigram, t -> new Posting()).add(id);
+        }
+    }
+
+    /**
+     * Adds every name
+     * @param names {@link Collection} of the names to add
+     */
+    public synchronized void addAll(Collection<String> names) {
+        for (String name : names) {
+            add(name);
+        }
+    }
+
+    /**
+     * Removes a name, so it is no longer suggested
+     * @param name {@link String} the name to remove
+     */
+    public synchronized void remove(String name) {
+        if (name == null) {
+            return;
+        }
+        Integer id = idsByKey.get(keyOf(name));
+        if (id != null) {
+            removed[id] = true;
+        }
+    }
+
+    /**
+     * Removes every name
+     */
+    public synchronized void clear() {
+        idsByKey.clear();
+        names.clear();
+        keys.clear();
+        postings.clear();
+        trigramCounts = new int[16];
+        removed = new boolean[16];
+        shared = new int[16];
+        touched = new int[16];
+        loaded = false;
+    }
+
+    /**
+     * Gets the names that best match what the user typed. A name that starts with the typed text
+     * comes before the others, then the names that share the most trigrams with it.
+     * @param query {@link String} what the user typed
+     * @param limit {@link Integer} the most names to return
+     * @param excludedKeys {@link Set} of the keys of names not to suggest, made with
+     *                     {@link #keyOf(String)}, or null
+     * @return {@link ArrayList} of the suggested names, the best match first
+     */
+    public synchronized ArrayList<String> suggest(String query, int limit, Set<String> excludedKeys) {
+        ArrayList<String> suggestions = new ArrayList<>();
+        if (query == null || query.trim().isEmpty() || limit <= 0) {
+            return suggestions;
+        }
+        String key = keyOf(query);
+        long[] trigrams = trigrams(key);
+
+        // count the trigrams each name shares with the query, remembering which names were touched
+        int touchedCount = 0;
+        for (long trigram : trigrams) {
+            Posting posting = postings.get(trigram);
+            if (posting == null) {
+                continue;
+            }
+            for (int i = 0; i < posting.size; i++) {
+                int id = posting.ids[i];
+                if (shared[id]++ == 0) {
+                    touched[touchedCount++] = id;
+                }
+            }
+        }
+
+        // keep the best names in a min-heap, so the worst of them is replaced first
+        PriorityQueue<double[]> best = new PriorityQueue<>(limit + 1, (a, b) -> Double.compare(a[0], b[0]));
+        for (int t = 0; t < touchedCount; t++) {
+            int id = touched[t];
+            int count = shared[id];
+            shared[id] = 0;
+            if (removed[id] || (excludedKeys != null && excludedKeys.contains(keys.get(id)))) {
+                continue;
+            }
+            double similarity = 2.0 * count / (trigrams.length + trigramCounts[id]);
+            if (similarity < MIN_SIMILARITY) {
+                continue;
+            }
+            double score = keys.get(id).startsWith(key) ? 1 + similarity : similarity;
+            best.add(new double[]{score, id});
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        while (!best.isEmpty()) {
+            suggestions.add(names.get((int) best.poll()[1]));
+        }
+        // the heap gives the worst name first
+        Collections.reverse(suggestions);
+        return suggestions;
+    }
+
+    /**
+     * Splits a name into its trigrams. The name is padded with spaces, so its first letters and
+     * short names also make trigrams.
+     * @param key {@link String} the lower case name
+     * @return The distinct trigrams of the name, each as three characters in a {@link Long}
+     */
+    private static long[] trigrams(String key) {
+        String padded = "  " + key + " ";
+        long[] trigrams = new long[padded.length() - 2];
+        int count = 0;
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            long trigram = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+            boolean seen = false;
+            for (int j = 0; j < count && !seen; j++) {
+                seen = trigrams[j] == trigram;
+            }
+            if (!seen) {
+                trigrams[count++] = trigram;
+            }
+        }
+        return Arrays.copyOf(trigrams, count);
+    }
+
+    /**
+     * Gets the key a name is compared with, which ignores case and spaces at either end
+     * @param name {@link String} the name
+     * @return The key of the name
+     */
+    public static String keyOf(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.a301project;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class DateUtilsTest {
+
+    @Test
+    public void testDateComparison() {
+        assertTrue(MealPlan.isStartDateBeforeEndDate("2022-11-28", "2022-11-28"));
+        assertTrue(DateUtils.isOnOrBefore("2022-11-28", "2022-12-05"));
+        assertFalse(DateUtils.isOnOrBefore("2022-12-05", "2022-11-28"));
+    }
+
+    @Test
+    public void testParseAndFormat() {
+        assertEquals("2022-11-28", DateUtils.formatDate(DateUtils.parseDate("2022-11-28")));
+    }
+
+    @Test
+    public void testBestBeforeDay() {
+        Ingredient carrot = new Ingredient("Carrot", 2.00, "2022-11-28", "Cupboard", "Kgs", "Vegetable");
+        assertEquals(LocalDate.of(2022, 11, 28).toEpochDay(), carrot.bestBeforeDay());
+
+        // the date is formatted from the epoch day when it is shown
+        Ingredient egg = new Ingredient("Egg", 6.00, carrot.bestBeforeDay() + 4, "Fridge", null, "Dairy");
+        assertEquals("2022-12-02", egg.getbbd());
+
+        // the epoch day is the only copy of the date, so a new date replaces the formatted one too
+        egg.setBestBeforeDay(carrot.bestBeforeDay());
+        assertEquals("2022-11-28", egg.getbbd());
+        egg.setBbd("2022-12-02");
+
+        carrot.setBbd("");
+        assertEquals(Ingredient.NO_BEST_BEFORE, carrot.bestBeforeDay());
+        assertNull(carrot.getbbd());
+        ArrayList<Ingredient> ingredients = new ArrayList<>(Arrays.asList(carrot, egg));
+        ingredients.sort(ListSorting.ingredientComparator(ListSorting.EXPIRY, true));
+        assertEquals(egg, ingredients.get(0));
+
+        // the start of a day converts back to the same day
+        assertEquals(egg.bestBeforeDay(), DateUtils.toEpochDay(DateUtils.fromEpochDay(egg.bestBeforeDay()), 0));
+        assertEquals(DateUtils.parseDate("2022-12-02"), DateUtils.fromEpochDay(egg.bestBeforeDay()));
+    }
+}
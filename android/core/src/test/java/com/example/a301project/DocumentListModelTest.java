@@ -0,0 +1,62 @@
+package com.example.a301project;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+
+public class DocumentListModelTest {
+
+    @Test
+    public void testChangedDocumentsKeepTheListSorted() {
+        ArrayList<Recipe> shown = new ArrayList<>();
+        DocumentListModel<Recipe> model = new DocumentListModel<>(shown);
+        model.put("b", new Recipe("Burger", 1L));
+        model.put("c", new Recipe("Curry", 1L));
+        model.sort(Comparator.comparing(Recipe::getTitle));
+
+        model.put("a", new Recipe("Apple Pie", 1L));
+        // changing a document moves only its own item
+        model.put("c", new Recipe("Bagel", 1L));
+
+        assertEquals(3, model.size());
+        assertEquals("Apple Pie", shown.get(0).getTitle());
+        assertEquals("Bagel", shown.get(1).getTitle());
+        assertEquals("Burger", shown.get(2).getTitle());
+    }
+
+    @Test
+    public void testChangedDocumentsKeepTheirPlaceWithoutOrder() {
+        ArrayList<Recipe> shown = new ArrayList<>();
+        DocumentListModel<Recipe> model = new DocumentListModel<>(shown);
+        model.put("c", new Recipe("Curry", 1L));
+        model.put("a", new Recipe("Apple Pie", 1L));
+        model.put("c", new Recipe("Zucchini Bread", 1L));
+        model.put("b", new Recipe("Burger", 1L));
+
+        assertEquals("Zucchini Bread", shown.get(0).getTitle());
+        assertEquals("Apple Pie", shown.get(1).getTitle());
+        assertEquals("Burger", shown.get(2).getTitle());
+    }
+
+    @Test
+    public void testRemovedDocument() {
+        ArrayList<Recipe> shown = new ArrayList<>();
+        DocumentListModel<Recipe> model = new DocumentListModel<>(shown);
+        Recipe burger = new Recipe("Burger", 1L);
+        model.put("b", burger);
+        model.put("c", new Recipe("Curry", 1L));
+
+        // the item is found even after the screen changed it
+        burger.setTitle("Zucchini");
+        assertEquals(burger, model.remove("b"));
+        assertNull(model.remove("b"));
+
+        assertEquals(1, shown.size());
+        assertEquals("Curry", shown.get(0).getTitle());
+        assertNull(model.get("b"));
+    }
+}
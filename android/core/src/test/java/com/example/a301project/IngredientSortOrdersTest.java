@@ -0,0 +1,76 @@
+package com.example.a301project;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class IngredientSortOrdersTest {
+
+    @Test
+    public void testEveryOrderIsKept() {
+        IngredientSortOrders pantry = new IngredientSortOrders();
+        Ingredient carrot = new Ingredient("carrot", 2.00, "2022-09-16", "Cupboard", "Kgs", "Vegetable");
+        pantry.put("1", carrot);
+        pantry.put("2", new Ingredient("Apple", 3.00, "2022-10-01", "Fridge", "Kgs", "Fruit"));
+        pantry.put("3", new Ingredient("Bread", 1.00, "2022-09-10", "Pantry", "Loaf", "Bakery"));
+        List<Ingredient> items = pantry.getItems();
+
+        assertEquals("Apple", items.get(0).getName());
+        pantry.setOrder(ListSorting.EXPIRY, true);
+        assertEquals("Bread", items.get(0).getName());
+        pantry.setOrder(ListSorting.LOCATION, false);
+        assertEquals("Bread", items.get(0).getName());
+        assertEquals("carrot", items.get(2).getName());
+
+        // the carrot is changed on the screen before it is replaced, and is still found
+        carrot.setLocation("Attic");
+        pantry.put("1", new Ingredient("carrot", 2.00, "2022-09-16", "Attic", "Kgs", "Vegetable"));
+        assertEquals(3, items.size());
+        assertEquals("Attic", items.get(2).getLocation());
+
+        pantry.remove("2");
+        pantry.setOrder(ListSorting.CATEGORY, true);
+        assertEquals(2, items.size());
+        assertEquals("Bread", items.get(0).getName());
+        assertNull(pantry.get("2"));
+    }
+
+    @Test
+    public void testMatchesSortedList() {
+        Random random = new Random(7);
+        IngredientSortOrders pantry = new IngredientSortOrders();
+        ArrayList<Ingredient> expected = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Ingredient ingredient = new Ingredient("Item " + random.nextInt(100), 1.00, null, "Fridge", "Kgs", "Fruit");
+            ingredient.setId(String.valueOf(i));
+            ingredient.setBestBeforeDay(random.nextInt(50));
+            pantry.put(ingredient.getId(), ingredient);
+            expected.add(ingredient);
+        }
+        for (int i = 0; i < 500; i += 3) {
+            String id = String.valueOf(i);
+            pantry.remove(id);
+            expected.removeIf(ingredient -> ingredient.getId().equals(id));
+        }
+
+        pantry.setOrder(ListSorting.EXPIRY, true);
+        expected.sort(ListSorting.ingredientComparator(ListSorting.EXPIRY, true));
+        assertEquals(expected.size(), pantry.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i), pantry.getItems().get(i));
+        }
+
+        // a copy of the list walks the tree in either direction
+        pantry.setOrder(ListSorting.EXPIRY, false);
+        ArrayList<Ingredient> copy = new ArrayList<>(pantry.getItems());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(expected.size() - 1 - i), copy.get(i));
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.a301project;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class ListSortingTest {
+
+    @Test
+    public void testNamesIgnoreCase() {
+        ArrayList<ShoppingItem> items = new ArrayList<>(Arrays.asList(
+                new ShoppingItem("banana", 1.00, null, "Fruit"),
+                new ShoppingItem("Apple", 1.00, null, "Fruit"),
+                new ShoppingItem("carrot", 1.00, null, "Vegetable")));
+
+        items.sort(ListSorting.shoppingItemComparator(ListSorting.NAME, true));
+        assertEquals("Apple", items.get(0).getName());
+        assertEquals("banana", items.get(1).getName());
+
+        items.sort(ListSorting.shoppingItemComparator(ListSorting.NAME, false));
+        assertEquals("carrot", items.get(0).getName());
+    }
+
+    @Test
+    public void testKeyChangesWithName() {
+        Recipe burger = new Recipe("Burger", 1L);
+        Recipe curry = new Recipe("Curry", 1L);
+        ArrayList<Recipe> recipes = new ArrayList<>(Arrays.asList(curry, burger));
+        recipes.sort(ListSorting.recipeComparator(ListSorting.NAME, true));
+        assertEquals(burger, recipes.get(0));
+
+        // the key of a recipe is made again after its title is changed
+        burger.setTitle("Zucchini Bread");
+        recipes.sort(ListSorting.recipeComparator(ListSorting.NAME, true));
+        assertEquals(curry, recipes.get(0));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.a301project;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+public class MealPlanIntervalIndexTest {
+
+    @Test
+    public void testQueryFindsOverlappingMealPlans() {
+        MealPlanIntervalIndex<String> index = new MealPlanIntervalIndex<>();
+        index.put("A", 10, 16, "A");
+        index.put("B", 20, 20, "B");
+        index.put("C", 0, 100, "C");
+        index.put("D", 30, 25, "D");
+
+        assertEquals(List.of("C", "A"), index.query(15, 18));
+        assertEquals(List.of("C", "B"), index.query(17, 20));
+        assertEquals(List.of("C", "D"), index.query(30, 40));
+        assertEquals(0, index.query(101, 200).size());
+
+        index.remove("C");
+        assertEquals(List.of("A"), index.query(0, 10));
+    }
+
+    @Test
+    public void testQueryMatchesAScanOfEveryMealPlan() {
+        Random random = new Random(7);
+        MealPlanIntervalIndex<Integer> index = new MealPlanIntervalIndex<>();
+        long[][] intervals = new long[500][];
+        for (int i = 0; i < intervals.length; i++) {
+            long start = random.nextInt(1000);
+            intervals[i] = new long[] {start, start + random.nextInt(30)};
+            index.put(String.valueOf(i), intervals[i][0], intervals[i][1], i);
+        }
+
+        for (int q = 0; q < 200; q++) {
+            long from = random.nextInt(1100) - 50;
+            long to = from + random.nextInt(40);
+            HashSet<Integer> expected = new HashSet<>();
+            for (int i = 0; i < intervals.length; i++) {
+                if (intervals[i][0] <= to && intervals[i][1] >= from) {
+                    expected.add(i);
+                }
+            }
+            List<Integer> found = index.query(from, to);
+            assertEquals(expected.size(), found.size());
+            assertEquals(expected, new HashSet<>(found));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.a301project;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class PantryCoverageMatcherTest {
+
+    private static Recipe recipe(String title, String... ingredients) {
+        ArrayList<Ingredient> list = new ArrayList<>();
+        for (String name : ingredients) {
+            list.add(new Ingredient(name, 1, "", "", "", ""));
+        }
+        return new Recipe(title, "", "", "", 10L, 2L, list);
+    }
+
+    private static ArrayList<String> titles(ArrayList<Recipe> recipes) {
+        ArrayList<String> titles = new ArrayList<>();
+        recipes.forEach(r -> titles.add(r.getTitle()));
+        return titles;
+    }
+
+    @Test
+    public void testRecipesAreRankedByCoverage() {
+        PantryCoverageMatcher matcher = new PantryCoverageMatcher();
+        matcher.putIngredient("i1", new Ingredient("Egg", 6));
+        matcher.putIngredient("i2", new Ingredient("Milk", 1));
+        matcher.put("omelette", recipe("Omelette", "Egg", "milk", "Cheese"));
+        matcher.put("pancakes", recipe("Pancakes", "Flour", "Egg", "Milk", "Sugar"));
+        matcher.put("boiled", recipe("Boiled Egg", "egg", "Egg"));
+        matcher.put("toast", recipe("Toast", "Bread"));
+
+        // 1 of 1, 2 of 3, 2 of 4, and the toast has nothing in storage
+        assertEquals(Arrays.asList("Boiled Egg", "Omelette", "Pancakes"), titles(matcher.topRecipes(10)));
+        assertEquals(Arrays.asList("Boiled Egg", "Omelette"), titles(matcher.topRecipes(2)));
+
+        // storage changes only move the recipes that use the name
+        matcher.putIngredient("i3", new Ingredient("Cheese", 1));
+        matcher.putIngredient("i4", new Ingredient("Bread", 0));
+        assertEquals(3, matcher.coveredOf("omelette"));
+        assertEquals(Arrays.asList("Omelette", "Boiled Egg", "Pancakes"), titles(matcher.topRecipes(10)));
+
+        matcher.removeIngredient("i1");
+        assertEquals(Arrays.asList("Omelette", "Pancakes"), titles(matcher.topRecipes(10)));
+        assertEquals(0, matcher.coveredOf("boiled"));
+    }
+
+    @Test
+    public void testDocumentsAreReplacedAndRemoved() {
+        PantryCoverageMatcher matcher = new PantryCoverageMatcher();
+        matcher.pantry().put("i1", new Ingredient("Rice", 2));
+        matcher.pantry().put("i2", new Ingredient("Rice", 1));
+        matcher.put("a", recipe("Fried Rice", "Rice", "Egg"));
+
+        // the name stays in storage until the last ingredient with it is removed
+        matcher.pantry().remove("i1");
+        assertEquals(1, matcher.coveredOf("a"));
+        matcher.putIngredient("i2", new Ingredient("Rice", 0));
+        assertTrue(matcher.topRecipes(10).isEmpty());
+
+        matcher.putIngredient("i2", new Ingredient("Egg", 12));
+        matcher.put("a", recipe("Egg Fried Rice", "Rice", "Egg"));
+        assertEquals(Arrays.asList("Egg Fried Rice"), titles(matcher.topRecipes(10)));
+
+        // many names spread the bitsets over several words
+        for (int i = 0; i < 200; i++) {
+            matcher.putIngredient("n" + i, new Ingredient("Spice " + i, 1));
+        }
+        matcher.put("b", recipe("Curry", "Spice 3", "Spice 150", "Spice 199", "Coconut"));
+        assertEquals(3, matcher.coveredOf("b"));
+        assertEquals("Egg Fried Rice", matcher.remove("a").getTitle());
+        assertEquals(Arrays.asList("Curry"), titles(matcher.topRecipes(10)));
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.a301project;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class PantryImportValidatorTest {
+    private final PantryImportValidator validator = new PantryImportValidator(
+            Arrays.asList("Pieces", "Grams", "lbs"),
+            Arrays.asList("Vegetable", "Dairy"),
+            Arrays.asList("Fridge", "Kitchen Cupboard"));
+
+    @Test
+    public void testCsvRows() throws IOException {
+        String csv = "Name,Amount,Unit,Category,Location,Best Before Date\r\n"
+                + "Carrot,3,lbs,Vegetable,Kitchen Cupboard,2022-11-30\r\n"
+                + "\r\n"
+                + "\"Cheese, \"\"aged\"\"\",250,grams,dairy,fridge,2022-12-02\n"
+                + "\"Milk\n2%\",1,Pieces,Dairy,Fridge,2022-12-01";
+        ArrayList<Map<String, String>> rows = new ArrayList<>();
+        ArrayList<Integer> lines = new ArrayList<>();
+        try (IngredientRowReader reader = new CsvIngredientRowReader(new StringReader(csv))) {
+            Map<String, String> row;
+            while ((row = reader.next()) != null) {
+                rows.add(row);
+                lines.add(reader.getLine());
+            }
+        }
+
+        assertEquals(3, rows.size());
+        assertEquals(Arrays.asList(2, 4, 5), lines);
+        assertEquals("Cheese, \"aged\"", rows.get(1).get("name"));
+        assertEquals("Milk\n2%", rows.get(2).get("name"));
+        assertEquals("2022-11-30", rows.get(0).get("bestbeforedate"));
+
+        // the ingredient takes the spelling of the options
+        Ingredient cheese = validator.validate(rows.get(1), lines.get(1));
+        assertEquals("Grams", cheese.getUnit());
+        assertEquals("Dairy", cheese.getCategory());
+        assertEquals("Fridge", cheese.getLocation());
+        assertEquals("2022-12-02", cheese.getbbd());
+    }
+
+    @Test
+    public void testInvalidRowsAreSkipped() {
+        assertNull(validator.validate(Map.of("name", "Egg", "amount", "-1", "unit", "Pieces",
+                "category", "Dairy", "location", "Fridge", "bestbeforedate", "2022-12-01"), 2));
+        assertNull(validator.validate(Map.of("name", "Egg", "amount", "6", "unit", "Dozen",
+                "category", "Dairy", "location", "Fridge", "bestbeforedate", "2022-12-01"), 3));
+        assertNull(validator.validate(Map.of("name", "Egg", "amount", "6", "unit", "Pieces",
+                "category", "Dairy", "location", "Fridge", "bestbeforedate", "12/01/2022"), 4));
+
+        List<String> errors = validator.getErrors();
+        assertEquals(3, validator.getRejected());
+        assertEquals("Line 3 has an unknown unit \"Dozen\"", errors.get(1));
+        assertEquals("bestbeforedate", IngredientRowReader.columnOf("Best_Before Date"));
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.a301project;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+public class PantryLotAllocatorTest {
+    private PantryLotAllocator allocator;
+    private long day;
+
+    @Before
+    public void setUp() {
+        day = DateUtils.parseEpochDay("2022-12-01", 0);
+        allocator = new PantryLotAllocator();
+        allocator.addLot(day + 19, 2.00);
+        allocator.addLot(day, 1.00);
+        allocator.addLot(day + 9, 1.00);
+    }
+
+    @Test
+    public void testFirstExpiringLotsAreUsedFirst() {
+        allocator.addNeed(day + 5, 3.00);
+        allocator.addNeed(day - 5, 1.50);
+        ArrayList<PantryLotAllocator.Allocation> allocations = allocator.allocate();
+
+        PantryLotAllocator.Allocation first = allocations.get(0);
+        assertEquals(day - 5, first.getStartDay());
+        assertEquals(2, first.getLotUses().size());
+        assertEquals(day, first.getLotUses().get(0).getBestBeforeDay());
+        assertEquals(1.00, first.getLotUses().get(0).getAmount(), 1e-9);
+        assertEquals(day + 9, first.getLotUses().get(1).getBestBeforeDay());
+        assertEquals(0.50, first.getLotUses().get(1).getAmount(), 1e-9);
+        assertEquals(0.00, first.getShortfall(), 1e-9);
+
+        // the second need gets the rest of the middle lot, then the late lot, and is 0.5 short
+        PantryLotAllocator.Allocation second = allocations.get(1);
+        assertEquals(day + 9, second.getLotUses().get(0).getBestBeforeDay());
+        assertEquals(0.50, second.getLotUses().get(0).getAmount(), 1e-9);
+        assertEquals(day + 19, second.getLotUses().get(1).getBestBeforeDay());
+        assertEquals(0.50, second.getShortfall(), 1e-9);
+        assertEquals(0.50, PantryLotAllocator.shortfallOf(allocations), 1e-9);
+    }
+
+    @Test
+    public void testExpiredLotsAreSkipped() {
+        // the lots that expire before the need starts can't be used for it
+        allocator.addNeed(day + 10, 3.00);
+        assertEquals(1.00, PantryLotAllocator.shortfallOf(allocator.allocate()), 1e-9);
+
+        // taking a lot out leaves the other lots with the same date
+        allocator.addLot(day + 19, -0.50);
+        assertEquals(1.50, PantryLotAllocator.shortfallOf(allocator.allocate()), 1e-9);
+
+        // needs given without a unit are added in the unit of the lots
+        PantryLotAllocator unitless = new PantryLotAllocator();
+        unitless.addNeed(PantryLotAllocator.NO_START, 1.00);
+        assertEquals(1.50, PantryLotAllocator.shortfallOf(allocator.allocate(unitless, 0.50)), 1e-9);
+        assertEquals(3.50, PantryLotAllocator.shortfallOf(allocator.allocate(unitless, 4.00)), 1e-9);
+    }
+}
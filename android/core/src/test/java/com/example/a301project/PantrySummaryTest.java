@@ -0,0 +1,113 @@
+package com.example.a301project;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+public class PantrySummaryTest {
+
+    @Test
+    public void testTotalsByNameAndUnit() {
+        PantrySummary summary = new PantrySummary();
+        summary.add(new Ingredient("Carrot", 2.00, "2022-11-28", "Cupboard", "Kgs", "Vegetable"));
+        summary.add(new Ingredient("carrot ", 3.00, "2022-12-01", "Fridge", "kgs", "Vegetable"));
+        summary.add(new Ingredient("Carrot", 1.00, "2022-12-01", "Fridge", "Count", "Vegetable"));
+
+        ArrayList<ShoppingItem> totals = summary.getTotals();
+        assertEquals(2, totals.size());
+        assertEquals("Carrot", totals.get(0).getName());
+        assertEquals(5.00, totals.get(0).getAmount(), 1e-9);
+        assertEquals(3, summary.getIngredientCount());
+
+        // a changed ingredient takes out what it was and adds what it is
+        Ingredient before = new Ingredient("Carrot", 2.00, "2022-11-28", "Cupboard", "Kgs", "Vegetable");
+        Ingredient after = new Ingredient("Carrot", 4.00, "2022-11-28", "Fridge", "Kgs", "Vegetable");
+        summary.addAll(PantrySummary.changeOf(before, after));
+        assertEquals(7.00, summary.getTotals().get(0).getAmount(), 1e-9);
+
+        summary.addAll(PantrySummary.changeOf(new Ingredient("Carrot", 1.00, "2022-12-01", "Fridge", "Count", "Vegetable"), null));
+        assertEquals(1, summary.getTotals().size());
+        assertEquals(2, summary.getIngredientCount());
+    }
+
+    @Test
+    public void testChanges() {
+        Ingredient milk = new Ingredient("Milk", 1.50, "2022-11-28", "Fridge", "L", "Dairy");
+        Ingredient moved = new Ingredient("Milk", 1.50, "2022-11-28", "Cupboard", "L", "Dairy");
+
+        // an edit that keeps the name, unit, amount and best before date changes nothing in the summary
+        assertTrue(PantrySummary.changeOf(milk, moved).isEmpty());
+
+        // a new best before date moves the amount from one date to the other
+        Ingredient later = new Ingredient("Milk", 1.50, "2022-11-30", "Fridge", "L", "Dairy");
+        PantrySummary redated = PantrySummary.changeOf(milk, later);
+        assertFalse(redated.isEmpty());
+        redated.forEachTotal((key, item, count, days) -> {
+            assertEquals(0, count);
+            assertEquals(0.00, item.getAmount(), 1e-9);
+            assertEquals(-1.50, days.get(milk.bestBeforeDay()), 1e-9);
+            assertEquals(1.50, days.get(later.bestBeforeDay()), 1e-9);
+        });
+
+        // renaming an ingredient moves it from one total to the other
+        PantrySummary renamed = PantrySummary.changeOf(milk, new Ingredient("Oat Milk", 1.00, "", "Fridge", "L", "Dairy"));
+        HashMap<String, Long> lots = new HashMap<>();
+        HashMap<String, Double> amounts = new HashMap<>();
+        renamed.forEachTotal((key, item, count, days) -> {
+            lots.put(key, count);
+            amounts.put(key, item.getAmount());
+        });
+        assertEquals(Long.valueOf(-1), lots.get(PantrySummary.keyOf("milk", "l")));
+        assertEquals(-1.50, amounts.get(PantrySummary.keyOf("Milk", "L")), 1e-9);
+        assertEquals(Long.valueOf(1), lots.get(PantrySummary.keyOf("Oat Milk", "L")));
+        assertEquals(0, renamed.getIngredientCount());
+    }
+
+    @Test
+    public void testDocumentFields() {
+        PantrySummary summary = new PantrySummary();
+        summary.add(new Ingredient("Milk", 1.50, "2022-11-28", "Fridge", "L", "Dairy"));
+        summary.add(new Ingredient("Rice", 2.00, "", "Cupboard", "Kgs", "Grain"));
+        summary.add(new Ingredient(null, 1.00, "", "Cupboard", "Kgs", "Grain"));
+
+        PantrySummary read = PantrySummary.fromMap(summary.toMap());
+        HashMap<String, Double> amounts = new HashMap<>();
+        read.getTotals().forEach(item -> amounts.put(item.getName() + item.getUnit(), item.getAmount()));
+        assertEquals(2, amounts.size());
+        assertEquals(1.50, amounts.get("MilkL"), 0.00);
+        assertEquals(3, read.getIngredientCount());
+        read.forEachTotal((key, item, count, days) -> assertEquals(item.getAmount(), days.values().iterator().next(), 0.00));
+
+        // increments leave a total with no ingredients behind in the document
+        Map<String, Object> data = summary.toMap();
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> totals = (Map<String, Map<String, Object>>) data.get(PantrySummary.TOTALS);
+        totals.get(PantrySummary.keyOf("Rice", "Kgs")).put(PantrySummary.LOTS, 0L);
+        assertEquals(1, PantrySummary.fromMap(data).getTotals().size());
+
+        assertTrue(PantrySummary.fromMap(null).isEmpty());
+    }
+
+    @Test
+    public void testConsistency() {
+        PantrySummary summary = new PantrySummary();
+        summary.add(new Ingredient("Flour", 1.00, "", "Cupboard", "Kgs", "Baking"));
+        assertTrue(summary.isConsistent());
+        assertTrue(PantrySummary.fromMap(summary.toMap()).isConsistent());
+
+        // a summary that was started by increments has no version
+        Map<String, Object> started = summary.toMap();
+        started.remove(PantrySummary.VERSION);
+        assertFalse(PantrySummary.fromMap(started).isConsistent());
+
+        // taking out more than the summary holds means it missed an ingredient
+        summary.addAll(PantrySummary.changeOf(new Ingredient("Flour", 3.00, "", "Cupboard", "Kgs", "Baking"), null));
+        assertFalse(summary.isConsistent());
+    }
+}
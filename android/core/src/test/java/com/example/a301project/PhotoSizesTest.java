@@ -0,0 +1,24 @@
+package com.example.a301project;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class PhotoSizesTest {
+
+    @Test
+    public void testSampleSize() {
+        // a 12 megapixel photo is decoded at a quarter of its size for a 1080 pixel detail photo
+        assertEquals(2, PhotoSizes.sampleSizeOf(4000, 3000, 1080));
+        assertEquals(4, PhotoSizes.sampleSizeOf(3000, 4500, 1080));
+        assertEquals(1, PhotoSizes.sampleSizeOf(800, 600, 1080));
+    }
+
+    @Test
+    public void testFit() {
+        assertArrayEquals(new int[]{1080, 810}, PhotoSizes.fit(4000, 3000, 1080));
+        assertArrayEquals(new int[]{160, 240}, PhotoSizes.fit(2000, 3000, 240));
+        assertArrayEquals(new int[]{200, 100}, PhotoSizes.fit(200, 100, 240));
+    }
+}
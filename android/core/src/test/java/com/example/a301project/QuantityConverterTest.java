@@ -0,0 +1,33 @@
+package com.example.a301project;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class QuantityConverterTest {
+
+    @Test
+    public void testUnitsShareABaseUnit() {
+        QuantityConverter.Unit kgs = QuantityConverter.unitOf("Kgs");
+        QuantityConverter.Unit lbs = QuantityConverter.unitOf("lbs");
+        QuantityConverter.Unit cups = QuantityConverter.unitOf("Cups");
+        assertEquals(QuantityConverter.Dimension.MASS, kgs.getDimension());
+        assertEquals(kgs.getKey(), lbs.getKey());
+        assertEquals(QuantityConverter.Dimension.VOLUME, cups.getDimension());
+
+        assertEquals(2000.00, QuantityConverter.toBase(2.00, kgs), 1e-9);
+        assertEquals(1.00, QuantityConverter.fromBase(QuantityConverter.toBase(2.20462262, lbs), kgs), 1e-6);
+    }
+
+    @Test
+    public void testMissingAndCustomUnits() {
+        assertSame(QuantityConverter.NO_UNIT, QuantityConverter.unitOf(null));
+        assertSame(QuantityConverter.NO_UNIT, QuantityConverter.unitOf("null"));
+
+        // custom units are only ever combined with themselves
+        QuantityConverter.Unit cloves = QuantityConverter.unitOf("Cloves");
+        assertEquals(QuantityConverter.Dimension.COUNT, cloves.getDimension());
+        assertEquals(cloves.getKey(), QuantityConverter.unitOf("cloves").getKey());
+    }
+}
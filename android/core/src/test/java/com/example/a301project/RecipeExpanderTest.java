@@ -0,0 +1,30 @@
+package com.example.a301project;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+public class RecipeExpanderTest {
+
+    @Test
+    public void testExpandMultipliesByServings() {
+        ArrayList<Ingredient> ingredients = new ArrayList<>();
+        ingredients.add(new Ingredient("Carrot", 2.00, "2022-09-16", "Cupboard", "Kgs", "Vegetable"));
+        ArrayList<Recipe> recipes = new ArrayList<>();
+        recipes.add(new Recipe("Carrot Soup", "Vegetable", "Food", "", 1L, 2L, ingredients));
+        recipes.add(new Recipe("Bread", "Baking", "Food", "", 1L, 2L, new ArrayList<>()));
+
+        ArrayList<Recipe> mealPlanRecipes = new ArrayList<>();
+        mealPlanRecipes.add(new Recipe("carrot soup", 3L));
+
+        ArrayList<ShoppingItem> neededItems = new ArrayList<>();
+        RecipeExpander.expand(mealPlanRecipes, recipes, neededItems);
+
+        assertEquals(1, neededItems.size());
+        assertEquals("Carrot", neededItems.get(0).getName());
+        assertEquals(6.00, neededItems.get(0).getAmount(), 0.00);
+        assertEquals("Kgs", neededItems.get(0).getUnit());
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.a301project;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+public class RecipeExpansionIndexTest {
+    private RecipeExpansionIndex index;
+    private Recipe soup;
+
+    @Before
+    public void setUp() {
+        ArrayList<Ingredient> ingredients = new ArrayList<>();
+        ingredients.add(new Ingredient("Carrot", 2.00, "2022-09-16", "Cupboard", "Kgs", "Vegetable"));
+        soup = new Recipe("Carrot Soup", "Vegetable", "Food", "", 1L, 2L, ingredients);
+        soup.setId("RECIPE_ID");
+        index = new RecipeExpansionIndex();
+        index.putRecipe(soup);
+    }
+
+    @Test
+    public void testRepeatedRecipesAreScaledOnce() {
+        ArrayList<Recipe> mealPlanRecipes = new ArrayList<>();
+        mealPlanRecipes.add(new Recipe("carrot soup", 2L));
+        mealPlanRecipes.add(new Recipe("Unknown", 4L));
+        mealPlanRecipes.add(new Recipe("CARROT SOUP", 3L));
+
+        ArrayList<ShoppingItem> neededItems = new ArrayList<>();
+        index.expand(mealPlanRecipes, neededItems);
+
+        assertEquals(1, neededItems.size());
+        assertEquals("Carrot", neededItems.get(0).getName());
+        assertEquals(10.00, neededItems.get(0).getAmount(), 0.00);
+    }
+
+    @Test
+    public void testEditedRecipeIsExpandedAgain() {
+        ArrayList<Recipe> mealPlanRecipes = new ArrayList<>();
+        mealPlanRecipes.add(new Recipe("Carrot Soup", 1L));
+        ArrayList<ShoppingItem> neededItems = new ArrayList<>();
+        index.expand(mealPlanRecipes, neededItems);
+        assertEquals(2.00, neededItems.get(0).getAmount(), 0.00);
+
+        // the cached ingredients are kept until the recipe is put again
+        soup.getIngredients().get(0).setAmount(5.00);
+        index.putRecipe(soup);
+        neededItems.clear();
+        index.expand(mealPlanRecipes, neededItems);
+        assertEquals(1, neededItems.size());
+        assertEquals(5.00, neededItems.get(0).getAmount(), 0.00);
+
+        index.removeRecipe("RECIPE_ID");
+        neededItems.clear();
+        index.expand(mealPlanRecipes, neededItems);
+        assertEquals(0, neededItems.size());
+    }
+}
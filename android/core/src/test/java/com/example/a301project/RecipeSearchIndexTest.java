@@ -0,0 +1,63 @@
+package com.example.a301project;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class RecipeSearchIndexTest {
+
+    private static Recipe recipe(String title, String category, String comments, String... ingredients) {
+        ArrayList<Ingredient> list = new ArrayList<>();
+        for (String name : ingredients) {
+            list.add(new Ingredient(name, 1, "", "", "", ""));
+        }
+        return new Recipe(title, category, comments, "", 10L, 2L, list);
+    }
+
+    private static ArrayList<String> titles(ArrayList<Recipe> recipes) {
+        ArrayList<String> titles = new ArrayList<>();
+        recipes.forEach(r -> titles.add(r.getTitle()));
+        return titles;
+    }
+
+    @Test
+    public void testSearchIsRanked() {
+        RecipeSearchIndex index = new RecipeSearchIndex();
+        index.put("a", recipe("Tomato Soup", "Soup", "Serve hot", "Tomato", "Onion"));
+        index.put("b", recipe("Grilled Cheese", "Lunch", "Good with tomato soup", "Bread", "Cheese"));
+        index.put("c", recipe("Cr\u00e8me Br\u00fbl\u00e9e", "Dessert", "", "Cream", "Sugar", "Egg"));
+        index.put("d", recipe("Pasta", "Dinner", "", "Tomato Paste", "Spaghetti"));
+
+        // a word in the title counts for more than one in the comments
+        assertEquals(Arrays.asList("Tomato Soup", "Grilled Cheese"), titles(index.search("tomato soup", 10)));
+        assertEquals(Arrays.asList("Tomato Soup", "Pasta", "Grilled Cheese"), titles(index.search("TOMATO ", 10)));
+        // accents are ignored, and the last word is a prefix while it is typed
+        assertEquals(Arrays.asList("Cr\u00e8me Br\u00fbl\u00e9e"), titles(index.search("creme bru", 10)));
+        assertEquals(Arrays.asList("Pasta"), titles(index.search("spag* tom", 10)));
+        assertTrue(index.search("spag ", 10).isEmpty());
+        assertEquals(1, index.search("tomato ", 1).size());
+    }
+
+    @Test
+    public void testDocumentsAreReplacedAndRemoved() {
+        RecipeSearchIndex index = new RecipeSearchIndex();
+        index.put("a", recipe("Pancakes", "Breakfast", "", "Flour", "Milk"));
+        index.put("b", recipe("Waffles", "Breakfast", "", "Flour", "Butter"));
+
+        index.put("a", recipe("Crepes", "Breakfast", "", "Flour", "Milk"));
+        assertTrue(index.search("pancakes ", 10).isEmpty());
+        assertEquals(Arrays.asList("Crepes"), titles(index.search("milk ", 10)));
+
+        assertEquals("Waffles", index.remove("b").getTitle());
+        assertEquals(1, index.size());
+        assertEquals(Arrays.asList("Crepes"), titles(index.search("flour", 10)));
+
+        // the freed slot is used again
+        index.put("c", recipe("Omelette", "Breakfast", "", "Egg", "Milk"));
+        assertEquals(Arrays.asList("Crepes", "Omelette"), titles(index.search("breakfast ", 10)));
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.a301project;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+public class ShoppingListModelTest {
+    private ShoppingListModel model;
+
+    private Recipe mockRecipe() {
+        ArrayList<Ingredient> ingredients = new ArrayList<>();
+        ingredients.add(new Ingredient("Carrot", 2.00, "2022-09-16", "Cupboard", "Kgs", "Vegetable"));
+        Recipe recipe = new Recipe("Carrot Soup", "Vegetable", "Food", "", 1L, 2L, ingredients);
+        recipe.setId("RECIPE_ID");
+        return recipe;
+    }
+
+    private MealPlan mockMealPlan(long servings) {
+        ArrayList<Recipe> recipes = new ArrayList<>();
+        recipes.add(new Recipe("carrot soup", servings));
+        MealPlan mealPlan = new MealPlan(new ArrayList<>(), recipes, "Soup Week", "2022-11-28", "2022-12-05");
+        mealPlan.setId("MEAL_PLAN_ID");
+        return mealPlan;
+    }
+
+    @Before
+    public void setUp() {
+        model = new ShoppingListModel();
+        model.putRecipe(mockRecipe());
+        model.putMealPlan(mockMealPlan(2));
+    }
+
+    @Test
+    public void testRecipeDemand() {
+        // 2 servings of a recipe that needs 2 carrots per serving
+        ArrayList<ShoppingItem> items = model.getShoppingItems();
+        assertEquals(1, items.size());
+        assertEquals("Carrot", items.get(0).getName());
+        assertEquals(4.00, items.get(0).getAmount(), 0.00);
+    }
+
+    @Test
+    public void testStorageChanges() {
+        Ingredient carrots = new Ingredient("carrot", 3.00, "2022-09-16", "Fridge", "Kgs", "Vegetable");
+        carrots.setId("INGREDIENT_ID");
+        model.putIngredient(carrots);
+        assertEquals(1.00, model.getShoppingItems().get(0).getAmount(), 0.00);
+
+        // consuming some of the carrots replaces the previous amount
+        carrots.setAmount(1.00);
+        model.putIngredient(carrots);
+        assertEquals(3.00, model.getShoppingItems().get(0).getAmount(), 0.00);
+
+        carrots.setAmount(5.00);
+        model.putIngredient(carrots);
+        assertEquals(0, model.getShoppingItems().size());
+
+        model.removeStorageItem("INGREDIENT_ID");
+        assertEquals(4.00, model.getShoppingItems().get(0).getAmount(), 0.00);
+    }
+
+    @Test
+    public void testStorageTotals() {
+        PantrySummary storage = new PantrySummary();
+        storage.add(new Ingredient("carrot", 1.00, "2022-12-16", "Fridge", "Kgs", "Vegetable"));
+        storage.add(new Ingredient("Carrot", 2.00, "2022-12-20", "Cupboard", "Kgs", "Vegetable"));
+        storage.add(new Ingredient("Onion", 1.00, "2022-12-20", "Cupboard", "", "Vegetable"));
+        model.setStorage(storage);
+        assertEquals(1.00, model.getShoppingItems().get(0).getAmount(), 0.00);
+
+        // each read of the summary only changes the totals that are different
+        PantrySummary edited = new PantrySummary();
+        edited.add(new Ingredient("Carrot", 0.50, "2022-12-20", "Cupboard", "Kgs", "Vegetable"));
+        edited.add(new Ingredient("Onion", 1.00, "2022-12-20", "Cupboard", "", "Vegetable"));
+        PantrySummary change = PantrySummary.difference(storage, edited);
+        assertEquals(1, change.getTotals().size());
+        assertEquals(-2.50, change.getTotals().get(0).getAmount(), 1e-9);
+        model.setStorage(edited);
+        assertEquals(3.50, model.getShoppingItems().get(0).getAmount(), 0.00);
+
+        model.setStorage(storage);
+        assertEquals(1.00, model.getShoppingItems().get(0).getAmount(), 0.00);
+        model.setStorage(new PantrySummary());
+        assertEquals(4.00, model.getShoppingItems().get(0).getAmount(), 0.00);
+    }
+
+    @Test
+    public void testFirstExpiringStorage() {
+        // the soup week starts on 2022-11-28, after these carrots expire
+        PantrySummary storage = new PantrySummary();
+        storage.add(new Ingredient("Carrot", 3.00, "2022-11-20", "Fridge", "Kgs", "Vegetable"));
+        model.setStorage(storage);
+        assertEquals(4.00, model.getShoppingItems().get(0).getAmount(), 0.00);
+
+        // a meal plan that starts before they expire uses them first, before the later carrots
+        PantrySummary restocked = new PantrySummary();
+        restocked.add(new Ingredient("Carrot", 3.00, "2022-11-20", "Fridge", "Kgs", "Vegetable"));
+        restocked.add(new Ingredient("Carrot", 2.00, "2022-12-31", "Fridge", "Kgs", "Vegetable"));
+        model.setStorage(restocked);
+        MealPlan earlier = mockMealPlan(1);
+        earlier.setId("EARLIER_ID");
+        earlier.setStartDate("2022-11-14");
+        earlier.setEndDate("2022-11-15");
+        model.putMealPlan(earlier);
+        assertEquals(2.00, model.getShoppingItems().get(0).getAmount(), 0.00);
+
+        model.removeMealPlan("EARLIER_ID");
+        assertEquals(2.00, model.getShoppingItems().get(0).getAmount(), 0.00);
+        model.removeMealPlan("MEAL_PLAN_ID");
+        assertEquals(0, model.getShoppingItems().size());
+    }
+
+    @Test
+    public void testRecipeAndServingChanges() {
+        Recipe recipe = mockRecipe();
+        recipe.getIngredients().get(0).setAmount(3.00);
+        model.putRecipe(recipe);
+        assertEquals(6.00, model.getShoppingItems().get(0).getAmount(), 0.00);
+
+        model.putMealPlan(mockMealPlan(5));
+        assertEquals(15.00, model.getShoppingItems().get(0).getAmount(), 0.00);
+
+        model.removeMealPlan("MEAL_PLAN_ID");
+        assertEquals(0, model.getShoppingItems().size());
+    }
+
+    @Test
+    public void testHorizon() {
+        long start = DateUtils.parseEpochDay("2022-11-28", 0);
+
+        // the meal plan runs from 2022-11-28 to 2022-12-05
+        model.setHorizon(start - 7, start - 1);
+        assertEquals(0, model.getShoppingItems().size());
+
+        model.setHorizon(start + 7, start + 14);
+        assertEquals(4.00, model.getShoppingItems().get(0).getAmount(), 0.00);
+
+        // meal plans that are added while the horizon is set are only counted if they overlap it
+        MealPlan later = mockMealPlan(1);
+        later.setId("LATER_ID");
+        later.setStartDate("2023-01-01");
+        later.setEndDate("2023-01-02");
+        model.putMealPlan(later);
+        assertEquals(4.00, model.getShoppingItems().get(0).getAmount(), 0.00);
+
+        model.clearHorizon();
+        assertEquals(6.00, model.getShoppingItems().get(0).getAmount(), 0.00);
+    }
+
+    @Test
+    public void testLoadGenerations() {
+        long first = model.startLoad();
+        long second = model.startLoad();
+
+        // the first read was replaced, so it can't mark the model as loaded
+        assertFalse(model.isCurrentLoad(first));
+        assertFalse(model.finishLoad(first));
+        assertFalse(model.isLoaded());
+
+        assertTrue(model.isCurrentLoad(second));
+        assertTrue(model.finishLoad(second));
+        assertTrue(model.isLoaded());
+
+        // the documents the listeners pass on go through the views
+        model.recipes().put("RECIPE_ID", mockRecipe());
+        model.mealPlans().put("MEAL_PLAN_ID", mockMealPlan(1));
+        assertEquals(2.00, model.getShoppingItems().get(0).getAmount(), 0.00);
+        model.recipes().remove("RECIPE_ID");
+        assertEquals(0, model.getShoppingItems().size());
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.a301project;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+public class ShoppingListReconcilerTest {
+
+    @Test
+    public void testReconcileCombinesItemsWithTheSameName() {
+        ArrayList<ShoppingItem> mealPlanItems = new ArrayList<>();
+        mealPlanItems.add(new ShoppingItem("Carrot", 2.00, "Kgs", "Vegetable"));
+        mealPlanItems.add(new ShoppingItem("carrot", 3.00, "Kgs", "Vegetable"));
+        mealPlanItems.add(new ShoppingItem("Milk", 1.00, "Cups", "Dairy"));
+
+        ArrayList<ShoppingItem> result = ShoppingListReconciler.reconcile(mealPlanItems, new ArrayList<>());
+
+        // the two carrots are combined under the name that appeared first
+        assertEquals(2, result.size());
+        assertEquals("Carrot", result.get(0).getName());
+        assertEquals(5.00, result.get(0).getAmount(), 0.00);
+        assertEquals("Milk", result.get(1).getName());
+        assertEquals(1.00, result.get(1).getAmount(), 0.00);
+    }
+
+    @Test
+    public void testReconcileSubtractsEveryStorageItem() {
+        ArrayList<ShoppingItem> mealPlanItems = new ArrayList<>();
+        mealPlanItems.add(new ShoppingItem("Carrot", 2.00, "null", "null"));
+        mealPlanItems.add(new ShoppingItem("Milk", 1.00, "Cups", "Dairy"));
+        mealPlanItems.add(new ShoppingItem("Carrot", 4.00, "null", "null"));
+
+        ArrayList<ShoppingItem> storageItems = new ArrayList<>();
+        storageItems.add(new ShoppingItem("CARROT", 1.00, "Kgs", "Vegetable"));
+        storageItems.add(new ShoppingItem("Carrot", 2.00, "Kgs", "Vegetable"));
+        storageItems.add(new ShoppingItem("Milk", 1.00, "Cups", "Dairy"));
+
+        ArrayList<ShoppingItem> result = ShoppingListReconciler.reconcile(mealPlanItems, storageItems);
+
+        // there is enough milk, and the carrots are short by 6 - 3 = 3 in the storage unit
+        assertEquals(1, result.size());
+        assertEquals("Carrot", result.get(0).getName());
+        assertEquals(3.00, result.get(0).getAmount(), 0.00);
+        assertEquals("Kgs", result.get(0).getUnit());
+        assertEquals("Vegetable", result.get(0).getCategory());
+
+        // the storage is left untouched
+        assertEquals(1.00, storageItems.get(0).getAmount(), 0.00);
+        assertEquals(2.00, storageItems.get(1).getAmount(), 0.00);
+    }
+
+    @Test
+    public void testReconcileConvertsUnits() {
+        ArrayList<ShoppingItem> mealPlanItems = new ArrayList<>();
+        mealPlanItems.add(new ShoppingItem("Flour", 2.00, "Kgs", "Baking"));
+        mealPlanItems.add(new ShoppingItem("Milk", 2.00, "Cups", "Dairy"));
+        mealPlanItems.add(new ShoppingItem("Eggs", 2.00, "Pieces", "Dairy"));
+
+        ArrayList<ShoppingItem> storageItems = new ArrayList<>();
+        storageItems.add(new ShoppingItem("Flour", 500.00, "Grams", "Baking"));
+        storageItems.add(new ShoppingItem("Milk", 1.00, "Cups", "Dairy"));
+        storageItems.add(new ShoppingItem("Eggs", 1.00, "lbs", "Dairy"));
+
+        ArrayList<ShoppingItem> result = ShoppingListReconciler.reconcile(mealPlanItems, storageItems);
+
+        // the flour and milk are short by 1.5 kg and 1 cup, shown in the storage units
+        assertEquals(3, result.size());
+        assertEquals("Flour", result.get(0).getName());
+        assertEquals(1500.00, result.get(0).getAmount(), 1e-9);
+        assertEquals("Grams", result.get(0).getUnit());
+        assertEquals(1.00, result.get(1).getAmount(), 1e-9);
+
+        // pieces can't be taken from a weight, so all the eggs are bought
+        assertEquals("Eggs", result.get(2).getName());
+        assertEquals(2.00, result.get(2).getAmount(), 0.00);
+        assertEquals("Pieces", result.get(2).getUnit());
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.a301project;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+public class ShoppingListResultTest {
+
+    @Test
+    public void testResultIsNotChangedByItsItems() {
+        ArrayList<ShoppingItem> items = new ArrayList<>();
+        items.add(new ShoppingItem("Carrot", 2.00, "Kgs", "Vegetable"));
+        ShoppingListResult result = new ShoppingListResult(items);
+
+        // changing the calculated items or a copy handed to the screen leaves the result as it was
+        items.get(0).setAmount(5.00);
+        result.copyItems().get(0).setAmount(7.00);
+
+        assertEquals(1, result.size());
+        assertEquals(2.00, result.copyItems().get(0).getAmount(), 0.00);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.a301project;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+
+public class ShoppingListSnapshotStoreTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSnapshotIsReadBackForTheSameUser() throws Exception {
+        ArrayList<ShoppingItem> items = new ArrayList<>();
+        items.add(new ShoppingItem("Carrot", 2.00, "Kgs", "Vegetable"));
+        items.add(new ShoppingItem("Egg", 6.00, null, null));
+        ShoppingListResult result = new ShoppingListResult(items);
+
+        new ShoppingListSnapshotStore(folder.getRoot(), "ShoppingList", "a@b.com").write(result);
+
+        assertEquals(result, new ShoppingListSnapshotStore(folder.getRoot(), "ShoppingList", "a@b.com").read());
+        assertNull(new ShoppingListSnapshotStore(folder.getRoot(), "ShoppingList", "c@d.com").read());
+    }
+
+    @Test
+    public void testChangedResultIsNotEqual() {
+        ArrayList<ShoppingItem> items = new ArrayList<>();
+        items.add(new ShoppingItem("Carrot", 2.00, "Kgs", "Vegetable"));
+        ShoppingListResult result = new ShoppingListResult(items);
+
+        items.get(0).setAmount(3.00);
+        assertNotEquals(result, new ShoppingListResult(items));
+        items.get(0).setAmount(2.00);
+        assertEquals(result, new ShoppingListResult(items));
+        assertEquals(result.hashCode(), new ShoppingListResult(items).hashCode());
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.a301project;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+public class TrigramIndexTest {
+
+    @Test
+    public void testSuggestionsAreRanked() {
+        TrigramIndex index = new TrigramIndex();
+        index.add("Tomato");
+        index.add("Tomato Paste");
+        index.add("Potato");
+        index.add("tomato");
+        index.add("Bread");
+
+        ArrayList<String> suggestions = index.suggest("tom", 5, null);
+        assertEquals("Tomato", suggestions.get(0));
+        assertEquals("Tomato Paste", suggestions.get(1));
+
+        // a typo still finds the name
+        assertEquals("Tomato", index.suggest("tomatp", 1, null).get(0));
+        assertEquals("Potato", index.suggest("potatto", 1, null).get(0));
+        assertTrue(index.suggest("xyz", 5, null).isEmpty());
+    }
+
+    @Test
+    public void testExcludedAndRemovedNames() {
+        TrigramIndex index = new TrigramIndex();
+        index.add("Carrot");
+        index.add("Carrot Cake");
+
+        ArrayList<String> suggestions = index.suggest("carrot", 5, Collections.singleton(TrigramIndex.keyOf("CARROT ")));
+        assertEquals(1, suggestions.size());
+        assertEquals("Carrot Cake", suggestions.get(0));
+
+        index.remove("carrot cake");
+        assertTrue(index.suggest("carrot", 5, Collections.singleton("carrot")).isEmpty());
+        index.add("Carrot Cake");
+        assertEquals(2, index.suggest("carrot", 5, null).size());
+    }
+}